@@ -0,0 +1,270 @@
+package com.movieAI.moviematcher.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Size-bounded, TTL-based in-process cache with frequency-aware eviction.
+ * <p>
+ * Entries are kept in access order. When the cache is full, the least recently used
+ * entries are sampled and the one with the lowest access frequency is evicted (expired
+ * entries are always evicted first). This keeps popular titles resident even when a burst
+ * of one-off lookups passes through the cache. Frequencies are halved periodically so that
+ * titles that were popular yesterday eventually become evictable.
+ * <p>
+ * An optional grace period keeps entries past their TTL. {@link #get} never returns them,
+ * but {@link #lookup} does, flagged as stale, so callers can serve the old value while they
+ * refresh it instead of making the user wait for the upstream.
+ * <p>
+ * All operations are guarded by a single lock; the cache is meant to sit in front of
+ * network calls that take hundreds of milliseconds, so lock hold times are negligible.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+    private static final int AGING_FACTOR = 10;
+
+    private final int maxSize;
+    private final long defaultTtlNanos;
+    private final long graceNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+
+    private long accessesSinceAging;
+
+    public BoundedTtlCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, Duration.ZERO);
+    }
+
+    /**
+     * @param grace how long entries are retained after their TTL for {@link #lookup}
+     */
+    public BoundedTtlCache(int maxSize, Duration ttl, Duration grace) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.defaultTtlNanos = ttl.toNanos();
+        this.graceNanos = grace.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached value, or null if the key is absent or expired
+     */
+    public V get(K key) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                if (entry.isRetained(now, graceNanos)) {
+                    // Left in place for lookup() callers that accept stale values
+                    misses.increment();
+                    return null;
+                }
+                entries.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            recordAccess(entry);
+            hits.increment();
+            return entry.value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the cached value with its freshness, including stale values within the grace
+     * period, or null if the key is absent or past its grace period
+     */
+    public CachedValue<V> lookup(K key) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+            if (!entry.isRetained(now, graceNanos)) {
+                entries.remove(key);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            boolean stale = entry.isExpired(now);
+            recordAccess(entry);
+            hits.increment();
+            if (stale) {
+                staleHits.increment();
+            }
+            return new CachedValue<>(entry.value, stale, now - entry.storedAtNanos,
+                    entry.expiresAtNanos - entry.storedAtNanos, entry.frequency);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtlNanos);
+    }
+
+    /**
+     * Stores a value with a TTL that overrides the cache default
+     */
+    public void put(K key, V value, Duration ttl) {
+        put(key, value, ttl.toNanos());
+    }
+
+    /**
+     * Returns the unexpired value for the key, or stores the given value with the TTL and
+     * returns it. Checking and storing happen under one lock, so concurrent callers for a
+     * new key all get the same value.
+     */
+    public V getOrPut(K key, V value, Duration ttl) {
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                recordAccess(entry);
+                hits.increment();
+                return entry.value;
+            }
+            misses.increment();
+            put(key, value, ttl.toNanos());
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(K key, V value, long ttlNanos) {
+        if (key == null || value == null || ttlNanos <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        lock.lock();
+        try {
+            Entry<V> previous = entries.get(key);
+            Entry<V> entry = new Entry<>(value, now, now + ttlNanos);
+            if (previous != null) {
+                // Keep the popularity of a refreshed entry
+                entry.frequency = previous.frequency;
+            }
+            entries.put(key, entry);
+            while (entries.size() > maxSize) {
+                evictOne(now);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), staleHits.sum(), evictions.sum(), expirations.sum(), size(), maxSize);
+    }
+
+    private void recordAccess(Entry<V> entry) {
+        if (entry.frequency < Integer.MAX_VALUE) {
+            entry.frequency++;
+        }
+        if (++accessesSinceAging >= (long) maxSize * AGING_FACTOR) {
+            accessesSinceAging = 0;
+            for (Entry<V> e : entries.values()) {
+                e.frequency >>= 1;
+            }
+        }
+    }
+
+    /**
+     * Evicts one entry among the least recently used ones, preferring entries past their
+     * grace period and then the entry with the lowest access frequency.
+     */
+    private void evictOne(long now) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        K victim = null;
+        int victimFrequency = Integer.MAX_VALUE;
+        for (int sampled = 0; sampled < EVICTION_SAMPLE_SIZE && iterator.hasNext(); sampled++) {
+            Map.Entry<K, Entry<V>> candidate = iterator.next();
+            if (!candidate.getValue().isRetained(now, graceNanos)) {
+                iterator.remove();
+                expirations.increment();
+                return;
+            }
+            if (candidate.getValue().frequency < victimFrequency) {
+                victim = candidate.getKey();
+                victimFrequency = candidate.getValue().frequency;
+            }
+        }
+        if (victim != null) {
+            entries.remove(victim);
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long storedAtNanos;
+        private final long expiresAtNanos;
+        private int frequency;
+
+        private Entry(V value, long storedAtNanos, long expiresAtNanos) {
+            this.value = value;
+            this.storedAtNanos = storedAtNanos;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+
+        private boolean isRetained(long now, long graceNanos) {
+            return now - expiresAtNanos < graceNanos;
+        }
+    }
+}
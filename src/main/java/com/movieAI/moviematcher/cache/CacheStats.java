@@ -0,0 +1,45 @@
+package com.movieAI.moviematcher.cache;
+
+/**
+ * Point-in-time snapshot of the counters of a {@link BoundedTtlCache}.
+ */
+public class CacheStats {
+
+    private final long hits;
+    private final long misses;
+    private final long staleHits;
+    private final long evictions;
+    private final long expirations;
+    private final int size;
+    private final int maxSize;
+
+    public CacheStats(long hits, long misses, long staleHits, long evictions, long expirations, int size, int maxSize) {
+        this.hits = hits;
+        this.misses = misses;
+        this.staleHits = staleHits;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.size = size;
+        this.maxSize = maxSize;
+    }
+
+    public long getHits() { return hits; }
+
+    public long getMisses() { return misses; }
+
+    // Hits served from the grace period after the TTL had passed (included in hits)
+    public long getStaleHits() { return staleHits; }
+
+    public long getEvictions() { return evictions; }
+
+    public long getExpirations() { return expirations; }
+
+    public int getSize() { return size; }
+
+    public int getMaxSize() { return maxSize; }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,20 @@
+package com.movieAI.moviematcher.cache;
+
+/**
+ * A value read from a {@link BoundedTtlCache} together with its freshness, for callers
+ * that serve stale data while they refresh it.
+ *
+ * @param stale     true if the TTL has passed and the entry is only kept by the grace period
+ * @param ageNanos  time since the value was stored
+ * @param ttlNanos  time to live the value was stored with
+ * @param frequency access frequency used for eviction, a rough measure of popularity
+ */
+public record CachedValue<V>(V value, boolean stale, long ageNanos, long ttlNanos, int frequency) {
+
+    /**
+     * Fraction of the TTL that has elapsed, 1.0 or more once the entry is stale
+     */
+    public double lifetimeFraction() {
+        return ttlNanos <= 0 ? 1.0 : (double) ageNanos / ttlNanos;
+    }
+}
@@ -0,0 +1,86 @@
+package com.movieAI.moviematcher.cache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into a single in-flight call.
+ * <p>
+ * The first caller for a key (the leader) starts the call; every caller arriving while
+ * it is still running receives the same {@link CompletableFuture}. The key is released
+ * as soon as the call completes, so results are never retained here - pair this with a
+ * cache when results should outlive the call.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Starts the call for the key, or joins the call that is already in flight
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        leaders.increment();
+        try {
+            call.get().whenComplete((value, error) -> {
+                inFlight.remove(key, created);
+                if (error != null) {
+                    created.completeExceptionally(error);
+                } else {
+                    created.complete(value);
+                }
+            });
+        } catch (Throwable t) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(t);
+        }
+        return created;
+    }
+
+    /**
+     * Blocking variant: the leader runs the call on its own thread, followers wait for its result
+     */
+    public V executeSync(K key, Callable<V> call) throws Exception {
+        CompletableFuture<V> future = execute(key, () -> {
+            try {
+                return CompletableFuture.completedFuture(call.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        try {
+            return future.get();
+        } catch (ExecutionException | CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+
+    public long getLeaderCount() {
+        return leaders.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+}
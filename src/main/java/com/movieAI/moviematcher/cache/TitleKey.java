@@ -0,0 +1,27 @@
+package com.movieAI.moviematcher.cache;
+
+import java.util.Locale;
+
+/**
+ * Cache key for title based lookups.
+ * <p>
+ * Titles are normalized (trimmed, lower-cased, inner whitespace collapsed) so that
+ * "The Dark Knight", " the dark  knight" and "THE DARK KNIGHT" share a single entry.
+ * The country is part of the key because streaming availability differs per region.
+ */
+public record TitleKey(String title, String country) {
+
+    public static TitleKey of(String title, String country) {
+        return new TitleKey(normalize(title), country == null ? "" : country.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Normalizes a title for use as a lookup key
+     */
+    public static String normalize(String title) {
+        if (title == null) {
+            return "";
+        }
+        return title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,54 @@
+package com.movieAI.moviematcher.catalog;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One movie of the local catalog export, in the same shape the Python service works with.
+ * The optional embedding is a precomputed dense vector (e.g. from a sentence encoder) used
+ * by the approximate nearest-neighbour index.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CatalogMovie {
+
+    private String title;
+    private String overview;
+    private List<String> genres = new ArrayList<>();
+    private double popularity;
+    @JsonProperty("vote_average")
+    @JsonAlias("voteAverage")
+    private double voteAverage;
+    private float[] embedding;
+
+    public CatalogMovie() {}
+
+    public CatalogMovie(String title, String overview, List<String> genres, double popularity, double voteAverage) {
+        this.title = title;
+        this.overview = overview;
+        this.genres = genres != null ? genres : new ArrayList<>();
+        this.popularity = popularity;
+        this.voteAverage = voteAverage;
+    }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getOverview() { return overview; }
+    public void setOverview(String overview) { this.overview = overview; }
+
+    public List<String> getGenres() { return genres; }
+    public void setGenres(List<String> genres) { this.genres = genres != null ? genres : new ArrayList<>(); }
+
+    public double getPopularity() { return popularity; }
+    public void setPopularity(double popularity) { this.popularity = popularity; }
+
+    public double getVoteAverage() { return voteAverage; }
+    public void setVoteAverage(double voteAverage) { this.voteAverage = voteAverage; }
+
+    public float[] getEmbedding() { return embedding; }
+    public void setEmbedding(float[] embedding) { this.embedding = embedding; }
+}
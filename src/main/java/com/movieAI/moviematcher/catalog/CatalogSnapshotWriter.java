@@ -0,0 +1,162 @@
+package com.movieAI.moviematcher.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieAI.moviematcher.cache.TitleKey;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Builds a catalog snapshot file for {@link MappedMovieCatalog} from any {@link MovieCatalog},
+ * typically one loaded from the JSON export.
+ * <p>
+ * Vectors are the catalog's own embeddings when it has them; otherwise, with a positive
+ * projection dimension, the movies' TF-IDF vectors are randomly projected (see
+ * {@link TfIdfIndex#randomProjection}) so the snapshot still carries similarity data.
+ * The file is written next to the target and moved into place atomically, and each snapshot
+ * gets a new version so readers can tell whether a reload changed anything.
+ * <p>
+ * Command line: CatalogSnapshotWriter &lt;catalog.json&gt; &lt;snapshot file&gt; [projection dimension]
+ */
+public final class CatalogSnapshotWriter {
+
+    private CatalogSnapshotWriter() {}
+
+    /**
+     * Writes the snapshot and returns its version
+     */
+    public static long write(MovieCatalog catalog, int projectionDimension, Path target) throws IOException {
+        int count = catalog.size();
+        int dimension = catalog.vectorDimension() > 0 ? catalog.vectorDimension() : Math.max(projectionDimension, 0);
+        TfIdfIndex projectionSource = catalog.vectorDimension() == 0 && dimension > 0 ? TfIdfIndex.build(catalog) : null;
+
+        // Records and string table
+        ByteArrayOutputStream strings = new ByteArrayOutputStream();
+        int[][] references = new int[count][];
+        double[][] numbers = new double[count][];
+        long[] indexEntries = new long[count];
+        int[] indexPositions = new int[count];
+        int indexCount = 0;
+        for (int i = 0; i < count; i++) {
+            CatalogMovie movie = catalog.get(i);
+            String genres = movie.getGenres().isEmpty() ? null
+                    : String.join(String.valueOf(MappedMovieCatalog.GENRE_SEPARATOR), movie.getGenres());
+            int[] reference = new int[6];
+            appendString(strings, movie.getTitle(), reference, 0);
+            appendString(strings, movie.getOverview(), reference, 2);
+            appendString(strings, genres, reference, 4);
+            references[i] = reference;
+            numbers[i] = new double[] {movie.getPopularity(), movie.getVoteAverage()};
+            if (catalog.indexOf(movie.getTitle()) == i) {
+                indexEntries[indexCount] = MappedMovieCatalog.titleHash(TitleKey.normalize(movie.getTitle()));
+                indexPositions[indexCount] = i;
+                indexCount++;
+            }
+        }
+        int[] indexOrder = sortedByHash(indexEntries, indexCount);
+
+        long recordsOffset = MappedMovieCatalog.HEADER_SIZE;
+        long indexOffset = recordsOffset + (long) count * MappedMovieCatalog.RECORD_SIZE;
+        long stringsOffset = indexOffset + (long) indexCount * MappedMovieCatalog.INDEX_ENTRY_SIZE;
+        long padding = (Float.BYTES - (stringsOffset + strings.size()) % Float.BYTES) % Float.BYTES;
+        long vectorsOffset = stringsOffset + strings.size() + padding;
+        long fileSize = vectorsOffset + (long) count * dimension * Float.BYTES;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("Catalog snapshot would be " + fileSize + " bytes, more than the 2 GB limit");
+        }
+
+        long version = System.currentTimeMillis();
+        Path directory = target.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MappedMovieCatalog.MAGIC);
+            out.writeInt(MappedMovieCatalog.FORMAT_VERSION);
+            out.writeLong(version);
+            out.writeInt(count);
+            out.writeInt(dimension);
+            out.writeInt(indexCount);
+            out.writeInt(0);
+            out.writeLong(recordsOffset);
+            out.writeLong(indexOffset);
+            out.writeLong(stringsOffset);
+            out.writeLong(vectorsOffset);
+
+            for (int i = 0; i < count; i++) {
+                for (int value : references[i]) {
+                    out.writeInt(value);
+                }
+                out.writeDouble(numbers[i][0]);
+                out.writeDouble(numbers[i][1]);
+            }
+            for (int entry : indexOrder) {
+                out.writeLong(indexEntries[entry]);
+                out.writeInt(indexPositions[entry]);
+                out.writeInt(0);
+            }
+            strings.writeTo(out);
+            for (long i = 0; i < padding; i++) {
+                out.writeByte(0);
+            }
+            for (int i = 0; i < count && dimension > 0; i++) {
+                float[] vector = projectionSource != null
+                        ? projectionSource.randomProjection(i, dimension, TfIdfIndex.PROJECTION_SEED)
+                        : catalog.vector(i);
+                for (float value : vector) {
+                    out.writeFloat(value);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return version;
+    }
+
+    /**
+     * Appends a string to the table and stores its (offset, length) at the given slot; length -1 is null
+     */
+    private static void appendString(ByteArrayOutputStream strings, String value, int[] reference, int slot) {
+        reference[slot] = strings.size();
+        if (value == null) {
+            reference[slot + 1] = -1;
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        strings.writeBytes(bytes);
+        reference[slot + 1] = bytes.length;
+    }
+
+    private static int[] sortedByHash(long[] hashes, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(hashes[a], hashes[b]));
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: CatalogSnapshotWriter <catalog.json> <snapshot file> [projection dimension]");
+            System.exit(2);
+        }
+        int projectionDimension = args.length > 2 ? Integer.parseInt(args[2]) : 128;
+        long start = System.nanoTime();
+        MovieCatalog catalog = MovieCatalog.load(Paths.get(args[0]), new ObjectMapper());
+        long version = write(catalog, projectionDimension, Paths.get(args[1]));
+        System.out.println("Wrote catalog snapshot " + args[1] + " (" + catalog.size() + " movies, version " + version
+                + ") in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,103 @@
+package com.movieAI.moviematcher.catalog;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-movie genre bitmasks over a catalog, for scoring thousands of candidates without
+ * touching strings.
+ * <p>
+ * Each distinct genre in the catalog gets a bit id in order of first appearance, and each
+ * movie's genres become one long. Catalogs have a couple of dozen genres, so 64 bits are
+ * plenty; genres beyond the 64th are left out of the masks. Vote averages are copied next
+ * to the masks so scoring never reads the catalog itself.
+ */
+public final class GenreMasks {
+
+    public static final int MAX_GENRES = Long.SIZE;
+
+    private final MovieCatalog catalog;
+    private final Map<String, Integer> genreIds;
+    private final long[] masks;
+    private final float[] voteAverages;
+
+    private GenreMasks(MovieCatalog catalog, Map<String, Integer> genreIds, long[] masks, float[] voteAverages) {
+        this.catalog = catalog;
+        this.genreIds = genreIds;
+        this.masks = masks;
+        this.voteAverages = voteAverages;
+    }
+
+    public static GenreMasks build(MovieCatalog catalog) {
+        Map<String, Integer> genreIds = new HashMap<>();
+        long[] masks = new long[catalog.size()];
+        float[] voteAverages = new float[catalog.size()];
+        int skippedGenres = 0;
+        for (int i = 0; i < catalog.size(); i++) {
+            CatalogMovie movie = catalog.get(i);
+            long mask = 0L;
+            for (String genre : movie.getGenres()) {
+                if (genre == null || genre.isBlank()) {
+                    continue;
+                }
+                String key = normalize(genre);
+                Integer id = genreIds.get(key);
+                if (id == null) {
+                    if (genreIds.size() >= MAX_GENRES) {
+                        skippedGenres++;
+                        continue;
+                    }
+                    id = genreIds.size();
+                    genreIds.put(key, id);
+                }
+                mask |= 1L << id;
+            }
+            masks[i] = mask;
+            voteAverages[i] = (float) movie.getVoteAverage();
+        }
+        if (skippedGenres > 0) {
+            System.err.println("Genre masks: catalog has more than " + MAX_GENRES + " genres, "
+                    + skippedGenres + " genre assignments left out");
+        }
+        return new GenreMasks(catalog, genreIds, masks, voteAverages);
+    }
+
+    static String normalize(String genre) {
+        return genre.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the bit id of a genre, or -1 if no movie in the catalog has it
+     */
+    public int genreId(String genre) {
+        if (genre == null) {
+            return -1;
+        }
+        Integer id = genreIds.get(normalize(genre));
+        return id != null ? id : -1;
+    }
+
+    public long mask(int index) {
+        return masks[index];
+    }
+
+    public float voteAverage(int index) {
+        return voteAverages[index];
+    }
+
+    public int size() {
+        return masks.length;
+    }
+
+    public int getGenreCount() {
+        return genreIds.size();
+    }
+
+    /**
+     * The catalog the masks were built from, so callers can tell when a reload made them stale
+     */
+    public MovieCatalog getCatalog() {
+        return catalog;
+    }
+}
@@ -0,0 +1,93 @@
+package com.movieAI.moviematcher.catalog;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieAI.moviematcher.cache.TitleKey;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable movie catalog held on the heap, loaded from a JSON export.
+ * <p>
+ * Vectors come from the movies' embeddings, and only when every movie has one of the same
+ * dimension; otherwise the catalog reports no vectors.
+ */
+public class HeapMovieCatalog implements MovieCatalog {
+
+    private final List<CatalogMovie> movies;
+    private final Map<String, Integer> indexByTitle;
+    private final int vectorDimension;
+
+    public HeapMovieCatalog(List<CatalogMovie> movies) {
+        List<CatalogMovie> valid = new ArrayList<>(movies.size());
+        for (CatalogMovie movie : movies) {
+            if (movie.getTitle() != null && !movie.getTitle().isBlank()) {
+                valid.add(movie);
+            }
+        }
+        this.movies = Collections.unmodifiableList(valid);
+        this.indexByTitle = new HashMap<>(valid.size() * 2);
+        for (int i = 0; i < valid.size(); i++) {
+            int index = i;
+            indexByTitle.merge(TitleKey.normalize(valid.get(i).getTitle()), i,
+                    (existing, candidate) -> valid.get(existing).getPopularity() >= valid.get(index).getPopularity()
+                            ? existing : candidate);
+        }
+        this.vectorDimension = embeddingDimension(valid);
+    }
+
+    /**
+     * Reads a JSON array of movies (title, overview, genres, popularity, vote_average)
+     */
+    public static HeapMovieCatalog load(Path path, ObjectMapper objectMapper) throws IOException {
+        List<CatalogMovie> movies = objectMapper.readValue(path.toFile(), new TypeReference<List<CatalogMovie>>() {});
+        return new HeapMovieCatalog(movies);
+    }
+
+    private static int embeddingDimension(List<CatalogMovie> movies) {
+        int dimension = -1;
+        for (CatalogMovie movie : movies) {
+            float[] embedding = movie.getEmbedding();
+            if (embedding == null || embedding.length == 0 || (dimension >= 0 && embedding.length != dimension)) {
+                return 0;
+            }
+            dimension = embedding.length;
+        }
+        return Math.max(dimension, 0);
+    }
+
+    @Override
+    public int size() {
+        return movies.size();
+    }
+
+    @Override
+    public CatalogMovie get(int index) {
+        return movies.get(index);
+    }
+
+    @Override
+    public int indexOf(String title) {
+        if (title == null) {
+            return -1;
+        }
+        Integer index = indexByTitle.get(TitleKey.normalize(title));
+        return index != null ? index : -1;
+    }
+
+    @Override
+    public int vectorDimension() {
+        return vectorDimension;
+    }
+
+    @Override
+    public float[] vector(int index) {
+        return vectorDimension > 0 ? movies.get(index).getEmbedding() : null;
+    }
+}
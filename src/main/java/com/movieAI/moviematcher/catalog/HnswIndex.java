@@ -0,0 +1,548 @@
+package com.movieAI.moviematcher.catalog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+
+/**
+ * Hierarchical Navigable Small World graph for approximate nearest-neighbour search by
+ * cosine similarity (Malkov and Yashunin, 2016).
+ * <p>
+ * Vectors are normalized on insert and stored back to back in one float[]; graph links are
+ * int arrays whose first slot holds the neighbour count, so the index holds no boxed values.
+ * Node ids are assigned in insertion order, which lets callers use catalog positions as ids.
+ * <p>
+ * Parameters:
+ * - m: links per node on the upper layers (2 * m on the bottom layer)
+ * - efConstruction: candidate list size while inserting; higher builds a better graph, slower
+ * - efSearch: default candidate list size while querying; higher raises recall, slower
+ * <p>
+ * Queries run concurrently under a read lock; inserts take the write lock, so the index can
+ * grow incrementally while it serves queries.
+ * <p>
+ * The graph can be saved with {@link #writeGraph} and restored with {@link #readGraph}, which
+ * skips the build entirely. Graph files hold links only; vectors come from the caller, usually
+ * a catalog snapshot. File layout (big-endian): magic "MVHG", format version, source version,
+ * dimension, m, efConstruction, node count, entry point, max level, then per node its level
+ * count and, per level, the neighbour count followed by the neighbour ids.
+ */
+public class HnswIndex {
+
+    private static final int GRAPH_MAGIC = 0x4D564847; // "MVHG"
+    private static final int GRAPH_FORMAT_VERSION = 1;
+
+    private final int dimension;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int defaultEfSearch;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private float[] vectors;
+    // links[node][level] = {count, neighbour ids...}
+    private int[][][] links;
+    private int size;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    public HnswIndex(int dimension, int m, int efConstruction, int efSearch, int initialCapacity, long seed) {
+        if (dimension <= 0 || m < 2) {
+            throw new IllegalArgumentException("dimension must be positive and m at least 2");
+        }
+        this.dimension = dimension;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.defaultEfSearch = efSearch;
+        this.levelMultiplier = 1.0 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+        int capacity = Math.max(16, initialCapacity);
+        this.vectors = new float[capacity * dimension];
+        this.links = new int[capacity][][];
+    }
+
+    /**
+     * Inserts a vector and returns its node id
+     */
+    public int add(float[] vector) {
+        if (vector.length != dimension) {
+            throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + vector.length);
+        }
+        lock.writeLock().lock();
+        try {
+            int node = size;
+            ensureCapacity(node + 1);
+            System.arraycopy(normalize(vector), 0, vectors, node * dimension, dimension);
+            int level = (int) (-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+            links[node] = new int[level + 1][];
+            for (int l = 0; l <= level; l++) {
+                links[node][l] = new int[maxConnections(l) + 1];
+            }
+            size++;
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return node;
+            }
+
+            int current = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                current = greedyClosest(vectors, node * dimension, current, l);
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                NodeHeap candidates = searchLayer(vectors, node * dimension, current, efConstruction, l);
+                int[] sorted = candidates.drainAscending();
+                current = sorted[0];
+                int[] neighbours = selectNeighbours(node * dimension, sorted, m);
+                setLinks(node, l, neighbours);
+                for (int neighbour : neighbours) {
+                    connect(neighbour, node, l);
+                }
+            }
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = node;
+            }
+            return node;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ScoredMovie> search(float[] query, int k) {
+        return search(query, k, defaultEfSearch);
+    }
+
+    /**
+     * Returns the approximately k most similar nodes, most similar first; scores are cosine similarities
+     */
+    public List<ScoredMovie> search(float[] query, int k, int efSearch) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                current = greedyClosest(normalized, 0, current, l);
+            }
+            NodeHeap results = searchLayer(normalized, 0, current, Math.max(efSearch, k), 0);
+            int[] sorted = results.drainAscending();
+            List<ScoredMovie> top = new ArrayList<>(Math.min(k, sorted.length));
+            for (int i = 0; i < sorted.length && top.size() < k; i++) {
+                top.add(new ScoredMovie(sorted[i], 1.0 - distance(normalized, 0, sorted[i])));
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Brute-force search over every node, the reference for measuring recall
+     */
+    public List<ScoredMovie> exactSearch(float[] query, int k) {
+        float[] normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            float[] scores = new float[size];
+            for (int node = 0; node < size; node++) {
+                // Shifted so that every similarity counts as a positive score in topK
+                scores[node] = (float) (2.0 - distance(normalized, 0, node));
+            }
+            List<ScoredMovie> top = TfIdfIndex.topK(scores, k);
+            return top.stream().map(scored -> new ScoredMovie(scored.index(), scored.score() - 1.0)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the graph links to a file, tagged with the version of the vectors they were built
+     * from. The file is written next to the target and moved into place atomically.
+     */
+    public void writeGraph(Path target, long sourceVersion) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        lock.readLock().lock();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(GRAPH_MAGIC);
+            out.writeInt(GRAPH_FORMAT_VERSION);
+            out.writeLong(sourceVersion);
+            out.writeInt(dimension);
+            out.writeInt(m);
+            out.writeInt(efConstruction);
+            out.writeInt(size);
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            for (int node = 0; node < size; node++) {
+                out.writeInt(links[node].length);
+                for (int[] levelLinks : links[node]) {
+                    for (int i = 0; i <= levelLinks[0]; i++) {
+                        out.writeInt(levelLinks[i]);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores an index from a graph file written by {@link #writeGraph}, taking node i's
+     * vector from vectors.apply(i). Empty if the file is missing or was built from another
+     * source version, with other parameters or for another node count; later inserts draw
+     * levels from the given seed, not from where the original build left off.
+     *
+     * @throws IOException if the file cannot be read or is corrupt
+     */
+    public static Optional<HnswIndex> readGraph(Path file, long sourceVersion, int dimension, int m,
+                                                int efConstruction, int efSearch, int count, long seed,
+                                                IntFunction<float[]> vectors) throws IOException {
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        HnswIndex index = new HnswIndex(dimension, m, efConstruction, efSearch, count, seed);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != GRAPH_MAGIC || in.readInt() != GRAPH_FORMAT_VERSION) {
+                throw new IOException(file + " is not an HNSW graph file");
+            }
+            if (in.readLong() != sourceVersion || in.readInt() != dimension || in.readInt() != m
+                    || in.readInt() != index.efConstruction || in.readInt() != count) {
+                return Optional.empty();
+            }
+            int entryPoint = in.readInt();
+            int maxLevel = in.readInt();
+            if (count > 0 && (entryPoint < 0 || entryPoint >= count || maxLevel < 0)) {
+                throw new IOException("Corrupt HNSW graph file " + file);
+            }
+            for (int node = 0; node < count; node++) {
+                int levels = in.readInt();
+                if (levels < 1 || levels > maxLevel + 1) {
+                    throw new IOException("Corrupt HNSW graph file " + file);
+                }
+                index.links[node] = new int[levels][];
+                for (int l = 0; l < levels; l++) {
+                    int[] levelLinks = new int[index.maxConnections(l) + 1];
+                    int neighbours = in.readInt();
+                    if (neighbours < 0 || neighbours >= levelLinks.length) {
+                        throw new IOException("Corrupt HNSW graph file " + file);
+                    }
+                    levelLinks[0] = neighbours;
+                    for (int i = 1; i <= neighbours; i++) {
+                        levelLinks[i] = in.readInt();
+                        if (levelLinks[i] < 0 || levelLinks[i] >= count) {
+                            throw new IOException("Corrupt HNSW graph file " + file);
+                        }
+                    }
+                    index.links[node][l] = levelLinks;
+                }
+                float[] vector = vectors.apply(node);
+                if (vector.length != dimension) {
+                    throw new IllegalArgumentException("Expected dimension " + dimension + " but got " + vector.length);
+                }
+                System.arraycopy(index.normalize(vector), 0, index.vectors, node * dimension, dimension);
+            }
+            if (count > 0 && index.links[entryPoint].length != maxLevel + 1) {
+                throw new IOException("Corrupt HNSW graph file " + file);
+            }
+            index.size = count;
+            index.entryPoint = count > 0 ? entryPoint : -1;
+            index.maxLevel = count > 0 ? maxLevel : -1;
+        } catch (EOFException e) {
+            throw new IOException("Truncated HNSW graph file " + file, e);
+        }
+        return Optional.of(index);
+    }
+
+    /**
+     * Returns a copy of the stored (normalized) vector of a node
+     */
+    public float[] vector(int node) {
+        lock.readLock().lock();
+        try {
+            return Arrays.copyOfRange(vectors, node * dimension, (node + 1) * dimension);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? maxM0 : m;
+    }
+
+    private int greedyClosest(float[] query, int queryOffset, int start, int level) {
+        int current = start;
+        double currentDistance = distance(query, queryOffset, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] neighbours = links[current][level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                double d = distance(query, queryOffset, neighbours[i]);
+                if (d < currentDistance) {
+                    currentDistance = d;
+                    current = neighbours[i];
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one layer; returns up to ef closest nodes as a max-heap
+     */
+    private NodeHeap searchLayer(float[] query, int queryOffset, int start, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        NodeHeap candidates = new NodeHeap(ef * 2, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+        double startDistance = distance(query, queryOffset, start);
+        candidates.push(start, startDistance);
+        results.push(start, startDistance);
+        visited.set(start);
+
+        while (candidates.size() > 0) {
+            double candidateDistance = candidates.peekDistance();
+            if (results.size() >= ef && candidateDistance > results.peekDistance()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            int[][] candidateLinks = links[candidate];
+            if (level >= candidateLinks.length) {
+                continue;
+            }
+            int[] neighbours = candidateLinks[level];
+            for (int i = 1; i <= neighbours[0]; i++) {
+                int neighbour = neighbours[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                double d = distance(query, queryOffset, neighbour);
+                if (results.size() < ef || d < results.peekDistance()) {
+                    candidates.push(neighbour, d);
+                    results.push(neighbour, d);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Neighbour selection heuristic: a candidate is kept only if it is closer to the base
+     * node than to every neighbour kept so far, which spreads links across directions
+     */
+    private int[] selectNeighbours(int baseOffset, int[] sortedCandidates, int limit) {
+        int[] selected = new int[Math.min(limit, sortedCandidates.length)];
+        int count = 0;
+        for (int candidate : sortedCandidates) {
+            if (count >= limit) {
+                break;
+            }
+            double distanceToBase = distance(vectors, baseOffset, candidate);
+            boolean keep = true;
+            for (int i = 0; i < count; i++) {
+                if (distance(vectors, selected[i] * dimension, candidate) < distanceToBase) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    private void setLinks(int node, int level, int[] neighbours) {
+        int[] nodeLinks = links[node][level];
+        nodeLinks[0] = neighbours.length;
+        System.arraycopy(neighbours, 0, nodeLinks, 1, neighbours.length);
+    }
+
+    private void connect(int node, int newNeighbour, int level) {
+        int[] nodeLinks = links[node][level];
+        int count = nodeLinks[0];
+        if (count < nodeLinks.length - 1) {
+            nodeLinks[count + 1] = newNeighbour;
+            nodeLinks[0] = count + 1;
+            return;
+        }
+        // Full: re-select among the existing neighbours and the new one
+        int[] candidates = Arrays.copyOfRange(nodeLinks, 1, count + 2);
+        candidates[count] = newNeighbour;
+        NodeHeap byDistance = new NodeHeap(candidates.length, false);
+        for (int candidate : candidates) {
+            byDistance.push(candidate, distance(vectors, node * dimension, candidate));
+        }
+        int[] sorted = new int[candidates.length];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = byDistance.pop();
+        }
+        setLinks(node, level, selectNeighbours(node * dimension, sorted, maxConnections(level)));
+    }
+
+    private double distance(float[] query, int queryOffset, int node) {
+        int nodeOffset = node * dimension;
+        double dot = 0;
+        for (int i = 0; i < dimension; i++) {
+            dot += query[queryOffset + i] * vectors[nodeOffset + i];
+        }
+        return 1.0 - dot;
+    }
+
+    private float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        float[] normalized = Arrays.copyOf(vector, vector.length);
+        if (norm > 0) {
+            float inverse = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] *= inverse;
+            }
+        }
+        return normalized;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= links.length) {
+            return;
+        }
+        int capacity = Math.max(required, links.length * 2);
+        vectors = Arrays.copyOf(vectors, capacity * dimension);
+        links = Arrays.copyOf(links, capacity);
+    }
+
+    /**
+     * Binary heap of (node, distance) pairs on primitive arrays
+     */
+    private static final class NodeHeap {
+        private final boolean maxHeap;
+        private int[] nodes;
+        private double[] distances;
+        private int size;
+
+        private NodeHeap(int capacity, boolean maxHeap) {
+            this.maxHeap = maxHeap;
+            this.nodes = new int[Math.max(4, capacity)];
+            this.distances = new double[nodes.length];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private double peekDistance() {
+            return distances[0];
+        }
+
+        private void push(int node, double distance) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                distances = Arrays.copyOf(distances, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(distance, distances[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                distances[i] = distances[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            distances[i] = distance;
+        }
+
+        private int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                int lastNode = nodes[size];
+                double lastDistance = distances[size];
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && before(distances[child + 1], distances[child])) {
+                        child++;
+                    }
+                    if (!before(distances[child], lastDistance)) {
+                        break;
+                    }
+                    nodes[i] = nodes[child];
+                    distances[i] = distances[child];
+                    i = child;
+                }
+                nodes[i] = lastNode;
+                distances[i] = lastDistance;
+            }
+            return top;
+        }
+
+        /**
+         * Empties the heap and returns its nodes closest first
+         */
+        private int[] drainAscending() {
+            int[] sorted = new int[size];
+            if (maxHeap) {
+                for (int i = sorted.length - 1; i >= 0; i--) {
+                    sorted[i] = pop();
+                }
+            } else {
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = pop();
+                }
+            }
+            return sorted;
+        }
+
+        private boolean before(double a, double b) {
+            return maxHeap ? a > b : a < b;
+        }
+    }
+}
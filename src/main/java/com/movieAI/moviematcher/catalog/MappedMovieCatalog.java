@@ -0,0 +1,219 @@
+package com.movieAI.moviematcher.catalog;
+
+import com.movieAI.moviematcher.cache.TitleKey;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Movie catalog read straight from a memory-mapped snapshot file (see {@link CatalogSnapshotWriter}).
+ * <p>
+ * Opening a snapshot only validates its header; movies, titles and vectors are decoded on
+ * access from the page cache, so startup does not depend on catalog size and the catalog
+ * adds almost nothing to the heap. All reads use absolute offsets, which keeps the shared
+ * buffer safe for concurrent use.
+ * <p>
+ * File layout (big-endian):
+ * - header (64 bytes): magic "MVCS", format version, snapshot version, movie count, vector
+ *   dimension, title index size, then the offsets of the four sections below
+ * - records: one fixed-width record per movie with (offset, length) references into the
+ *   string table for title, overview and genres, followed by popularity and vote average
+ * - title index: (hash of normalized title, position) pairs sorted by hash, for indexOf
+ * - string table: UTF-8 bytes
+ * - vectors: movie count x dimension floats
+ * <p>
+ * Snapshots are limited to 2 GB, the most a single mapping can address.
+ */
+public final class MappedMovieCatalog implements MovieCatalog {
+
+    static final int MAGIC = 0x4D564353; // "MVCS"
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 40;
+    static final int INDEX_ENTRY_SIZE = 16;
+    static final char GENRE_SEPARATOR = '\u001F';
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long version;
+    private final int count;
+    private final int dimension;
+    private final int indexCount;
+    private final int recordsOffset;
+    private final int indexOffset;
+    private final int stringsOffset;
+    private final int vectorsOffset;
+
+    private MappedMovieCatalog(Path path, MappedByteBuffer buffer) throws IOException {
+        this.path = path;
+        this.buffer = buffer;
+        int size = buffer.capacity();
+        if (size < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported catalog snapshot format " + buffer.getInt(4) + " in " + path);
+        }
+        this.version = buffer.getLong(8);
+        this.count = buffer.getInt(16);
+        this.dimension = buffer.getInt(20);
+        this.indexCount = buffer.getInt(24);
+        this.recordsOffset = offset(32, size);
+        this.indexOffset = offset(40, size);
+        this.stringsOffset = offset(48, size);
+        this.vectorsOffset = offset(56, size);
+        if (count < 0 || dimension < 0 || indexCount < 0
+                || recordsOffset + (long) count * RECORD_SIZE > indexOffset
+                || indexOffset + (long) indexCount * INDEX_ENTRY_SIZE > stringsOffset
+                || stringsOffset > vectorsOffset
+                || vectorsOffset + (long) count * dimension * Float.BYTES != size) {
+            throw new IOException("Corrupt or truncated catalog snapshot " + path);
+        }
+    }
+
+    /**
+     * Maps a snapshot file read-only. The mapping stays valid after the file is replaced.
+     */
+    public static MappedMovieCatalog open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Catalog snapshot " + path + " exceeds 2 GB");
+            }
+            return new MappedMovieCatalog(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        }
+    }
+
+    private int offset(int headerPosition, int size) throws IOException {
+        long offset = buffer.getLong(headerPosition);
+        if (offset < HEADER_SIZE || offset > size) {
+            throw new IOException("Corrupt catalog snapshot header in " + path);
+        }
+        return (int) offset;
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Decodes the movie at the given position; the embedding is read separately via {@link #vector}
+     */
+    @Override
+    public CatalogMovie get(int index) {
+        int record = record(index);
+        String genres = string(record + 16);
+        List<String> genreList = new ArrayList<>();
+        if (genres != null && !genres.isEmpty()) {
+            int start = 0;
+            for (int i = 0; i <= genres.length(); i++) {
+                if (i == genres.length() || genres.charAt(i) == GENRE_SEPARATOR) {
+                    genreList.add(genres.substring(start, i));
+                    start = i + 1;
+                }
+            }
+        }
+        return new CatalogMovie(string(record), string(record + 8), genreList,
+                buffer.getDouble(record + 24), buffer.getDouble(record + 32));
+    }
+
+    @Override
+    public int indexOf(String title) {
+        if (title == null) {
+            return -1;
+        }
+        String key = TitleKey.normalize(title);
+        long hash = titleHash(key);
+        int low = 0;
+        int high = indexCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midHash = buffer.getLong(indexOffset + mid * INDEX_ENTRY_SIZE);
+            if (midHash < hash) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        // low is the first entry with this hash; entries sharing the hash are compared by title
+        for (int entry = low; entry < indexCount; entry++) {
+            int entryOffset = indexOffset + entry * INDEX_ENTRY_SIZE;
+            if (buffer.getLong(entryOffset) != hash) {
+                break;
+            }
+            int position = buffer.getInt(entryOffset + 8);
+            if (key.equals(TitleKey.normalize(string(record(position))))) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int vectorDimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] vector(int index) {
+        if (dimension == 0) {
+            return null;
+        }
+        record(index); // bounds check
+        float[] vector = new float[dimension];
+        int offset = vectorsOffset + index * dimension * Float.BYTES;
+        buffer.slice(offset, dimension * Float.BYTES).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getFileSize() {
+        return buffer.capacity();
+    }
+
+    private int record(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Movie " + index + " out of range for catalog of " + count);
+        }
+        return recordsOffset + index * RECORD_SIZE;
+    }
+
+    /**
+     * Reads the string referenced by the (offset, length) pair at the given position; length -1 is null
+     */
+    private String string(int referencePosition) {
+        int length = buffer.getInt(referencePosition + 4);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(stringsOffset + buffer.getInt(referencePosition), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of a normalized title
+     */
+    static long titleHash(String normalizedTitle) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < normalizedTitle.length(); i++) {
+            hash ^= normalizedTitle.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+}
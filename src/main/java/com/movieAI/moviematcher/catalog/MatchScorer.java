@@ -0,0 +1,169 @@
+package com.movieAI.moviematcher.catalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores catalog movies for two users at once from their ranked genres.
+ * <p>
+ * Each user's ranking becomes a weight per genre bit: the top-ranked of n genres weighs 1,
+ * the last 1/n. A user's preference for a movie is the sum of the weights of its genres,
+ * divided by the square root of its genre count so that movies tagged with every genre do
+ * not win by default. The two preferences are combined as
+ * <pre>
+ *   (1 - fairness) * mean(p1, p2) + fairness * min(p1, p2)
+ * </pre>
+ * so a higher fairness favours movies both users like over movies one of them loves. A
+ * small quality term (vote average / 10) breaks ties. Movies matching neither ranking are
+ * never returned.
+ * <p>
+ * Scoring reads only the bitmasks and vote averages of {@link GenreMasks}, so re-ranking a
+ * whole catalog is a tight loop over primitive arrays. Instances are immutable.
+ */
+public final class MatchScorer {
+
+    private final GenreMasks masks;
+    private final float[] user1Weights;
+    private final float[] user2Weights;
+    private final double fairness;
+    private final double qualityWeight;
+
+    public MatchScorer(GenreMasks masks, Map<String, Integer> user1Ranking, Map<String, Integer> user2Ranking,
+                       double fairness, double qualityWeight) {
+        this.masks = masks;
+        this.user1Weights = rankWeights(masks, user1Ranking);
+        this.user2Weights = rankWeights(masks, user2Ranking);
+        this.fairness = Math.min(Math.max(fairness, 0.0), 1.0);
+        this.qualityWeight = qualityWeight;
+    }
+
+    /**
+     * Genre weights by bit id from a ranking where 1 is the favourite; ranks may have gaps
+     */
+    static float[] rankWeights(GenreMasks masks, Map<String, Integer> ranking) {
+        float[] weights = new float[GenreMasks.MAX_GENRES];
+        if (ranking == null || ranking.isEmpty()) {
+            return weights;
+        }
+        List<Map.Entry<String, Integer>> ordered = new ArrayList<>(ranking.entrySet());
+        ordered.sort(Map.Entry.<String, Integer>comparingByValue().thenComparing(Map.Entry.comparingByKey()));
+        int n = ordered.size();
+        for (int position = 0; position < n; position++) {
+            int id = masks.genreId(ordered.get(position).getKey());
+            if (id >= 0) {
+                weights[id] = Math.max(weights[id], (float) (n - position) / n);
+            }
+        }
+        return weights;
+    }
+
+    public double user1Preference(int index) {
+        return preference(user1Weights, masks.mask(index));
+    }
+
+    public double user2Preference(int index) {
+        return preference(user2Weights, masks.mask(index));
+    }
+
+    private static double preference(float[] weights, long mask) {
+        if (mask == 0L) {
+            return 0.0;
+        }
+        double sum = 0.0;
+        for (long bits = mask; bits != 0L; bits &= bits - 1) {
+            sum += weights[Long.numberOfTrailingZeros(bits)];
+        }
+        return sum / Math.sqrt(Long.bitCount(mask));
+    }
+
+    /**
+     * Combined score of a movie, or 0 if it matches neither user's genres
+     */
+    public double score(int index) {
+        long mask = masks.mask(index);
+        double p1 = preference(user1Weights, mask);
+        double p2 = preference(user2Weights, mask);
+        double combined = (1.0 - fairness) * (p1 + p2) / 2.0 + fairness * Math.min(p1, p2);
+        if (combined <= 0.0) {
+            return 0.0;
+        }
+        return combined + qualityWeight * masks.voteAverage(index) / 10.0;
+    }
+
+    /**
+     * Top k movies of the whole catalog, best first
+     */
+    public List<ScoredMovie> topK(int k) {
+        int[] all = new int[masks.size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        return topK(all, k);
+    }
+
+    /**
+     * Top k of the given catalog positions, best first
+     */
+    public List<ScoredMovie> topK(int[] candidates, int k) {
+        if (k <= 0) {
+            return List.of();
+        }
+        // Min-heap on primitive arrays: the root is the weakest of the current top k
+        int[] heapIds = new int[k];
+        double[] heapScores = new double[k];
+        int size = 0;
+        for (int candidate : candidates) {
+            double score = score(candidate);
+            if (score <= 0.0) {
+                continue;
+            }
+            if (size < k) {
+                int i = size++;
+                while (i > 0 && heapScores[(i - 1) >>> 1] > score) {
+                    int parent = (i - 1) >>> 1;
+                    heapIds[i] = heapIds[parent];
+                    heapScores[i] = heapScores[parent];
+                    i = parent;
+                }
+                heapIds[i] = candidate;
+                heapScores[i] = score;
+            } else if (score > heapScores[0]) {
+                int i = 0;
+                while (true) {
+                    int child = 2 * i + 1;
+                    if (child >= size) {
+                        break;
+                    }
+                    if (child + 1 < size && heapScores[child + 1] < heapScores[child]) {
+                        child++;
+                    }
+                    if (heapScores[child] >= score) {
+                        break;
+                    }
+                    heapIds[i] = heapIds[child];
+                    heapScores[i] = heapScores[child];
+                    i = child;
+                }
+                heapIds[i] = candidate;
+                heapScores[i] = score;
+            }
+        }
+        List<ScoredMovie> top = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            top.add(new ScoredMovie(heapIds[i], heapScores[i]));
+        }
+        top.sort(Comparator.comparingDouble(ScoredMovie::score).reversed());
+        return top;
+    }
+
+    public boolean hasPreferences() {
+        for (int i = 0; i < GenreMasks.MAX_GENRES; i++) {
+            if (user1Weights[i] > 0f || user2Weights[i] > 0f) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
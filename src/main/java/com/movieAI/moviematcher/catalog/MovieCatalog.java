@@ -0,0 +1,45 @@
+package com.movieAI.moviematcher.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Read-only movie catalog with a lookup by normalized title.
+ * <p>
+ * Movies are addressed by their position, which is also the document id used by the
+ * similarity indexes built on top of the catalog. When a title occurs more than once,
+ * lookups resolve to the most popular entry. Implementations are safe for concurrent reads.
+ *
+ * @see HeapMovieCatalog
+ * @see MappedMovieCatalog
+ */
+public interface MovieCatalog {
+
+    /**
+     * Reads a JSON array of movies (title, overview, genres, popularity, vote_average, embedding)
+     */
+    static MovieCatalog load(Path path, ObjectMapper objectMapper) throws IOException {
+        return HeapMovieCatalog.load(path, objectMapper);
+    }
+
+    int size();
+
+    CatalogMovie get(int index);
+
+    /**
+     * Returns the position of the title in the catalog, or -1 if it is not in the catalog
+     */
+    int indexOf(String title);
+
+    /**
+     * Dimension of the per-movie similarity vectors, or 0 if the catalog has none
+     */
+    int vectorDimension();
+
+    /**
+     * Returns the similarity vector of a movie, or null if the catalog has no vectors
+     */
+    float[] vector(int index);
+}
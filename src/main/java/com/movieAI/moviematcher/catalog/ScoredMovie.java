@@ -0,0 +1,7 @@
+package com.movieAI.moviematcher.catalog;
+
+/**
+ * A catalog position with its similarity to a query movie.
+ */
+public record ScoredMovie(int index, double score) {
+}
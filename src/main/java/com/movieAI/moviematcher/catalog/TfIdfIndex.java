@@ -0,0 +1,219 @@
+package com.movieAI.moviematcher.catalog;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * TF-IDF vectors over catalog overviews and genres, with an inverted index for top-K
+ * cosine similarity queries.
+ * <p>
+ * Each movie becomes a sparse, L2-normalized vector of sublinear term frequency times
+ * smoothed inverse document frequency (the same weighting as scikit-learn's
+ * TfidfVectorizer with sublinear_tf). Genres are added as extra "genre_*" terms so movies
+ * of the same genre score higher even when their overviews share few words. Vectors are
+ * stored as parallel primitive arrays, and a query only touches the posting lists of the
+ * query movie's own terms.
+ * <p>
+ * Instances are immutable and safe for concurrent queries.
+ */
+public class TfIdfIndex {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "from", "has", "have", "he",
+            "her", "his", "in", "into", "is", "it", "its", "of", "on", "or", "she", "that", "the",
+            "their", "them", "they", "this", "to", "was", "were", "who", "whose", "will", "with");
+
+    /**
+     * Seed of the random projection shared by snapshots and in-memory indexes, so vectors agree
+     */
+    public static final long PROJECTION_SEED = 42L;
+
+    private final int documentCount;
+    // Per movie: term ids and normalized weights
+    private final int[][] docTerms;
+    private final float[][] docWeights;
+    // Per term: movies containing it and the term's weight in each
+    private final int[][] postingDocs;
+    private final float[][] postingWeights;
+
+    private TfIdfIndex(int documentCount, int[][] docTerms, float[][] docWeights,
+                       int[][] postingDocs, float[][] postingWeights) {
+        this.documentCount = documentCount;
+        this.docTerms = docTerms;
+        this.docWeights = docWeights;
+        this.postingDocs = postingDocs;
+        this.postingWeights = postingWeights;
+    }
+
+    public static TfIdfIndex build(MovieCatalog catalog) {
+        int documentCount = catalog.size();
+        Map<String, Integer> vocabulary = new HashMap<>();
+        int[][] docTerms = new int[documentCount][];
+        int[][] docCounts = new int[documentCount][];
+        List<Integer> documentFrequency = new ArrayList<>();
+
+        // Pass 1: term counts per movie and document frequency per term
+        for (int doc = 0; doc < documentCount; doc++) {
+            Map<Integer, Integer> counts = new HashMap<>();
+            for (String token : tokenize(catalog.get(doc))) {
+                int term = vocabulary.computeIfAbsent(token, key -> {
+                    documentFrequency.add(0);
+                    return vocabulary.size();
+                });
+                counts.merge(term, 1, Integer::sum);
+            }
+            int[] terms = new int[counts.size()];
+            int[] termCounts = new int[counts.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : counts.entrySet()) {
+                terms[i] = entry.getKey();
+                termCounts[i] = entry.getValue();
+                documentFrequency.set(entry.getKey(), documentFrequency.get(entry.getKey()) + 1);
+                i++;
+            }
+            docTerms[doc] = terms;
+            docCounts[doc] = termCounts;
+        }
+
+        int termCount = vocabulary.size();
+        float[] idf = new float[termCount];
+        for (int term = 0; term < termCount; term++) {
+            idf[term] = (float) (Math.log((1.0 + documentCount) / (1.0 + documentFrequency.get(term))) + 1.0);
+        }
+
+        // Pass 2: normalized weights, and posting list sizes
+        float[][] docWeights = new float[documentCount][];
+        int[] postingSizes = new int[termCount];
+        for (int doc = 0; doc < documentCount; doc++) {
+            int[] terms = docTerms[doc];
+            float[] weights = new float[terms.length];
+            double norm = 0;
+            for (int i = 0; i < terms.length; i++) {
+                weights[i] = (float) ((1.0 + Math.log(docCounts[doc][i])) * idf[terms[i]]);
+                norm += weights[i] * weights[i];
+                postingSizes[terms[i]]++;
+            }
+            float inverseNorm = norm > 0 ? (float) (1.0 / Math.sqrt(norm)) : 0f;
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] *= inverseNorm;
+            }
+            docWeights[doc] = weights;
+        }
+
+        // Pass 3: inverted index
+        int[][] postingDocs = new int[termCount][];
+        float[][] postingWeights = new float[termCount][];
+        for (int term = 0; term < termCount; term++) {
+            postingDocs[term] = new int[postingSizes[term]];
+            postingWeights[term] = new float[postingSizes[term]];
+        }
+        int[] fill = new int[termCount];
+        for (int doc = 0; doc < documentCount; doc++) {
+            int[] terms = docTerms[doc];
+            for (int i = 0; i < terms.length; i++) {
+                int term = terms[i];
+                postingDocs[term][fill[term]] = doc;
+                postingWeights[term][fill[term]] = docWeights[doc][i];
+                fill[term]++;
+            }
+        }
+
+        return new TfIdfIndex(documentCount, docTerms, docWeights, postingDocs, postingWeights);
+    }
+
+    /**
+     * Returns the k movies most similar to the movie at the given position, most similar
+     * first. The movie itself and movies sharing no term with it are never returned.
+     */
+    public List<ScoredMovie> similar(int index, int k) {
+        float[] scores = new float[documentCount];
+        int[] terms = docTerms[index];
+        float[] weights = docWeights[index];
+        for (int i = 0; i < terms.length; i++) {
+            int[] docs = postingDocs[terms[i]];
+            float[] docWeightsForTerm = postingWeights[terms[i]];
+            float weight = weights[i];
+            for (int p = 0; p < docs.length; p++) {
+                scores[docs[p]] += weight * docWeightsForTerm[p];
+            }
+        }
+        scores[index] = 0f;
+        return topK(scores, k);
+    }
+
+    static List<ScoredMovie> topK(float[] scores, int k) {
+        PriorityQueue<ScoredMovie> heap = new PriorityQueue<>(k + 1, Comparator.comparingDouble(ScoredMovie::score));
+        for (int doc = 0; doc < scores.length; doc++) {
+            float score = scores[doc];
+            if (score <= 0f) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(new ScoredMovie(doc, score));
+            } else if (score > heap.peek().score()) {
+                heap.poll();
+                heap.add(new ScoredMovie(doc, score));
+            }
+        }
+        List<ScoredMovie> result = new ArrayList<>(heap);
+        result.sort(Comparator.comparingDouble(ScoredMovie::score).reversed());
+        return result;
+    }
+
+    /**
+     * Projects a movie's TF-IDF vector onto a dense vector of the given dimension with a seeded
+     * random +1/-1 matrix (Johnson-Lindenstrauss), so cosine similarities are approximately
+     * preserved. The matrix is never stored: each entry is derived from a hash of term and column.
+     */
+    public float[] randomProjection(int index, int dimension, long seed) {
+        float[] projected = new float[dimension];
+        int[] terms = docTerms[index];
+        float[] weights = docWeights[index];
+        for (int i = 0; i < terms.length; i++) {
+            long termSeed = mix(seed ^ (terms[i] * 0x9E3779B97F4A7C15L));
+            float weight = weights[i];
+            for (int j = 0; j < dimension; j++) {
+                projected[j] += (mix(termSeed + j) & 1L) == 0 ? weight : -weight;
+            }
+        }
+        return projected;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    public int getTermCount() {
+        return postingDocs.length;
+    }
+
+    static List<String> tokenize(CatalogMovie movie) {
+        List<String> tokens = new ArrayList<>();
+        if (movie.getOverview() != null) {
+            for (String token : movie.getOverview().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+")) {
+                if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+            }
+        }
+        for (String genre : movie.getGenres()) {
+            if (genre != null && !genre.isBlank()) {
+                tokens.add("genre_" + genre.trim().toLowerCase(Locale.ROOT).replace(' ', '_'));
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,142 @@
+package com.movieAI.moviematcher.concurrent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor for blocking I/O work with its own concurrency cap and queue metrics.
+ * <p>
+ * Two modes are supported:
+ * - VIRTUAL: one virtual thread per task; at most maxConcurrency tasks run at once,
+ *   the others park cheaply until a permit is free
+ * - PLATFORM: a fixed pool of maxConcurrency platform threads with a bounded queue
+ * <p>
+ * In both modes a task is rejected with {@link RejectedExecutionException} once
+ * queueCapacity tasks are already waiting, so callers can degrade instead of piling up.
+ */
+public class BoundedExecutor implements Executor, AutoCloseable {
+
+    public enum Mode { VIRTUAL, PLATFORM }
+
+    private final String name;
+    private final Mode mode;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final long shutdownTimeoutMillis;
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public BoundedExecutor(String name, Mode mode, int maxConcurrency, int queueCapacity, long shutdownTimeoutMillis) {
+        if (maxConcurrency <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("maxConcurrency and queueCapacity must be positive");
+        }
+        this.name = name;
+        this.mode = mode;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.shutdownTimeoutMillis = shutdownTimeoutMillis;
+
+        if (mode == Mode.VIRTUAL) {
+            this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+            this.permits = new Semaphore(maxConcurrency);
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            this.delegate = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name + "-" + threadNumber.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.permits = null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw new RejectedExecutionException(name + " queue is full (" + queueCapacity + " tasks waiting)");
+        }
+        try {
+            delegate.execute(() -> run(task));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private void run(Runnable task) {
+        boolean acquired = false;
+        try {
+            if (permits != null) {
+                permits.acquire();
+                acquired = true;
+            }
+            queued.decrementAndGet();
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+                completed.increment();
+            }
+        } catch (InterruptedException e) {
+            // Only reachable while waiting for a permit, i.e. during shutdown
+            queued.decrementAndGet();
+            rejected.increment();
+            Thread.currentThread().interrupt();
+        } finally {
+            if (acquired) {
+                permits.release();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode.name());
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("active", active.get());
+        stats.put("queued", queued.get());
+        stats.put("completed", completed.sum());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    /**
+     * Stops accepting tasks, lets running ones finish within the shutdown timeout,
+     * then interrupts whatever is left
+     */
+    @Override
+    public void close() {
+        delegate.shutdown();
+        try {
+            if (!delegate.awaitTermination(shutdownTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                System.err.println(name + " did not terminate within " + shutdownTimeoutMillis + " ms, interrupting tasks");
+                delegate.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            delegate.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.movieAI.moviematcher.config;
+
+import com.movieAI.moviematcher.concurrent.BoundedExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a slow password encoder (BCrypt) on a dedicated bounded executor.
+ * <p>
+ * A BCrypt check at cost 12 burns about a quarter of a second of CPU. Running it on Tomcat
+ * request threads lets a login burst take every core away from the rest of the API. Here
+ * hashing runs on a small fixed pool; the calling thread only waits. When the pool's queue
+ * is full, or a queued hash does not finish within maxWaitMillis, the call fails fast with
+ * {@link PasswordHashingRejectedException} so the caller can answer 503. Timed-out hashes
+ * that have not started are dropped rather than run late.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final BoundedExecutor executor;
+    private final long maxWaitMillis;
+
+    private final LongAdder encodes = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, BoundedExecutor executor, long maxWaitMillis) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        String encoded = submit(() -> delegate.encode(rawPassword));
+        encodes.increment();
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        boolean match = submit(() -> delegate.matches(rawPassword, encodedPassword));
+        (match ? matches : mismatches).increment();
+        return match;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only inspects the stored hash's prefix, no hashing involved
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> hashing) {
+        FutureTask<T> task = new FutureTask<>(() -> {
+            long start = System.nanoTime();
+            try {
+                return hashing.call();
+            } finally {
+                hashNanos.add(System.nanoTime() - start);
+            }
+        });
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing is saturated, try again shortly");
+        }
+        try {
+            return task.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // A task that has not started yet will not run at all
+            task.cancel(false);
+            timedOut.increment();
+            throw new PasswordHashingRejectedException("Password hashing did not complete within " + maxWaitMillis + " ms");
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hashes = encodes.sum() + matches.sum() + mismatches.sum();
+        stats.put("encodes", encodes.sum());
+        stats.put("matches", matches.sum());
+        stats.put("mismatches", mismatches.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("averageHashMs", hashes > 0 ? hashNanos.sum() / hashes / 1_000_000 : 0);
+        stats.put("executor", executor.getStats());
+        return stats;
+    }
+
+    /**
+     * Password hashing capacity is exhausted; the request should be retried later
+     */
+    public static class PasswordHashingRejectedException extends RuntimeException {
+        public PasswordHashingRejectedException(String message) {
+            super(message);
+        }
+    }
+}
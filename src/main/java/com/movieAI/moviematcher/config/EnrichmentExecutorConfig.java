@@ -0,0 +1,41 @@
+package com.movieAI.moviematcher.config;
+
+import com.movieAI.moviematcher.concurrent.BoundedExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Locale;
+
+/**
+ * Executor used to fan out blocking enrichment calls (RapidAPI lookups).
+ * <p>
+ * Enrichment used to run on ForkJoinPool.commonPool(), which only has (cores - 1) threads
+ * and is shared with every parallel stream in the JVM. This executor is dedicated to
+ * enrichment and configurable:
+ * - enrichment.executor.mode: virtual (default) or platform
+ * - enrichment.executor.max-concurrency: maximum enrichment calls running at once
+ * - enrichment.executor.queue-capacity: waiting tasks before new ones are rejected
+ * - enrichment.executor.shutdown-timeout-ms: grace period for running tasks on shutdown
+ */
+@Configuration
+public class EnrichmentExecutorConfig {
+
+    @Value("${enrichment.executor.mode:virtual}")
+    private String mode;
+
+    @Value("${enrichment.executor.max-concurrency:64}")
+    private int maxConcurrency;
+
+    @Value("${enrichment.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${enrichment.executor.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Bean(name = "enrichmentExecutor", destroyMethod = "close")
+    public BoundedExecutor enrichmentExecutor() {
+        BoundedExecutor.Mode executorMode = BoundedExecutor.Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        return new BoundedExecutor("enrichment", executorMode, maxConcurrency, queueCapacity, shutdownTimeoutMs);
+    }
+}
@@ -0,0 +1,48 @@
+package com.movieAI.moviematcher.config;
+
+import com.movieAI.moviematcher.concurrent.BoundedExecutor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Password encoder shared by login and registration, with BCrypt running on its own
+ * bounded pool (see {@link BoundedPasswordEncoder}).
+ * <p>
+ * Raising auth.bcrypt.strength is safe at any time: hashes with a lower cost still verify,
+ * and each user's hash is upgraded on their next successful login.
+ * <p>
+ * Configuration:
+ * - auth.bcrypt.strength: BCrypt cost factor for new hashes (default 12)
+ * - auth.password-hashing.max-concurrency: hashing threads (default half the cores, at least 1)
+ * - auth.password-hashing.queue-capacity: waiting hashes before new ones are rejected (default 32)
+ * - auth.password-hashing.max-wait-ms: longest a request waits for its hash (default 3000)
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    @Value("${auth.bcrypt.strength:12}")
+    private int strength;
+
+    @Value("${auth.password-hashing.max-concurrency:0}")
+    private int maxConcurrency;
+
+    @Value("${auth.password-hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    @Value("${auth.password-hashing.max-wait-ms:3000}")
+    private long maxWaitMs;
+
+    @Bean(name = "passwordHashingExecutor", destroyMethod = "close")
+    public BoundedExecutor passwordHashingExecutor() {
+        int threads = maxConcurrency > 0 ? maxConcurrency : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedExecutor("password-hashing", BoundedExecutor.Mode.PLATFORM, threads, queueCapacity, 5000);
+    }
+
+    @Bean
+    public BoundedPasswordEncoder passwordEncoder(@Qualifier("passwordHashingExecutor") BoundedExecutor executor) {
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), executor, maxWaitMs);
+    }
+}
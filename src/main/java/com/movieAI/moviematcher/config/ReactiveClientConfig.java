@@ -0,0 +1,62 @@
+package com.movieAI.moviematcher.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP client for the reactive recommendation pipeline.
+ * <p>
+ * Only created when recommendation.pipeline.reactive.enabled=true. Requests are multiplexed
+ * over a small number of event-loop threads; the connection pool bounds how many are on the
+ * wire and how many may wait for a connection:
+ * - recommendation.pipeline.reactive.max-connections: pooled connections (default 500)
+ * - recommendation.pipeline.reactive.pending-acquire-max: requests waiting for a connection (default 5000)
+ * - recommendation.pipeline.reactive.max-in-memory-kb: largest response body buffered (default 2048)
+ * Connect and response timeouts reuse http.client.connection-timeout and http.client.read-timeout.
+ */
+@Configuration
+@ConditionalOnProperty(name = "recommendation.pipeline.reactive.enabled", havingValue = "true")
+public class ReactiveClientConfig {
+
+    @Value("${http.client.connection-timeout:5000}")
+    private int connectionTimeout;
+
+    @Value("${http.client.read-timeout:10000}")
+    private int readTimeout;
+
+    @Value("${recommendation.pipeline.reactive.max-connections:500}")
+    private int maxConnections;
+
+    @Value("${recommendation.pipeline.reactive.pending-acquire-max:5000}")
+    private int pendingAcquireMax;
+
+    @Value("${recommendation.pipeline.reactive.max-in-memory-kb:2048}")
+    private int maxInMemoryKb;
+
+    @Bean(name = "recommendationWebClient")
+    public WebClient recommendationWebClient(WebClient.Builder builder) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("recommendation-pipeline")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(connectionTimeout))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeout)
+                .responseTimeout(Duration.ofMillis(readTimeout));
+
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemoryKb * 1024))
+                .build();
+    }
+}
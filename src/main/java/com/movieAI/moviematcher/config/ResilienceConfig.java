@@ -0,0 +1,76 @@
+package com.movieAI.moviematcher.config;
+
+import com.movieAI.moviematcher.resilience.CircuitBreaker;
+import com.movieAI.moviematcher.resilience.UpstreamGuard;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker and bulkhead for each upstream service, so a degraded Python recommender
+ * and a degraded RapidAPI can neither take each other down nor hold every request thread.
+ * <p>
+ * Each guard is configured under resilience.python.* and resilience.rapidapi.*:
+ * - failure-rate-threshold: percentage of failed calls that opens the breaker (default 50)
+ * - slow-call-rate-threshold: percentage of slow calls that opens the breaker (default 80)
+ * - slow-call-duration-ms: calls slower than this count as slow (python 3000, rapidapi 2000)
+ * - sliding-window-size: number of recent calls evaluated (default 20)
+ * - minimum-calls: calls needed before the rates are evaluated (default 10)
+ * - open-duration-ms: time the breaker stays open before probing again (default 30000)
+ * - half-open-calls: probe calls that must succeed to close the breaker (default 3)
+ * - max-concurrent-calls: bulkhead size (python 16, rapidapi 32)
+ * - max-wait-ms: time a call waits for a bulkhead slot before being rejected (default 50)
+ */
+@Configuration
+public class ResilienceConfig {
+
+    @Bean(name = "pythonRecommenderGuard")
+    public UpstreamGuard pythonRecommenderGuard(Environment environment) {
+        return createGuard(environment, "python", 3000, 16);
+    }
+
+    @Bean(name = "rapidApiGuard")
+    public UpstreamGuard rapidApiGuard(Environment environment) {
+        return createGuard(environment, "rapidapi", 2000, 32);
+    }
+
+    private static UpstreamGuard createGuard(Environment environment, String upstream,
+                                             long defaultSlowCallMs, int defaultMaxConcurrentCalls) {
+        String prefix = "resilience." + upstream + ".";
+        CircuitBreaker circuitBreaker = new CircuitBreaker(
+                environment.getProperty(prefix + "failure-rate-threshold", Integer.class, 50),
+                environment.getProperty(prefix + "slow-call-rate-threshold", Integer.class, 80),
+                Duration.ofMillis(environment.getProperty(prefix + "slow-call-duration-ms", Long.class, defaultSlowCallMs)),
+                environment.getProperty(prefix + "sliding-window-size", Integer.class, 20),
+                environment.getProperty(prefix + "minimum-calls", Integer.class, 10),
+                Duration.ofMillis(environment.getProperty(prefix + "open-duration-ms", Long.class, 30000L)),
+                environment.getProperty(prefix + "half-open-calls", Integer.class, 3));
+        return new UpstreamGuard(upstream, circuitBreaker,
+                environment.getProperty(prefix + "max-concurrent-calls", Integer.class, defaultMaxConcurrentCalls),
+                environment.getProperty(prefix + "max-wait-ms", Long.class, 50L),
+                ResilienceConfig::isUpstreamFailure);
+    }
+
+    /**
+     * Client errors (e.g. 404 for an unknown title) say nothing about the upstream's health,
+     * except 429 which means it is shedding load
+     */
+    private static boolean isUpstreamFailure(Throwable error) {
+        if (error instanceof HttpClientErrorException.TooManyRequests
+                || error instanceof WebClientResponseException.TooManyRequests) {
+            return true;
+        }
+        if (error instanceof HttpStatusCodeException statusError) {
+            return !statusError.getStatusCode().is4xxClientError();
+        }
+        if (error instanceof WebClientResponseException responseError) {
+            return !responseError.getStatusCode().is4xxClientError();
+        }
+        return true;
+    }
+}
@@ -1,6 +1,8 @@
 package com.movieAI.moviematcher.config;
 
 
+import com.movieAI.moviematcher.model.UserPrincipal;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,8 +14,9 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -33,6 +36,8 @@ import java.util.List;
  * - Disables CSRF protection (suitable for stateless APIs).
  * - Configures CORS to allow requests from specific origins.
  * - Permits unauthenticated access to /register and /login endpoints.
+ * - Restricts /api/recommendations/admin/** and the metrics and stats endpoints to
+ *   principals with the ADMIN authority (see auth.admin-usernames in MyUserDetailsService).
  * - Requires authentication for all other endpoints.
  * - Uses JWT for stateless session management.
  * - Configures a custom UserDetailsService and password encoder for authentication.
@@ -60,14 +65,30 @@ public class SecurityConfig {
     @Autowired
     private JwtFilter jwtFilter;
 
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserDetailsPasswordService userDetailsPasswordService;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http
                 .csrf(customizer -> customizer.disable())
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(request -> request
-                        .requestMatchers("/register", "/login", "/api/recommendations/health")
+                        // Async dispatches (SSE, streamed responses) belong to an already authorized request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                        .permitAll()
+                        .requestMatchers("/register", "/login", "/api/recommendations/health", "/api/recommendations/ready")
                         .permitAll()
+                        // Cache flushes, warm-ups and catalog rebuilds cost quota and CPU
+                        .requestMatchers("/api/recommendations/admin/**")
+                        .hasAuthority(UserPrincipal.ADMIN_AUTHORITY)
+                        // Operational counters, including the login throttle's, are not for the clients they describe
+                        .requestMatchers("/auth/metrics", "/api/recommendations/metrics", "/api/preferences/stats",
+                                "/api/match/stats")
+                        .hasAuthority(UserPrincipal.ADMIN_AUTHORITY)
                         .anyRequest()
                         .authenticated())
                 .httpBasic(Customizer.withDefaults())
@@ -80,8 +101,11 @@ public class SecurityConfig {
     @Bean
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-        provider.setPasswordEncoder(new BCryptPasswordEncoder(12));
+        // BCrypt on its own bounded pool, see PasswordHashingConfig
+        provider.setPasswordEncoder(passwordEncoder);
         provider.setUserDetailsService(userDetailsService);
+        // Re-encodes hashes made at a lower cost on successful login
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         return provider;
     }
 
@@ -1,13 +1,21 @@
 package com.movieAI.moviematcher.controllers;
 
+import com.movieAI.moviematcher.dto.BatchRecommendationRequest;
+import com.movieAI.moviematcher.service.CacheWarmer;
 import com.movieAI.moviematcher.service.EnhancedRecommendationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -18,7 +26,18 @@ import java.util.Map;
  * <p>
  * Endpoints:
  * - GET /api/recommendations/enhanced?title={title}: Fetches enriched recommendations
- * - GET /api/recommendations/health: Health check endpoint
+ * - GET /api/recommendations/enhanced/stream?title={title}: Streams recommendations as Server-Sent Events
+ * - POST /api/recommendations/enhanced/batch: Enriched recommendations for several seed titles
+ * <p>
+ * Both enhanced endpoints accept an optional X-Request-Deadline-Ms header. Recommendations
+ * not enriched within the deadline are returned without streaming data and marked partial.
+ * - GET /api/recommendations/health: Health check endpoint, including circuit breaker state per upstream
+ * - GET /api/recommendations/ready: Readiness probe, optionally gated on cache warm-up progress
+ * - GET /api/recommendations/metrics: Cache and upstream counters (ADMIN only)
+ * - /api/recommendations/admin/**: require the ADMIN authority (see SecurityConfig)
+ * - POST /api/recommendations/admin/recommendation-cache/invalidate: Drops cached Python results
+ * - POST /api/recommendations/admin/warmup: Pre-fetches the hottest titles into the caches
+ * - POST /api/recommendations/admin/embedded/reload: Reloads the embedded recommender's catalog snapshot
  * <p>
  * The enhanced recommendations include:
  * - Basic recommendation data (title, overview, popularity, similarity, vote_average)
@@ -32,11 +51,19 @@ import java.util.Map;
 @RequestMapping("/api/recommendations")
 public class EnhancedRecommendationController {
 
+    private static final String DEADLINE_HEADER = "X-Request-Deadline-Ms";
+
     private final EnhancedRecommendationService enhancedRecommendationService;
+    private final CacheWarmer cacheWarmer;
+
+    @Value("${recommendation.stream.timeout-ms:30000}")
+    private long streamTimeoutMs;
 
     @Autowired
-    public EnhancedRecommendationController(EnhancedRecommendationService enhancedRecommendationService) {
+    public EnhancedRecommendationController(EnhancedRecommendationService enhancedRecommendationService,
+                                            CacheWarmer cacheWarmer) {
         this.enhancedRecommendationService = enhancedRecommendationService;
+        this.cacheWarmer = cacheWarmer;
     }
 
     /**
@@ -45,13 +72,14 @@ public class EnhancedRecommendationController {
     @GetMapping("/enhanced")
     public ResponseEntity<?> getEnhancedRecommendations(
             @RequestParam String title,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs,
             @AuthenticationPrincipal UserDetails userDetails) {
         try {
             // Log the authenticated user making the request
             System.out.println("User " + userDetails.getUsername() + " requested enhanced recommendations for: " + title);
 
             EnhancedRecommendationService.EnhancedRecommendationResponse recommendations =
-                    enhancedRecommendationService.getEnhancedRecommendations(title);
+                    enhancedRecommendationService.getEnhancedRecommendations(title, toDuration(deadlineMs));
 
             return ResponseEntity.ok(recommendations);
         } catch (Exception e) {
@@ -61,16 +89,100 @@ public class EnhancedRecommendationController {
         }
     }
 
+    /**
+     * Get enriched recommendations for several seed titles in one call. Titles recommended
+     * for more than one seed are enriched only once.
+     */
+    @PostMapping("/enhanced/batch")
+    public ResponseEntity<?> getBatchEnhancedRecommendations(
+            @RequestBody BatchRecommendationRequest request,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            System.out.println("User " + userDetails.getUsername() + " requested batch recommendations for: " + request.getTitles());
+
+            EnhancedRecommendationService.BatchRecommendationResponse recommendations =
+                    enhancedRecommendationService.getBatchEnhancedRecommendations(request.getTitles(), toDuration(deadlineMs));
+
+            return ResponseEntity.ok(recommendations);
+        } catch (Exception e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Streams recommendations as Server-Sent Events so the first cards render before the
+     * slowest enrichment finishes. Events:
+     * - basic: all recommendations without streaming data, sent as soon as Python answers
+     * - enriched: {index, recommendation} for each recommendation as its enrichment completes
+     * - complete: every recommendation has been sent
+     * - error: {error} if the request failed
+     */
+    @GetMapping(value = "/enhanced/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEnhancedRecommendations(
+            @RequestParam String title,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        System.out.println("User " + userDetails.getUsername() + " requested streamed recommendations for: " + title);
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        enhancedRecommendationService.streamEnhancedRecommendations(title, toDuration(deadlineMs),
+                new EnhancedRecommendationService.RecommendationStreamListener() {
+                    @Override
+                    public void onBasicRecommendations(List<EnhancedRecommendationService.EnhancedMovieRecommendation> recommendations) {
+                        send(emitter, "basic", Map.of("recommendations", recommendations));
+                    }
+
+                    @Override
+                    public void onEnrichedRecommendation(int index, EnhancedRecommendationService.EnhancedMovieRecommendation recommendation) {
+                        send(emitter, "enriched", Map.of("index", index, "recommendation", recommendation));
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        send(emitter, "complete", Map.of());
+                        emitter.complete();
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        String message = error.getMessage() != null ? error.getMessage() : error.toString();
+                        send(emitter, "error", Map.of("error", message));
+                        emitter.complete();
+                    }
+                });
+        return emitter;
+    }
+
+    private static Duration toDuration(Long deadlineMs) {
+        return deadlineMs != null ? Duration.ofMillis(deadlineMs) : null;
+    }
+
+    private void send(SseEmitter emitter, String eventName, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(eventName).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter timed out; remaining events are dropped
+        }
+    }
+
     /**
      * Health check endpoint
      */
     @GetMapping("/health")
-    public ResponseEntity<Map<String, String>> healthCheck() {
-        Map<String, String> response = new HashMap<>();
+    public ResponseEntity<Map<String, Object>> healthCheck() {
+        Map<String, Object> response = new HashMap<>();
         try {
-            response.put("status", "UP");
+            Map<String, Object> upstreams = enhancedRecommendationService.getUpstreamStats();
+            // An open or probing breaker means a dependency is cut off; the service still answers
+            boolean degraded = upstreams.values().stream()
+                    .anyMatch(stats -> !"CLOSED".equals(((Map<?, ?>) stats).get("state")));
+            response.put("status", degraded ? "DEGRADED" : "UP");
             response.put("service", "Enhanced recommendation service is running");
             response.put("features", "Python microservice + RapidAPI integration");
+            response.put("upstreams", upstreams);
         } catch (Exception e) {
             response.put("status", "DOWN");
             response.put("error", "Enhanced recommendation service is not available: " + e.getMessage());
@@ -79,6 +191,81 @@ public class EnhancedRecommendationController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Readiness probe: 503 until cache warm-up has reached warmup.readiness.min-percent
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> readinessCheck() {
+        Map<String, Object> response = new HashMap<>();
+        boolean ready = cacheWarmer.isReady();
+        response.put("status", ready ? "READY" : "WARMING_UP");
+        response.put("warmup", cacheWarmer.getStats());
+        return ResponseEntity.status(ready ? 200 : 503).body(response);
+    }
+
+    /**
+     * Cache and upstream counters (hits, misses, evictions, ...)
+     */
+    @GetMapping("/metrics")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        Map<String, Object> metrics = enhancedRecommendationService.getMetrics();
+        metrics.put("warmup", cacheWarmer.getStats());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * Starts a cache warm-up run from the current hot-title list
+     */
+    @PostMapping("/admin/warmup")
+    public ResponseEntity<Map<String, Object>> startWarmup(@AuthenticationPrincipal UserDetails userDetails) {
+        System.out.println("User " + userDetails.getUsername() + " triggered a cache warm-up");
+        Map<String, Object> response = new HashMap<>();
+        if (!cacheWarmer.start()) {
+            response.put("message", "Cache warm-up is already running.");
+            response.put("warmup", cacheWarmer.getStats());
+            return ResponseEntity.status(409).body(response);
+        }
+        response.put("message", "Cache warm-up started.");
+        response.put("warmup", cacheWarmer.getStats());
+        return ResponseEntity.accepted().body(response);
+    }
+
+    /**
+     * Rebuilds the catalog snapshot if the JSON export changed and swaps in the new catalog
+     */
+    @PostMapping("/admin/embedded/reload")
+    public ResponseEntity<Map<String, Object>> reloadEmbeddedCatalog(@AuthenticationPrincipal UserDetails userDetails) {
+        System.out.println("User " + userDetails.getUsername() + " requested an embedded catalog reload");
+        Map<String, Object> response = new HashMap<>();
+        try {
+            boolean reloaded = enhancedRecommendationService.reloadEmbeddedCatalog();
+            response.put("message", reloaded ? "Embedded catalog reloaded." : "Embedded catalog is unchanged.");
+            response.put("reloaded", reloaded);
+            return ResponseEntity.ok(response);
+        } catch (IOException e) {
+            System.err.println("Embedded catalog reload failed: " + e.getMessage());
+            response.put("message", "Embedded catalog reload failed: " + e.getMessage());
+            return ResponseEntity.status(500).body(response);
+        }
+    }
+
+    /**
+     * Drops cached Python recommendations after a model retrain. The optional modelVersion
+     * becomes the version the cache is refilled with.
+     */
+    @PostMapping("/admin/recommendation-cache/invalidate")
+    public ResponseEntity<Map<String, String>> invalidateRecommendationCache(
+            @RequestParam(required = false) String modelVersion,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        System.out.println("User " + userDetails.getUsername() + " invalidated the recommendation cache (model version: "
+                + modelVersion + ")");
+        enhancedRecommendationService.invalidateRecommendationCache(modelVersion);
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Recommendation cache invalidated.");
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Get basic recommendations (original functionality maintained for backward compatibility)
      */
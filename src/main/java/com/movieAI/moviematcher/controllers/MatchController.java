@@ -0,0 +1,55 @@
+package com.movieAI.moviematcher.controllers;
+
+import com.movieAI.moviematcher.service.MatchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Movie matches for the two users of an account, from their saved genre rankings.
+ * <p>
+ * Endpoints:
+ * - GET /api/match?k={k}: Top k catalog movies for user slot 1 and slot 2 together
+ * - GET /api/match/stats: Match engine counters (ADMIN only)
+ */
+@RestController
+@RequestMapping("/api/match")
+public class MatchController {
+
+    private final MatchService matchService;
+
+    @Autowired
+    public MatchController(MatchService matchService) {
+        this.matchService = matchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<?> getMatches(@RequestParam(defaultValue = "20") int k,
+                                        @AuthenticationPrincipal UserDetails userDetails) {
+        try {
+            return ResponseEntity.ok(matchService.match(userDetails.getUsername(), k));
+        } catch (IllegalStateException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.status(503).body(error);
+        } catch (Exception e) {
+            System.err.println("Error matching movies for " + userDetails.getUsername() + ": " + e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Failed to match movies: " + e.getMessage());
+            return ResponseEntity.status(500).body(error);
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(matchService.getStats());
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -27,6 +28,11 @@ public class PreferenceController {
         this.preferenceService = preferenceService;
     }
 
+    @GetMapping
+    public ResponseEntity<PreferencesDTO> getPreferences(@AuthenticationPrincipal UserDetails userDetails) {
+        return ResponseEntity.ok(preferenceService.getPreferences(userDetails.getUsername()));
+    }
+
     @PostMapping
     public ResponseEntity<Map<String, String>> savePreferences(@RequestBody PreferencesDTO preferencesDTO,
                                                                @AuthenticationPrincipal UserDetails userDetails) {
@@ -42,7 +48,11 @@ public class PreferenceController {
         }
     }
 
-
-
-
+    /**
+     * Save path counters; requires the ADMIN authority (see SecurityConfig)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(preferenceService.getStats());
+    }
 }
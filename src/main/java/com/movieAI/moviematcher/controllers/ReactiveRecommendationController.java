@@ -0,0 +1,87 @@
+package com.movieAI.moviematcher.controllers;
+
+import com.movieAI.moviematcher.service.ReactiveRecommendationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reactive variant of the enhanced recommendation endpoints, backed by
+ * {@link ReactiveRecommendationService}. Handlers return Mono/Flux, so no servlet thread
+ * is held while the upstream calls are in flight.
+ * <p>
+ * Only registered when recommendation.pipeline.reactive.enabled=true.
+ * <p>
+ * Endpoints:
+ * - GET /api/recommendations/reactive/enhanced?title={title}: Enriched recommendations
+ * - GET /api/recommendations/reactive/enhanced/stream?title={title}: Same pipeline as Server-Sent Events
+ * <p>
+ * Both accept the optional X-Request-Deadline-Ms header, like the blocking endpoints.
+ */
+@RestController
+@RequestMapping("/api/recommendations/reactive")
+@ConditionalOnProperty(name = "recommendation.pipeline.reactive.enabled", havingValue = "true")
+public class ReactiveRecommendationController {
+
+    private static final String DEADLINE_HEADER = "X-Request-Deadline-Ms";
+
+    private final ReactiveRecommendationService reactiveRecommendationService;
+
+    @Autowired
+    public ReactiveRecommendationController(ReactiveRecommendationService reactiveRecommendationService) {
+        this.reactiveRecommendationService = reactiveRecommendationService;
+    }
+
+    /**
+     * Get enriched movie recommendations with streaming availability data
+     */
+    @GetMapping("/enhanced")
+    public Mono<ResponseEntity<Object>> getEnhancedRecommendations(
+            @RequestParam String title,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        System.out.println("User " + userDetails.getUsername() + " requested reactive recommendations for: " + title);
+
+        return reactiveRecommendationService.getEnhancedRecommendations(title, toDuration(deadlineMs))
+                .map(recommendations -> ResponseEntity.ok().<Object>body(recommendations))
+                .onErrorResume(e -> {
+                    Map<String, String> error = new HashMap<>();
+                    error.put("error", e.getMessage());
+                    return Mono.just(ResponseEntity.badRequest().body(error));
+                });
+    }
+
+    /**
+     * Streams recommendations as Server-Sent Events with the same events as
+     * /api/recommendations/enhanced/stream: basic, enriched, complete and error
+     */
+    @GetMapping(value = "/enhanced/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamEnhancedRecommendations(
+            @RequestParam String title,
+            @RequestHeader(value = DEADLINE_HEADER, required = false) Long deadlineMs,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        System.out.println("User " + userDetails.getUsername() + " requested reactive streamed recommendations for: " + title);
+
+        return reactiveRecommendationService.streamEnhancedRecommendations(title, toDuration(deadlineMs))
+                .map(event -> ServerSentEvent.builder(event.getData()).event(event.getName()).build())
+                .onErrorResume(e -> {
+                    String message = e.getMessage() != null ? e.getMessage() : e.toString();
+                    return Mono.just(ServerSentEvent.<Object>builder(Map.of("error", message)).event("error").build());
+                });
+    }
+
+    private static Duration toDuration(Long deadlineMs) {
+        return deadlineMs != null ? Duration.ofMillis(deadlineMs) : null;
+    }
+}
@@ -1,29 +1,70 @@
 package com.movieAI.moviematcher.controllers;
 
 
+import com.movieAI.moviematcher.config.BoundedPasswordEncoder;
 import com.movieAI.moviematcher.model.Users;
+import com.movieAI.moviematcher.service.LoginAttemptThrottle;
 import com.movieAI.moviematcher.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
 
+
+/**
+ * Registration and login.
+ * <p>
+ * Both endpoints hash passwords on a bounded pool and answer 503 with Retry-After when it
+ * is saturated. Login answers 429 with Retry-After when the username or client IP has too
+ * many recent failures.
+ * <p>
+ * Endpoints:
+ * - POST /register: Creates an account
+ * - POST /login: Returns a JWT for valid credentials
+ * - GET /auth/metrics: Password hashing, login throttling, JWT and principal cache counters (ADMIN only)
+ */
 @RestController
 public class UserController {
 
+    // Seconds a client should wait after a 503 from a saturated hashing pool
+    private static final String HASHING_RETRY_AFTER_SECONDS = "1";
+
     @Autowired
     private UserService userService;
 
 
     @PostMapping("/register")
-    public Users register(@RequestBody Users user){
-        return userService.register(user);
+    public ResponseEntity<?> register(@RequestBody Users user){
+        try {
+            return ResponseEntity.ok(userService.register(user));
+        } catch (BoundedPasswordEncoder.PasswordHashingRejectedException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, HASHING_RETRY_AFTER_SECONDS)
+                    .body(e.getMessage());
+        }
     }
 
     @PostMapping("/login")
-    public String login(@RequestBody Users user){
+    public ResponseEntity<String> login(@RequestBody Users user, HttpServletRequest request){
+        try {
+            return ResponseEntity.ok(userService.verify(user, request.getRemoteAddr()));
+        } catch (LoginAttemptThrottle.LoginThrottledException e) {
+            return ResponseEntity.status(429)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+        } catch (BoundedPasswordEncoder.PasswordHashingRejectedException e) {
+            return ResponseEntity.status(503).header(HttpHeaders.RETRY_AFTER, HASHING_RETRY_AFTER_SECONDS)
+                    .body(e.getMessage());
+        }
+    }
 
-        return userService.verify(user);
+    @GetMapping("/auth/metrics")
+    public ResponseEntity<Map<String, Object>> getAuthMetrics() {
+        return ResponseEntity.ok(userService.getAuthMetrics());
     }
 }
@@ -0,0 +1,20 @@
+package com.movieAI.moviematcher.dto;
+
+
+import java.util.List;
+
+
+public class BatchRecommendationRequest {
+
+    private List<String> titles;
+
+    public BatchRecommendationRequest() {}
+
+    public List<String> getTitles() {
+        return titles;
+    }
+
+    public void setTitles(List<String> titles) {
+        this.titles = titles;
+    }
+}
@@ -0,0 +1,18 @@
+package com.movieAI.moviematcher.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+
+/**
+ * One recommendation as returned by the Python /recommend endpoint.
+ * Numeric fields are nullable: a value the service left out stays null rather than 0.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PythonRecommendation(String title,
+                                   String overview,
+                                   Double popularity,
+                                   Double similarity,
+                                   @JsonProperty("vote_average") Double voteAverage) {
+}
@@ -0,0 +1,15 @@
+package com.movieAI.moviematcher.dto;
+
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+
+/**
+ * Body of the Python /recommend endpoint: either a recommendation list or an error
+ * (e.g. when the seed title is not in the catalog).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record PythonRecommendationResponse(List<PythonRecommendation> recommendations, String error) {
+}
@@ -0,0 +1,123 @@
+package com.movieAI.moviematcher.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Persisted copy of the streaming availability data fetched from RapidAPI.
+ * Acts as a second-level cache that survives restarts and deploys.
+ */
+@Entity
+@Table(name = "movie_metadata",
+        uniqueConstraints = {@UniqueConstraint(columnNames = {"title_key", "country"})})
+public class MovieMetadata {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Normalized title, see TitleKey
+    @Column(name = "title_key", nullable = false)
+    private String titleKey;
+
+    @Column(nullable = false, length = 8)
+    private String country;
+
+    @Column(name = "poster_url", length = 1024)
+    private String posterUrl;
+
+    @Convert(converter = StringListConverter.class)
+    @Column(name = "streaming_platforms", length = 2048)
+    private List<String> streamingPlatforms = new ArrayList<>();
+
+    @Column(name = "release_year")
+    private Integer releaseYear;
+
+    @Column(name = "imdb_id")
+    private String imdbId;
+
+    @Convert(converter = StringListConverter.class)
+    @Column(length = 1024)
+    private List<String> genres = new ArrayList<>();
+
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt;
+
+    // Getters and setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitleKey() {
+        return titleKey;
+    }
+
+    public void setTitleKey(String titleKey) {
+        this.titleKey = titleKey;
+    }
+
+    public String getCountry() {
+        return country;
+    }
+
+    public void setCountry(String country) {
+        this.country = country;
+    }
+
+    public String getPosterUrl() {
+        return posterUrl;
+    }
+
+    public void setPosterUrl(String posterUrl) {
+        this.posterUrl = posterUrl;
+    }
+
+    public List<String> getStreamingPlatforms() {
+        return streamingPlatforms;
+    }
+
+    public void setStreamingPlatforms(List<String> streamingPlatforms) {
+        this.streamingPlatforms = streamingPlatforms;
+    }
+
+    public Integer getReleaseYear() {
+        return releaseYear;
+    }
+
+    public void setReleaseYear(Integer releaseYear) {
+        this.releaseYear = releaseYear;
+    }
+
+    public String getImdbId() {
+        return imdbId;
+    }
+
+    public void setImdbId(String imdbId) {
+        this.imdbId = imdbId;
+    }
+
+    public List<String> getGenres() {
+        return genres;
+    }
+
+    public void setGenres(List<String> genres) {
+        this.genres = genres;
+    }
+
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public void setFetchedAt(Instant fetchedAt) {
+        this.fetchedAt = fetchedAt;
+    }
+}
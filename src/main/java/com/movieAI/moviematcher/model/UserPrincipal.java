@@ -7,13 +7,23 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 public class UserPrincipal implements UserDetails {
 
+    // Granted to operators; required for /api/recommendations/admin/** and the metrics endpoints
+    public static final String ADMIN_AUTHORITY = "ADMIN";
+
     private Users user;
+    private final boolean admin;
 
     public UserPrincipal(Users user) {
+        this(user, false);
+    }
+
+    public UserPrincipal(Users user, boolean admin) {
         this.user = user;
+        this.admin = admin;
     }
 
     public String getEmail() {
@@ -22,6 +32,9 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
+        if (admin) {
+            return List.of(new SimpleGrantedAuthority("USER"), new SimpleGrantedAuthority(ADMIN_AUTHORITY));
+        }
         return Collections.singleton(new SimpleGrantedAuthority("USER"));
     }
 
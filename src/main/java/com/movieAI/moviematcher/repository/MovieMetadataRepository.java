@@ -0,0 +1,15 @@
+package com.movieAI.moviematcher.repository;
+
+import com.movieAI.moviematcher.model.MovieMetadata;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+
+@Repository
+public interface MovieMetadataRepository extends JpaRepository<MovieMetadata, Long> {
+
+    // Find the stored metadata for a normalized title in a given country
+    Optional<MovieMetadata> findByTitleKeyAndCountry(String titleKey, String country);
+}
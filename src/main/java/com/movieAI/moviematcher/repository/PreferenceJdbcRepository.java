@@ -0,0 +1,161 @@
+package com.movieAI.moviematcher.repository;
+
+import com.movieAI.moviematcher.dto.PreferencesDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to a user's genre rankings and streaming services.
+ * <p>
+ * Preference reads and saves use this instead of the JPA repositories. The entities have
+ * IDENTITY ids, which stops Hibernate from batching inserts, and the derived deleteBy methods
+ * load every row and then delete it with its own statement. Here every method is one round
+ * trip: reads are single queries and each kind of write is sent as one JDBC batch. Write
+ * methods do nothing when given an empty list.
+ */
+@Repository
+public class PreferenceJdbcRepository {
+
+    private static final String LOAD_SQL =
+            "SELECT 'G' AS kind, id, user_slot, genre_name AS name, ranking FROM genre_preferences WHERE user_id = ? " +
+            "UNION ALL " +
+            "SELECT 'S' AS kind, id, 0, service_name, 0 FROM streaming_service_selections WHERE user_id = ? " +
+            "ORDER BY id";
+
+    private static final String FIND_BY_USERNAME_SQL =
+            "SELECT 'G' AS kind, g.user_slot, g.genre_name AS name, g.ranking FROM users u " +
+            "JOIN genre_preferences g ON g.user_id = u.id WHERE u.username = ? " +
+            "UNION ALL " +
+            "SELECT 'S' AS kind, 0, s.service_name, 0 FROM users u " +
+            "JOIN streaming_service_selections s ON s.user_id = u.id WHERE u.username = ? " +
+            "ORDER BY kind, user_slot, ranking, name";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PreferenceJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the user's id and locks their row until the transaction ends, so concurrent
+     * saves for one account apply one after the other. Null if there is no such user.
+     */
+    public Integer lockUserId(String username) {
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM users WHERE username = ? FOR UPDATE",
+                Integer.class, username);
+        return ids.isEmpty() ? null : ids.get(0);
+    }
+
+    /**
+     * Loads genre rankings and services together, oldest rows first
+     */
+    public StoredPreferences load(int userId) {
+        List<GenreRow> genres = new ArrayList<>();
+        List<ServiceRow> services = new ArrayList<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            if ("G".equals(rs.getString("kind"))) {
+                genres.add(new GenreRow(rs.getLong("id"), rs.getInt("user_slot"), rs.getString("name"), rs.getInt("ranking")));
+            } else {
+                services.add(new ServiceRow(rs.getLong("id"), rs.getString("name")));
+            }
+        }, userId, userId);
+        return new StoredPreferences(genres, services);
+    }
+
+    /**
+     * Reads a user's genre rankings, best first, and services in one query, straight into the
+     * DTO without loading entities. An unknown user gets empty preferences. The returned
+     * maps and list are read-only.
+     */
+    public PreferencesDTO findPreferences(String username) {
+        Map<String, Integer> user1Genres = new LinkedHashMap<>();
+        Map<String, Integer> user2Genres = new LinkedHashMap<>();
+        List<String> services = new ArrayList<>();
+        jdbcTemplate.query(FIND_BY_USERNAME_SQL, rs -> {
+            if ("S".equals(rs.getString("kind"))) {
+                services.add(rs.getString("name"));
+            } else if (rs.getInt("user_slot") == 1) {
+                user1Genres.put(rs.getString("name"), rs.getInt("ranking"));
+            } else if (rs.getInt("user_slot") == 2) {
+                user2Genres.put(rs.getString("name"), rs.getInt("ranking"));
+            }
+        }, username, username);
+
+        PreferencesDTO preferences = new PreferencesDTO();
+        preferences.setUser1Genres(Collections.unmodifiableMap(user1Genres));
+        preferences.setUser2Genres(Collections.unmodifiableMap(user2Genres));
+        preferences.setServices(Collections.unmodifiableList(services));
+        return preferences;
+    }
+
+    public void deleteGenres(List<Long> ids) {
+        deleteByIds("DELETE FROM genre_preferences WHERE id = ?", ids);
+    }
+
+    public void deleteServices(List<Long> ids) {
+        deleteByIds("DELETE FROM streaming_service_selections WHERE id = ?", ids);
+    }
+
+    /**
+     * Writes new rankings for existing rows, matched by id
+     */
+    public void updateRankings(List<GenreRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("UPDATE genre_preferences SET ranking = ? WHERE id = ?", rows, rows.size(),
+                (ps, row) -> {
+                    ps.setInt(1, row.ranking());
+                    ps.setLong(2, row.id());
+                });
+    }
+
+    public void insertGenres(int userId, List<GenreRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO genre_preferences (genre_name, ranking, user_slot, user_id) VALUES (?, ?, ?, ?)",
+                rows, rows.size(), (ps, row) -> {
+                    ps.setString(1, row.genreName());
+                    ps.setInt(2, row.ranking());
+                    ps.setInt(3, row.userSlot());
+                    ps.setInt(4, userId);
+                });
+    }
+
+    public void insertServices(int userId, List<String> serviceNames) {
+        if (serviceNames.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO streaming_service_selections (service_name, user_id) VALUES (?, ?)",
+                serviceNames, serviceNames.size(), (ps, serviceName) -> {
+                    ps.setString(1, serviceName);
+                    ps.setInt(2, userId);
+                });
+    }
+
+    private void deleteByIds(String sql, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, ids, ids.size(), (ps, id) -> ps.setLong(1, id));
+    }
+
+    /**
+     * One genre_preferences row; id is null for rows not inserted yet
+     */
+    public record GenreRow(Long id, int userSlot, String genreName, int ranking) {
+    }
+
+    public record ServiceRow(Long id, String serviceName) {
+    }
+
+    public record StoredPreferences(List<GenreRow> genres, List<ServiceRow> services) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.movieAI.moviematcher.resilience;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Count-based circuit breaker.
+ * <p>
+ * The outcomes of the last slidingWindowSize calls are kept in a ring buffer. Once at least
+ * minimumCalls have been recorded, the breaker opens when either the failure rate or the
+ * slow-call rate (calls taking longer than slowCallDuration) reaches its threshold. While
+ * open, calls are rejected without touching the upstream. After openDuration the breaker
+ * lets halfOpenPermittedCalls probes through: if all succeed it closes again, a single
+ * failed or slow probe opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final byte FAILED = 1;
+    private static final byte SLOW = 2;
+
+    private final int failureRateThreshold;
+    private final int slowCallRateThreshold;
+    private final long slowCallDurationNanos;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenPermittedCalls;
+
+    private final byte[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int failedCount;
+    private int slowCount;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenInFlight;
+    private int halfOpenSucceeded;
+    private long rejectedCalls;
+    private long timesOpened;
+
+    public CircuitBreaker(int failureRateThreshold, int slowCallRateThreshold, Duration slowCallDuration,
+                          int slidingWindowSize, int minimumCalls, Duration openDuration, int halfOpenPermittedCalls) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallDurationNanos = slowCallDuration.toNanos();
+        this.minimumCalls = Math.min(minimumCalls, slidingWindowSize);
+        this.openDurationNanos = openDuration.toNanos();
+        this.halfOpenPermittedCalls = Math.max(1, halfOpenPermittedCalls);
+        this.window = new byte[slidingWindowSize];
+    }
+
+    /**
+     * Returns true if a call may be sent now. In the half-open state this hands out one of
+     * the probe permits, so every permitted call must be followed by onSuccess or onFailure.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            halfOpenInFlight = 0;
+            halfOpenSucceeded = 0;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && halfOpenInFlight < halfOpenPermittedCalls) {
+            halfOpenInFlight++;
+            return true;
+        }
+        rejectedCalls++;
+        return false;
+    }
+
+    /**
+     * Non-mutating check used to fail fast before spending other resources on a call
+     */
+    public synchronized boolean isCallPermitted() {
+        return state != State.OPEN || System.nanoTime() - openedAtNanos >= openDurationNanos;
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(durationNanos >= slowCallDurationNanos ? SLOW : 0);
+    }
+
+    public synchronized void onFailure(long durationNanos) {
+        record((byte) (FAILED | (durationNanos >= slowCallDurationNanos ? SLOW : 0)));
+    }
+
+    /**
+     * Releases a permit without recording an outcome (the call was not a signal about upstream health)
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenInFlight > 0) {
+            halfOpenInFlight--;
+        }
+    }
+
+    private void record(byte outcome) {
+        if (state == State.HALF_OPEN) {
+            if (outcome != 0) {
+                transitionToOpen();
+            } else if (++halfOpenSucceeded >= halfOpenPermittedCalls) {
+                transitionToClosed();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // Late outcome of a call permitted before the breaker opened
+            return;
+        }
+
+        if (windowCount == window.length) {
+            byte evicted = window[windowIndex];
+            failedCount -= evicted & FAILED;
+            slowCount -= (evicted & SLOW) >> 1;
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = outcome;
+        windowIndex = (windowIndex + 1) % window.length;
+        failedCount += outcome & FAILED;
+        slowCount += (outcome & SLOW) >> 1;
+
+        if (windowCount >= minimumCalls
+                && (failedCount * 100 >= failureRateThreshold * windowCount
+                || slowCount * 100 >= slowCallRateThreshold * windowCount)) {
+            transitionToOpen();
+        }
+    }
+
+    private void transitionToOpen() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        timesOpened++;
+        resetWindow();
+    }
+
+    private void transitionToClosed() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        failedCount = 0;
+        slowCount = 0;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("failureRate", windowCount == 0 ? 0.0 : failedCount * 100.0 / windowCount);
+        stats.put("slowCallRate", windowCount == 0 ? 0.0 : slowCount * 100.0 / windowCount);
+        stats.put("bufferedCalls", windowCount);
+        stats.put("rejectedCalls", rejectedCalls);
+        stats.put("timesOpened", timesOpened);
+        return stats;
+    }
+}
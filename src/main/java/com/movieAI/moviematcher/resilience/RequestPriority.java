@@ -0,0 +1,12 @@
+package com.movieAI.moviematcher.resilience;
+
+/**
+ * Priority lane of an upstream call.
+ * <p>
+ * INTERACTIVE calls serve a user who is waiting for the response. BACKGROUND calls
+ * (warm-up, refresh-ahead) only use capacity that interactive calls leave unused.
+ */
+public enum RequestPriority {
+    INTERACTIVE,
+    BACKGROUND
+}
@@ -0,0 +1,137 @@
+package com.movieAI.moviematcher.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter with an interactive and a background lane.
+ * <p>
+ * Tokens refill at a fixed rate up to the burst size. Interactive callers reserve the next
+ * available token and sleep until it is due, so they are served in arrival order. A caller
+ * whose wait would exceed its budget is rejected immediately instead of queueing, which lets
+ * it fall back to degraded data within its deadline.
+ * <p>
+ * Background callers never wait behind a reservation: they only take a token when one is
+ * available right now, no interactive caller is waiting, and at least backgroundReserve
+ * tokens remain for interactive traffic. Otherwise they poll until their own budget expires.
+ */
+public class TokenBucket {
+
+    private static final long BACKGROUND_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final double burst;
+    private final double backgroundReserve;
+    private final long nanosPerToken;
+
+    private double storedTokens;
+    private long nextFreeNanos;
+    private int interactiveWaiting;
+
+    public TokenBucket(double tokensPerSecond, int burst, int backgroundReserve) {
+        if (tokensPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("tokensPerSecond and burst must be positive");
+        }
+        this.burst = burst;
+        this.backgroundReserve = Math.min(backgroundReserve, burst - 1);
+        this.nanosPerToken = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+        this.storedTokens = burst;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Takes one token, waiting at most maxWaitNanos.
+     *
+     * @return the time spent waiting in nanoseconds, or -1 if the token could not be
+     * obtained within maxWaitNanos
+     */
+    public long acquire(RequestPriority priority, long maxWaitNanos) throws InterruptedException {
+        return priority == RequestPriority.INTERACTIVE
+                ? acquireInteractive(maxWaitNanos)
+                : acquireBackground(maxWaitNanos);
+    }
+
+    private long acquireInteractive(long maxWaitNanos) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            resync(now);
+            // The part of the token not covered by stored tokens is due after nextFreeNanos
+            double fromStored = Math.min(1.0, storedTokens);
+            long dueNanos = nextFreeNanos + (long) ((1.0 - fromStored) * nanosPerToken);
+            waitNanos = Math.max(0L, dueNanos - now);
+            if (waitNanos > maxWaitNanos) {
+                return -1L;
+            }
+            storedTokens -= fromStored;
+            nextFreeNanos = dueNanos;
+            if (waitNanos > 0) {
+                interactiveWaiting++;
+            }
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } finally {
+                synchronized (this) {
+                    interactiveWaiting--;
+                }
+            }
+        }
+        return waitNanos;
+    }
+
+    private long acquireBackground(long maxWaitNanos) throws InterruptedException {
+        long start = System.nanoTime();
+        while (true) {
+            long now = System.nanoTime();
+            synchronized (this) {
+                resync(now);
+                if (interactiveWaiting == 0 && nextFreeNanos <= now && storedTokens >= 1.0 + backgroundReserve) {
+                    storedTokens -= 1.0;
+                    return now - start;
+                }
+            }
+            long remaining = maxWaitNanos - (now - start);
+            if (remaining <= 0) {
+                return -1L;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, Math.max(BACKGROUND_POLL_NANOS, nanosPerToken)));
+        }
+    }
+
+    /**
+     * Stops handing out tokens for the given duration, e.g. after the upstream answered 429
+     */
+    public synchronized void penalize(Duration duration) {
+        long now = System.nanoTime();
+        resync(now);
+        storedTokens = 0;
+        nextFreeNanos = Math.max(nextFreeNanos, now + duration.toNanos());
+    }
+
+    /**
+     * Gives back a token taken for a call that was never sent, e.g. because the bulkhead
+     * refused it. A token reserved ahead of time is released first, then one is stored.
+     */
+    public synchronized void refund() {
+        long now = System.nanoTime();
+        resync(now);
+        if (nextFreeNanos > now) {
+            nextFreeNanos = Math.max(now, nextFreeNanos - nanosPerToken);
+        } else {
+            storedTokens = Math.min(burst, storedTokens + 1.0);
+        }
+    }
+
+    public synchronized double getAvailableTokens() {
+        resync(System.nanoTime());
+        return storedTokens;
+    }
+
+    private void resync(long now) {
+        if (now > nextFreeNanos) {
+            storedTokens = Math.min(burst, storedTokens + (double) (now - nextFreeNanos) / nanosPerToken);
+            nextFreeNanos = now;
+        }
+    }
+}
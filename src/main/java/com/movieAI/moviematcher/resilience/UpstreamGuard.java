@@ -0,0 +1,128 @@
+package com.movieAI.moviematcher.resilience;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker plus concurrency bulkhead around the calls to one upstream service.
+ * <p>
+ * The bulkhead caps how many calls to this upstream may be in flight at once, so a slow
+ * upstream can only tie up its own share of threads. The circuit breaker cuts the upstream
+ * off entirely once it keeps failing or answering slowly. Rejected calls fail with
+ * {@link UpstreamUnavailableException} immediately instead of waiting for a socket timeout.
+ */
+public class UpstreamGuard {
+
+    private final String name;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Predicate<Throwable> recordAsFailure;
+
+    private final LongAdder bulkheadRejections = new LongAdder();
+
+    /**
+     * @param recordAsFailure decides which exceptions count against the upstream's health;
+     *                        other exceptions (e.g. a 404 for an unknown title) are ignored
+     */
+    public UpstreamGuard(String name, CircuitBreaker circuitBreaker, int maxConcurrentCalls, long maxWaitMillis,
+                         Predicate<Throwable> recordAsFailure) {
+        this.name = name;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        this.recordAsFailure = recordAsFailure;
+    }
+
+    public <T> T call(Callable<T> call) throws Exception {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new UpstreamUnavailableException(name + " circuit breaker is open");
+        }
+        if (!bulkhead.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+            circuitBreaker.onIgnored();
+            bulkheadRejections.increment();
+            throw new UpstreamUnavailableException(name + " bulkhead is full (" + maxConcurrentCalls + " calls in flight)");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = call.call();
+            circuitBreaker.onSuccess(System.nanoTime() - start);
+            return result;
+        } catch (Exception e) {
+            if (recordAsFailure.test(e)) {
+                circuitBreaker.onFailure(System.nanoTime() - start);
+            } else {
+                circuitBreaker.onIgnored();
+            }
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Non-blocking variant for asynchronous clients: never waits for a bulkhead slot, and the
+     * slot is held until the returned future completes rather than until the call returns.
+     */
+    public <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> call) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(new UpstreamUnavailableException(name + " circuit breaker is open"));
+        }
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.onIgnored();
+            bulkheadRejections.increment();
+            return CompletableFuture.failedFuture(
+                    new UpstreamUnavailableException(name + " bulkhead is full (" + maxConcurrentCalls + " calls in flight)"));
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            bulkhead.release();
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause == null) {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            } else if (recordAsFailure.test(cause)) {
+                circuitBreaker.onFailure(System.nanoTime() - start);
+            } else {
+                circuitBreaker.onIgnored();
+            }
+        });
+    }
+
+    /**
+     * Cheap check that lets callers skip work (e.g. quota reservation) for a call that would
+     * be rejected anyway
+     */
+    public boolean isCallPermitted() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    public CircuitBreaker.State getState() {
+        return circuitBreaker.getState();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(circuitBreaker.getStats());
+        stats.put("maxConcurrentCalls", maxConcurrentCalls);
+        stats.put("activeCalls", maxConcurrentCalls - bulkhead.availablePermits());
+        stats.put("bulkheadRejections", bulkheadRejections.sum());
+        return stats;
+    }
+}
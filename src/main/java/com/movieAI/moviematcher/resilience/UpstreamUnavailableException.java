@@ -0,0 +1,12 @@
+package com.movieAI.moviematcher.resilience;
+
+/**
+ * Thrown when a call is not sent because the upstream's circuit breaker is open or its
+ * bulkhead is full.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
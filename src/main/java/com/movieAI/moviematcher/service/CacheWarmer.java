@@ -0,0 +1,167 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.resilience.RequestPriority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pre-fetches the hottest titles into the in-memory caches so the first users after a
+ * rollout don't pay for every upstream call.
+ * <p>
+ * Runs once on application start and on demand through the admin endpoint. The top seed
+ * titles from {@link HotTitleTracker} are sent to the Python service one at a time, then
+ * streaming availability for the top recommended titles is looked up in the background
+ * quota lane, so warm-up never takes RapidAPI quota away from user requests.
+ * <p>
+ * Configuration:
+ * - warmup.enabled: warm up on application start (default true)
+ * - warmup.seed-count: seed titles whose recommendations are pre-fetched (default 50)
+ * - warmup.title-count: recommended titles whose streaming data is pre-fetched (default 200)
+ * - warmup.python-interval-ms: pause between Python calls (default 100)
+ * - warmup.lookup-wait-ms: how long one lookup may wait for background quota (default 10000)
+ * - warmup.readiness.min-percent: warm-up progress required before /ready reports ready, 0 to not wait (default 0)
+ */
+@Component
+public class CacheWarmer {
+
+    public enum State { NOT_STARTED, RUNNING, COMPLETED }
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.seed-count:50}")
+    private int seedCount;
+
+    @Value("${warmup.title-count:200}")
+    private int titleCount;
+
+    @Value("${warmup.python-interval-ms:100}")
+    private long pythonIntervalMs;
+
+    @Value("${warmup.lookup-wait-ms:10000}")
+    private long lookupWaitMs;
+
+    @Value("${warmup.readiness.min-percent:0}")
+    private double readinessMinPercent;
+
+    private final EnhancedRecommendationService recommendationService;
+    private final HotTitleTracker hotTitleTracker;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile State state = State.NOT_STARTED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+
+    public CacheWarmer(EnhancedRecommendationService recommendationService, HotTitleTracker hotTitleTracker) {
+        this.recommendationService = recommendationService;
+        this.hotTitleTracker = hotTitleTracker;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            start();
+        }
+    }
+
+    /**
+     * Starts a warm-up run in the background
+     *
+     * @return false if a run is already in progress
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        List<String> seeds = hotTitleTracker.topSeeds(seedCount);
+        List<String> titles = hotTitleTracker.topRecommended(titleCount);
+        total.set(seeds.size() + titles.size());
+        completed.set(0);
+        failed.set(0);
+        startedAt = Instant.now();
+        finishedAt = null;
+        state = State.RUNNING;
+
+        Thread thread = new Thread(() -> run(seeds, titles), "cache-warmer");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void run(List<String> seeds, List<String> titles) {
+        System.out.println("Cache warm-up started: " + seeds.size() + " seed titles, " + titles.size() + " recommended titles");
+        try {
+            for (String seed : seeds) {
+                try {
+                    recommendationService.warmBasicRecommendations(seed);
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                }
+                completed.incrementAndGet();
+                TimeUnit.MILLISECONDS.sleep(pythonIntervalMs);
+            }
+            for (String title : titles) {
+                long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lookupWaitMs);
+                if (!EnhancedRecommendationService.hasData(
+                        recommendationService.getStreamingAvailability(title, RequestPriority.BACKGROUND, deadlineNanos))) {
+                    failed.incrementAndGet();
+                }
+                completed.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            finishedAt = Instant.now();
+            state = State.COMPLETED;
+            running.set(false);
+            System.out.println("Cache warm-up finished: " + completed.get() + " of " + total.get() + " titles, "
+                    + failed.get() + " without data, in " + Duration.between(startedAt, finishedAt).toMillis() + " ms");
+        }
+    }
+
+    public double getProgressPercent() {
+        int planned = total.get();
+        if (planned == 0) {
+            return state == State.COMPLETED ? 100.0 : 0.0;
+        }
+        return completed.get() * 100.0 / planned;
+    }
+
+    /**
+     * True once warm-up has progressed far enough for this node to take traffic
+     */
+    public boolean isReady() {
+        return !enabled
+                || readinessMinPercent <= 0
+                || state == State.COMPLETED
+                || getProgressPercent() >= readinessMinPercent;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("state", state.name());
+        stats.put("progressPercent", getProgressPercent());
+        stats.put("total", total.get());
+        stats.put("completed", completed.get());
+        stats.put("withoutData", failed.get());
+        stats.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        stats.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+        stats.put("readinessMinPercent", readinessMinPercent);
+        stats.put("hotTitles", hotTitleTracker.getStats());
+        return stats;
+    }
+}
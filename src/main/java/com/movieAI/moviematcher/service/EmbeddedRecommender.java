@@ -0,0 +1,327 @@
+package com.movieAI.moviematcher.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieAI.moviematcher.catalog.CatalogMovie;
+import com.movieAI.moviematcher.catalog.CatalogSnapshotWriter;
+import com.movieAI.moviematcher.catalog.HnswIndex;
+import com.movieAI.moviematcher.catalog.MappedMovieCatalog;
+import com.movieAI.moviematcher.catalog.MovieCatalog;
+import com.movieAI.moviematcher.catalog.ScoredMovie;
+import com.movieAI.moviematcher.catalog.TfIdfIndex;
+import com.movieAI.moviematcher.dto.PythonRecommendation;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-process content-based recommender over a local movie catalog.
+ * <p>
+ * Builds TF-IDF vectors over the catalog's overviews and genres (see {@link TfIdfIndex})
+ * and answers top-K similar titles without a network hop, in the same shape as the Python
+ * /recommend endpoint. {@link EnhancedRecommendationService} uses it as a fallback when the
+ * Python service is unavailable, or as the primary engine with recommendation.engine=embedded.
+ * <p>
+ * The catalog is loaded in the background at startup; until it is ready, or when the file
+ * does not exist, the recommender reports itself unavailable and callers use Python only.
+ * <p>
+ * When a snapshot path is configured, the catalog is served from a memory-mapped snapshot
+ * file ({@link MappedMovieCatalog}) instead of the heap. With auto-build on, the snapshot is
+ * (re)built from the JSON export whenever it is missing or older than the export. A reload
+ * builds the new catalog and indexes next to the current ones and swaps them in one step,
+ * and is skipped when the snapshot version has not changed.
+ * <p>
+ * With recommendation.embedded.similarity=hnsw, similar titles come from an approximate
+ * nearest-neighbour index ({@link HnswIndex}) over per-movie embeddings instead of the exact
+ * TF-IDF scan. Movies use the catalog's vectors when it has them; otherwise their TF-IDF
+ * vectors are randomly projected to dense vectors. The graph built for a snapshot is saved
+ * next to it (snapshot path + ".hnsw") and restored on the next load of the same snapshot
+ * version, so a restart only rebuilds it after the snapshot changes.
+ * <p>
+ * The TF-IDF index is built on the heap on every load, except in hnsw mode when the catalog
+ * has its own vectors. Building it decodes every overview, so in the default tfidf mode a
+ * load reads the whole mapped snapshot and takes time proportional to the catalog size;
+ * the snapshot only keeps the catalog itself off the heap.
+ * <p>
+ * Configuration:
+ * - recommendation.embedded.catalog-path: JSON array of movies (default data/movie-catalog.json)
+ * - recommendation.embedded.snapshot-path: catalog snapshot file, empty to disable (default data/movie-catalog.snapshot)
+ * - recommendation.embedded.snapshot.auto-build: build the snapshot from the JSON export (default true)
+ * - recommendation.embedded.top-k: recommendations per title (default 10)
+ * - recommendation.embedded.similarity: tfidf (exact) or hnsw (approximate) (default tfidf)
+ * - recommendation.embedded.hnsw.dimension: dimension of projected embeddings (default 128)
+ * - recommendation.embedded.hnsw.m: graph links per node (default 16)
+ * - recommendation.embedded.hnsw.ef-construction: candidate list size while building (default 200)
+ * - recommendation.embedded.hnsw.ef-search: candidate list size while querying (default 64)
+ * - recommendation.embedded.hnsw.persist-graph: save and restore the graph next to the snapshot (default true)
+ */
+@Service
+public class EmbeddedRecommender {
+
+    private final Path catalogPath;
+    private final Path snapshotPath;
+    private final boolean autoBuildSnapshot;
+    private final int topK;
+    private final boolean useHnsw;
+    private final int hnswDimension;
+    private final int hnswM;
+    private final int hnswEfConstruction;
+    private final int hnswEfSearch;
+    private final boolean persistHnswGraph;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile LoadedCatalog loaded;
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder unknownTitles = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+
+    public EmbeddedRecommender(@Value("${recommendation.embedded.catalog-path:data/movie-catalog.json}") String catalogPath,
+                               @Value("${recommendation.embedded.snapshot-path:data/movie-catalog.snapshot}") String snapshotPath,
+                               @Value("${recommendation.embedded.snapshot.auto-build:true}") boolean autoBuildSnapshot,
+                               @Value("${recommendation.embedded.top-k:10}") int topK,
+                               @Value("${recommendation.embedded.similarity:tfidf}") String similarity,
+                               @Value("${recommendation.embedded.hnsw.dimension:128}") int hnswDimension,
+                               @Value("${recommendation.embedded.hnsw.m:16}") int hnswM,
+                               @Value("${recommendation.embedded.hnsw.ef-construction:200}") int hnswEfConstruction,
+                               @Value("${recommendation.embedded.hnsw.ef-search:64}") int hnswEfSearch,
+                               @Value("${recommendation.embedded.hnsw.persist-graph:true}") boolean persistHnswGraph) {
+        this.catalogPath = Paths.get(catalogPath);
+        this.snapshotPath = snapshotPath == null || snapshotPath.isBlank() ? null : Paths.get(snapshotPath);
+        this.autoBuildSnapshot = autoBuildSnapshot;
+        this.topK = topK;
+        this.useHnsw = "hnsw".equalsIgnoreCase(similarity);
+        this.hnswDimension = hnswDimension;
+        this.hnswM = hnswM;
+        this.hnswEfConstruction = hnswEfConstruction;
+        this.hnswEfSearch = hnswEfSearch;
+        this.persistHnswGraph = persistHnswGraph;
+    }
+
+    /**
+     * Catalog and indexes that are swapped together on reload
+     */
+    private record LoadedCatalog(MovieCatalog catalog, TfIdfIndex tfIdfIndex, HnswIndex hnswIndex, String source,
+                                 long version, String embeddingSource, boolean hnswGraphRestored,
+                                 long loadMillis, long hnswBuildMillis) {}
+
+    @PostConstruct
+    public void loadInBackground() {
+        if (!Files.exists(catalogPath) && (snapshotPath == null || !Files.exists(snapshotPath))) {
+            System.out.println("Embedded recommender disabled: catalog " + catalogPath + " not found");
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                reload();
+            } catch (Exception e) {
+                System.err.println("Could not load movie catalog: " + e.getMessage());
+            }
+        }, "embedded-recommender-loader");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Loads the catalog from the snapshot (building it first if needed) or the JSON export,
+     * then swaps it in. Returns false if there is nothing to load or the snapshot is unchanged.
+     */
+    public synchronized boolean reload() throws IOException {
+        long start = System.nanoTime();
+        if (snapshotPath != null && autoBuildSnapshot && snapshotOutdated()) {
+            MovieCatalog source = MovieCatalog.load(catalogPath, objectMapper);
+            long version = CatalogSnapshotWriter.write(source, hnswDimension, snapshotPath);
+            System.out.println("Built catalog snapshot " + snapshotPath + " (version " + version + ") in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+
+        MovieCatalog nextCatalog;
+        String source;
+        long version;
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            MappedMovieCatalog mapped = MappedMovieCatalog.open(snapshotPath);
+            LoadedCatalog current = loaded;
+            if (current != null && "snapshot".equals(current.source()) && current.version() == mapped.getVersion()) {
+                return false;
+            }
+            nextCatalog = mapped;
+            source = "snapshot";
+            version = mapped.getVersion();
+        } else if (Files.exists(catalogPath)) {
+            nextCatalog = MovieCatalog.load(catalogPath, objectMapper);
+            source = "json";
+            version = Files.getLastModifiedTime(catalogPath).toMillis();
+        } else {
+            return false;
+        }
+
+        // The exact TF-IDF index is not needed when HNSW can use the catalog's own vectors
+        TfIdfIndex tfIdfIndex = useHnsw && nextCatalog.vectorDimension() > 0 ? null : TfIdfIndex.build(nextCatalog);
+        HnswIndex hnswIndex = null;
+        String embeddingSource = null;
+        boolean hnswGraphRestored = false;
+        long hnswBuildMillis = 0;
+        if (useHnsw) {
+            long hnswStart = System.nanoTime();
+            embeddingSource = nextCatalog.vectorDimension() > 0 ? source : "tfidf-projection";
+            // Only snapshots have a version that identifies the vectors a saved graph was built from
+            Path graphPath = persistHnswGraph && "snapshot".equals(source)
+                    ? snapshotPath.resolveSibling(snapshotPath.getFileName() + ".hnsw") : null;
+            hnswIndex = graphPath != null ? readHnswGraph(graphPath, nextCatalog, tfIdfIndex, version) : null;
+            hnswGraphRestored = hnswIndex != null;
+            if (hnswIndex == null) {
+                hnswIndex = buildHnswIndex(nextCatalog, tfIdfIndex);
+                if (graphPath != null) {
+                    writeHnswGraph(hnswIndex, graphPath, version);
+                }
+            }
+            hnswBuildMillis = (System.nanoTime() - hnswStart) / 1_000_000;
+        }
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        loaded = new LoadedCatalog(nextCatalog, tfIdfIndex, hnswIndex, source, version, embeddingSource,
+                hnswGraphRestored, loadMillis, hnswBuildMillis);
+        reloads.increment();
+        System.out.println("Embedded recommender loaded " + nextCatalog.size() + " movies from " + source
+                + " (version " + version + ") in " + loadMillis + " ms");
+        return true;
+    }
+
+    private boolean snapshotOutdated() throws IOException {
+        if (!Files.exists(catalogPath)) {
+            return false;
+        }
+        return !Files.exists(snapshotPath)
+                || Files.getLastModifiedTime(catalogPath).compareTo(Files.getLastModifiedTime(snapshotPath)) > 0;
+    }
+
+    private HnswIndex buildHnswIndex(MovieCatalog catalog, TfIdfIndex tfIdfIndex) {
+        int dimension = hnswVectorDimension(catalog);
+        HnswIndex built = new HnswIndex(dimension, hnswM, hnswEfConstruction, hnswEfSearch, catalog.size(),
+                TfIdfIndex.PROJECTION_SEED);
+        for (int i = 0; i < catalog.size(); i++) {
+            // Node ids follow insertion order, so they equal catalog positions
+            built.add(hnswVector(catalog, tfIdfIndex, i, dimension));
+        }
+        return built;
+    }
+
+    /**
+     * Restores the graph saved for this snapshot version; null if there is none or it is unreadable
+     */
+    private HnswIndex readHnswGraph(Path graphPath, MovieCatalog catalog, TfIdfIndex tfIdfIndex, long version) {
+        int dimension = hnswVectorDimension(catalog);
+        try {
+            return HnswIndex.readGraph(graphPath, version, dimension, hnswM, hnswEfConstruction, hnswEfSearch,
+                    catalog.size(), TfIdfIndex.PROJECTION_SEED, i -> hnswVector(catalog, tfIdfIndex, i, dimension))
+                    .orElse(null);
+        } catch (IOException e) {
+            System.err.println("Could not read HNSW graph " + graphPath + ", rebuilding it: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeHnswGraph(HnswIndex hnswIndex, Path graphPath, long version) {
+        try {
+            hnswIndex.writeGraph(graphPath, version);
+        } catch (IOException e) {
+            // The index in memory is complete; the next start just builds it again
+            System.err.println("Could not save HNSW graph " + graphPath + ": " + e.getMessage());
+        }
+    }
+
+    private int hnswVectorDimension(MovieCatalog catalog) {
+        return catalog.vectorDimension() > 0 ? catalog.vectorDimension() : hnswDimension;
+    }
+
+    private static float[] hnswVector(MovieCatalog catalog, TfIdfIndex tfIdfIndex, int position, int dimension) {
+        return catalog.vectorDimension() > 0
+                ? catalog.vector(position)
+                : tfIdfIndex.randomProjection(position, dimension, TfIdfIndex.PROJECTION_SEED);
+    }
+
+    public boolean isAvailable() {
+        return loaded != null;
+    }
+
+    /**
+     * The currently loaded catalog; a reload replaces the instance rather than changing it
+     */
+    public Optional<MovieCatalog> getCatalog() {
+        LoadedCatalog current = loaded;
+        return current != null ? Optional.of(current.catalog()) : Optional.empty();
+    }
+
+    /**
+     * Returns the most similar catalog titles, or empty if the catalog is not loaded or
+     * does not contain the title
+     */
+    public Optional<List<PythonRecommendation>> recommend(String title) {
+        LoadedCatalog current = loaded;
+        if (current == null) {
+            return Optional.empty();
+        }
+        queries.increment();
+        int position = current.catalog().indexOf(title);
+        if (position < 0) {
+            unknownTitles.increment();
+            return Optional.empty();
+        }
+        List<ScoredMovie> similar = current.hnswIndex() != null
+                ? similarApproximate(current.hnswIndex(), position)
+                : current.tfIdfIndex().similar(position, topK);
+        return Optional.of(similar.stream()
+                .map(scored -> toRecommendation(current.catalog().get(scored.index()), scored.score()))
+                .toList());
+    }
+
+    private List<ScoredMovie> similarApproximate(HnswIndex hnswIndex, int position) {
+        // One extra result because the movie finds itself
+        return hnswIndex.search(hnswIndex.vector(position), topK + 1).stream()
+                .filter(scored -> scored.index() != position)
+                .limit(topK)
+                .toList();
+    }
+
+    private static PythonRecommendation toRecommendation(CatalogMovie movie, double similarity) {
+        return new PythonRecommendation(movie.getTitle(), movie.getOverview(), movie.getPopularity(),
+                similarity, movie.getVoteAverage());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        LoadedCatalog current = loaded;
+        stats.put("available", current != null);
+        stats.put("source", current != null ? current.source() : null);
+        stats.put("version", current != null ? current.version() : 0);
+        stats.put("movies", current != null ? current.catalog().size() : 0);
+        stats.put("vectorDimension", current != null ? current.catalog().vectorDimension() : 0);
+        stats.put("terms", current != null && current.tfIdfIndex() != null ? current.tfIdfIndex().getTermCount() : 0);
+        stats.put("loadMs", current != null ? current.loadMillis() : 0);
+        stats.put("reloads", reloads.sum());
+        stats.put("similarity", useHnsw ? "hnsw" : "tfidf");
+        if (current != null && current.hnswIndex() != null) {
+            Map<String, Object> hnsw = new LinkedHashMap<>();
+            hnsw.put("nodes", current.hnswIndex().size());
+            hnsw.put("dimension", current.hnswIndex().getDimension());
+            hnsw.put("embeddings", current.embeddingSource());
+            hnsw.put("m", hnswM);
+            hnsw.put("efConstruction", hnswEfConstruction);
+            hnsw.put("efSearch", hnswEfSearch);
+            hnsw.put("graph", current.hnswGraphRestored() ? "restored" : "built");
+            hnsw.put("buildMs", current.hnswBuildMillis());
+            stats.put("hnsw", hnsw);
+        }
+        stats.put("queries", queries.sum());
+        stats.put("unknownTitles", unknownTitles.sum());
+        return stats;
+    }
+}
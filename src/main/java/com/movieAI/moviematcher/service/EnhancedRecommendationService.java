@@ -1,25 +1,45 @@
 package com.movieAI.moviematcher.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieAI.moviematcher.cache.CachedValue;
+import com.movieAI.moviematcher.cache.SingleFlight;
+import com.movieAI.moviematcher.cache.TitleKey;
+import com.movieAI.moviematcher.concurrent.BoundedExecutor;
+import com.movieAI.moviematcher.dto.PythonRecommendation;
+import com.movieAI.moviematcher.dto.PythonRecommendationResponse;
+import com.movieAI.moviematcher.resilience.RequestPriority;
+import com.movieAI.moviematcher.resilience.UpstreamGuard;
+import com.movieAI.moviematcher.resilience.UpstreamUnavailableException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
 import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
@@ -39,25 +59,112 @@ public class EnhancedRecommendationService {
     @Value("${rapidapi.streaming.url:https://streaming-availability.p.rapidapi.com}")
     private String rapidApiStreamingUrl;
 
+    @Value("${rapidapi.country:us}")
+    private String rapidApiCountry;
+
+    @Value("${recommendation.deadline.default-ms:3000}")
+    private long defaultDeadlineMs;
+
+    @Value("${recommendation.deadline.max-ms:15000}")
+    private long maxDeadlineMs;
+
+    @Value("${recommendation.batch.max-seeds:20}")
+    private int maxBatchSeeds;
+
+    // python (default) or embedded, see EmbeddedRecommender
+    @Value("${recommendation.engine:python}")
+    private String recommendationEngine;
+
+    // Answer from the embedded recommender when the Python service is unavailable
+    @Value("${recommendation.embedded.fallback-enabled:true}")
+    private boolean embeddedFallbackEnabled;
+
+    // Fraction of the TTL after which a popular entry is refreshed ahead of expiry (1.0 or more disables)
+    @Value("${rapidapi.cache.refresh-ahead-fraction:0.8}")
+    private double refreshAheadFraction;
+
+    // Accesses an entry needs before it is refreshed ahead of expiry
+    @Value("${rapidapi.cache.refresh-ahead-min-hits:3}")
+    private int refreshAheadMinHits;
+
+    // How long a background refresh may wait for background-lane quota
+    @Value("${rapidapi.cache.refresh-wait-ms:2000}")
+    private long refreshWaitMs;
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final RapidApiResponseCache responseCache;
+    private final MovieMetadataStore metadataStore;
+    private final BoundedExecutor enrichmentExecutor;
+    private final RecommendationResultCache recommendationCache;
+    private final RapidApiQuotaManager quotaManager;
+    private final UpstreamGuard pythonRecommenderGuard;
+    private final UpstreamGuard rapidApiGuard;
+    private final HotTitleTracker hotTitleTracker;
+    private final NegativeLookupCache negativeLookupCache;
+    private final EmbeddedRecommender embeddedRecommender;
+
+    // Concurrent identical upstream calls share a single in-flight request
+    private final SingleFlight<String, List<PythonRecommendation>> basicRecommendationCalls = new SingleFlight<>();
+    private final SingleFlight<TitleKey, StreamingAvailabilityData> streamingAvailabilityCalls = new SingleFlight<>();
+
+    // Keys with a background refresh queued or running, so each entry is refreshed once at a time
+    private final Set<TitleKey> refreshesInFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder staleServes = new LongAdder();
+    private final LongAdder refreshAheadTriggers = new LongAdder();
+    private final LongAdder refreshSucceeded = new LongAdder();
+    private final LongAdder refreshEmpty = new LongAdder();
+    private final LongAdder refreshFailed = new LongAdder();
+    private final LongAdder refreshSkipped = new LongAdder();
+    private final LongAdder embeddedPrimaryServes = new LongAdder();
+    private final LongAdder embeddedFallbackServes = new LongAdder();
 
     @Autowired
-    public EnhancedRecommendationService(RestTemplate restTemplate) {
+    public EnhancedRecommendationService(RestTemplate restTemplate, RapidApiResponseCache responseCache,
+                                         MovieMetadataStore metadataStore,
+                                         @Qualifier("enrichmentExecutor") BoundedExecutor enrichmentExecutor,
+                                         RecommendationResultCache recommendationCache,
+                                         RapidApiQuotaManager quotaManager,
+                                         @Qualifier("pythonRecommenderGuard") UpstreamGuard pythonRecommenderGuard,
+                                         @Qualifier("rapidApiGuard") UpstreamGuard rapidApiGuard,
+                                         HotTitleTracker hotTitleTracker,
+                                         NegativeLookupCache negativeLookupCache,
+                                         EmbeddedRecommender embeddedRecommender) {
         this.restTemplate = restTemplate;
         this.objectMapper = new ObjectMapper();
+        this.responseCache = responseCache;
+        this.metadataStore = metadataStore;
+        this.enrichmentExecutor = enrichmentExecutor;
+        this.recommendationCache = recommendationCache;
+        this.quotaManager = quotaManager;
+        this.pythonRecommenderGuard = pythonRecommenderGuard;
+        this.rapidApiGuard = rapidApiGuard;
+        this.hotTitleTracker = hotTitleTracker;
+        this.negativeLookupCache = negativeLookupCache;
+        this.embeddedRecommender = embeddedRecommender;
     }
 
     /**
      * Gets movie recommendations and enriches them with streaming availability data
      */
     public EnhancedRecommendationResponse getEnhancedRecommendations(String movieTitle) {
+        return getEnhancedRecommendations(movieTitle, null);
+    }
+
+    /**
+     * Gets enriched recommendations within the given deadline (null for the configured default).
+     * Recommendations whose enrichment has not finished when the deadline expires are returned
+     * without streaming data and flagged as partial.
+     */
+    public EnhancedRecommendationResponse getEnhancedRecommendations(String movieTitle, Duration deadline) {
+        long deadlineNanos = System.nanoTime() + resolveDeadline(deadline).toNanos();
         try {
             // Step 1: Get recommendations from Python microservice
-            List<Map<String, Object>> basicRecommendations = getBasicRecommendations(movieTitle);
+            List<PythonRecommendation> basicRecommendations = getTrackedBasicRecommendations(movieTitle);
 
             // Step 2: Enrich each recommendation with streaming data
-            List<EnhancedMovieRecommendation> enrichedRecommendations = enrichRecommendations(basicRecommendations);
+            List<EnhancedMovieRecommendation> enrichedRecommendations =
+                    enrichRecommendations(basicRecommendations, deadlineNanos);
 
             return new EnhancedRecommendationResponse(enrichedRecommendations);
 
@@ -67,35 +174,247 @@ public class EnhancedRecommendationService {
     }
 
     /**
-     * Gets basic recommendations from the Python microservice
+     * Gets enriched recommendations for several seed titles at once. Basic recommendations
+     * for all seeds are fetched in parallel, and every distinct recommended title is looked up
+     * once no matter how many seeds recommend it. Per-seed failures are reported in the
+     * response instead of failing the whole batch.
+     */
+    public BatchRecommendationResponse getBatchEnhancedRecommendations(List<String> seedTitles, Duration deadline) {
+        if (seedTitles == null || seedTitles.isEmpty()) {
+            throw new IllegalArgumentException("At least one title is required");
+        }
+        if (seedTitles.size() > maxBatchSeeds) {
+            throw new IllegalArgumentException("At most " + maxBatchSeeds + " titles are allowed per batch");
+        }
+        long deadlineNanos = System.nanoTime() + resolveDeadline(deadline).toNanos();
+
+        // Step 1: Fetch basic recommendations for every distinct seed in parallel
+        Map<String, CompletableFuture<List<PythonRecommendation>>> basicBySeed = new LinkedHashMap<>();
+        for (String seed : seedTitles) {
+            basicBySeed.computeIfAbsent(seed, title -> supplyOnEnrichmentExecutor(() -> getTrackedBasicRecommendations(title)));
+        }
+
+        BatchRecommendationResponse response = new BatchRecommendationResponse();
+        Map<String, List<PythonRecommendation>> recommendationsBySeed = new LinkedHashMap<>();
+        basicBySeed.forEach((seed, future) -> {
+            try {
+                recommendationsBySeed.put(seed, future.get(Math.max(0L, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                response.getErrors().put(seed, "Timed out waiting for recommendations");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.getErrors().put(seed, "Interrupted");
+            } catch (ExecutionException e) {
+                response.getErrors().put(seed, e.getCause().getMessage());
+            }
+        });
+
+        // Step 2: Look up each distinct recommended title once
+        long remainingNanos = Math.max(0L, deadlineNanos - System.nanoTime());
+        Map<TitleKey, CompletableFuture<StreamingAvailabilityData>> lookups = new HashMap<>();
+        recommendationsBySeed.values().forEach(recommendations -> recommendations.forEach(basicRec -> {
+            String title = basicRec.title();
+            lookups.computeIfAbsent(TitleKey.of(title, rapidApiCountry), key -> getStreamingAvailabilityAsync(title, deadlineNanos)
+                    .exceptionally(e -> new StreamingAvailabilityData())
+                    // null marks a lookup that did not finish before the deadline
+                    .completeOnTimeout(null, remainingNanos, TimeUnit.NANOSECONDS));
+        }));
+
+        // Step 3: Assemble the per-seed lists from the shared lookups
+        recommendationsBySeed.forEach((seed, recommendations) -> {
+            List<EnhancedMovieRecommendation> enriched = recommendations.stream()
+                    .map(basicRec -> {
+                        StreamingAvailabilityData streamingData =
+                                lookups.get(TitleKey.of(basicRec.title(), rapidApiCountry)).join();
+                        if (streamingData == null) {
+                            EnhancedMovieRecommendation partial = createBasicEnhancedRecommendation(basicRec);
+                            partial.setPartial(true);
+                            return partial;
+                        }
+                        return enrichSingleRecommendation(basicRec, streamingData);
+                    })
+                    .collect(Collectors.toList());
+            response.getResults().put(seed, new EnhancedRecommendationResponse(enriched));
+        });
+        response.setUniqueTitlesEnriched(lookups.size());
+        return response;
+    }
+
+    /**
+     * Streams recommendations as they become available: the basic Python recommendations are
+     * pushed right away, then each enriched recommendation as soon as its lookup completes.
+     * Runs on the enrichment executor; the listener may be called from several threads.
+     */
+    public CompletableFuture<Void> streamEnhancedRecommendations(String movieTitle, Duration deadline,
+                                                                 RecommendationStreamListener listener) {
+        long deadlineNanos = System.nanoTime() + resolveDeadline(deadline).toNanos();
+        try {
+            return CompletableFuture.runAsync(() -> streamEnhancedRecommendationsNow(movieTitle, deadlineNanos, listener),
+                    enrichmentExecutor);
+        } catch (RejectedExecutionException e) {
+            listener.onError(e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void streamEnhancedRecommendationsNow(String movieTitle, long deadlineNanos,
+                                                  RecommendationStreamListener listener) {
+        List<PythonRecommendation> basicRecommendations;
+        try {
+            basicRecommendations = getTrackedBasicRecommendations(movieTitle);
+        } catch (Exception e) {
+            listener.onError(e);
+            return;
+        }
+
+        listener.onBasicRecommendations(basicRecommendations.stream()
+                .map(EnhancedRecommendationService::createBasicEnhancedRecommendation)
+                .collect(Collectors.toList()));
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[basicRecommendations.size()];
+        for (int i = 0; i < basicRecommendations.size(); i++) {
+            int index = i;
+            futures[i] = enrichWithinDeadline(basicRecommendations.get(i), deadlineNanos)
+                    .thenAccept(recommendation -> listener.onEnrichedRecommendation(index, recommendation));
+        }
+        CompletableFuture.allOf(futures).whenComplete((ignored, error) -> {
+            if (error != null) {
+                listener.onError(error);
+            } else {
+                listener.onComplete();
+            }
+        });
+    }
+
+    /**
+     * Gets basic recommendations for a user request and counts the seed and the recommended
+     * titles as demand for the next warm-up
+     */
+    private List<PythonRecommendation> getTrackedBasicRecommendations(String movieTitle) throws Exception {
+        List<PythonRecommendation> recommendations = getBasicRecommendations(movieTitle);
+        hotTitleTracker.recordRequest(movieTitle, recommendations);
+        return recommendations;
+    }
+
+    /**
+     * Pre-fetches basic recommendations into the result cache; used by {@link CacheWarmer}
+     * and not counted as demand
+     */
+    public List<PythonRecommendation> warmBasicRecommendations(String movieTitle) throws Exception {
+        return getBasicRecommendations(movieTitle);
+    }
+
+    /**
+     * Gets basic recommendations from the result cache, or joins an identical call that is
+     * already in flight. With recommendation.engine=embedded, titles in the local catalog are
+     * answered in-process; when the Python service is unavailable, the embedded recommender
+     * answers instead if it knows the title.
+     */
+    private List<PythonRecommendation> getBasicRecommendations(String movieTitle) throws Exception {
+        if ("embedded".equalsIgnoreCase(recommendationEngine)) {
+            Optional<List<PythonRecommendation>> embedded = embeddedRecommender.recommend(movieTitle);
+            if (embedded.isPresent()) {
+                countEmbeddedServe(false);
+                return embedded.get();
+            }
+            // Titles outside the local catalog still go to the Python service
+        }
+
+        RecommendationResultCache.CachedRecommendations cached = recommendationCache.get(movieTitle);
+        if (cached != null) {
+            if (cached.isNotFound()) {
+                throw new RuntimeException("Movie not found: " + cached.getNotFoundError());
+            }
+            return cached.getRecommendations();
+        }
+        try {
+            return basicRecommendationCalls.executeSync(TitleKey.normalize(movieTitle),
+                    () -> fetchBasicRecommendations(movieTitle));
+        } catch (UpstreamUnavailableException | RestClientException e) {
+            if (embeddedFallbackEnabled) {
+                Optional<List<PythonRecommendation>> fallback = embeddedRecommender.recommend(movieTitle);
+                if (fallback.isPresent()) {
+                    // Not cached: the Python answer should replace it as soon as the service is back
+                    countEmbeddedServe(true);
+                    return fallback.get();
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Counts an answer from the embedded recommender, as the primary engine or as the
+     * fallback for an unavailable Python service
+     */
+    void countEmbeddedServe(boolean fallback) {
+        (fallback ? embeddedFallbackServes : embeddedPrimaryServes).increment();
+    }
+
+    /**
+     * In-flight Python calls by normalized title, shared with {@link ReactiveRecommendationService}
+     * so blocking and reactive callers coalesce into one call
+     */
+    SingleFlight<String, List<PythonRecommendation>> basicRecommendationCalls() {
+        return basicRecommendationCalls;
+    }
+
+    /**
+     * In-flight streaming availability lookups, shared like {@link #basicRecommendationCalls()}
+     */
+    SingleFlight<TitleKey, StreamingAvailabilityData> streamingAvailabilityCalls() {
+        return streamingAvailabilityCalls;
+    }
+
+    /**
+     * Gets basic recommendations from the Python microservice, bound directly from the
+     * response stream into typed records. The call goes through the Python recommender's
+     * circuit breaker and bulkhead and fails fast with {@link UpstreamUnavailableException}
+     * while the service is cut off.
      */
-    private List<Map<String, Object>> getBasicRecommendations(String movieTitle) throws Exception {
+    private List<PythonRecommendation> fetchBasicRecommendations(String movieTitle) throws Exception {
         URI uri = UriComponentsBuilder
                 .fromHttpUrl(recommendationServiceUrl + "/recommend")
                 .queryParam("title", movieTitle)
                 .build()
                 .toUri();
 
-        String response = restTemplate.getForObject(uri, String.class);
-        Map<String, Object> responseMap = objectMapper.readValue(response, Map.class);
+        PythonRecommendationResponse response = pythonRecommenderGuard.call(() ->
+                restTemplate.execute(uri, HttpMethod.GET, null, httpResponse -> {
+                    recommendationCache.onModelVersion(httpResponse.getHeaders().getFirst(RecommendationResultCache.MODEL_VERSION_HEADER));
+                    return objectMapper.readValue(httpResponse.getBody(), PythonRecommendationResponse.class);
+                }));
 
-        if (responseMap.containsKey("error")) {
-            throw new RuntimeException("Movie not found: " + responseMap.get("error"));
+        if (response == null) {
+            throw new RuntimeException("Empty response from recommendation service");
+        }
+        if (response.error() != null) {
+            recommendationCache.putNotFound(movieTitle, response.error());
+            throw new RuntimeException("Movie not found: " + response.error());
         }
 
-        @SuppressWarnings("unchecked")
-        List<Map<String, Object>> recommendations = (List<Map<String, Object>>) responseMap.get("recommendations");
+        List<PythonRecommendation> recommendations =
+                response.recommendations() != null ? response.recommendations() : new ArrayList<>();
 
-        return recommendations != null ? recommendations : new ArrayList<>();
+        recommendationCache.putRecommendations(movieTitle, recommendations);
+        return recommendations;
+    }
+
+    /**
+     * Drops all cached Python recommendations, e.g. after the model has been retrained
+     */
+    public void invalidateRecommendationCache(String modelVersion) {
+        recommendationCache.invalidate(modelVersion);
     }
 
     /**
      * Enriches basic recommendations with streaming availability data
      */
-    private List<EnhancedMovieRecommendation> enrichRecommendations(List<Map<String, Object>> basicRecommendations) {
-        // Use parallel processing for better performance
+    private List<EnhancedMovieRecommendation> enrichRecommendations(List<PythonRecommendation> basicRecommendations,
+                                                                    long deadlineNanos) {
+        // Fan out on the dedicated enrichment executor
         List<CompletableFuture<EnhancedMovieRecommendation>> futures = basicRecommendations.stream()
-                .map(this::enrichSingleRecommendationAsync)
+                .map(basicRec -> enrichWithinDeadline(basicRec, deadlineNanos))
                 .collect(Collectors.toList());
 
         // Wait for all futures to complete and collect results
@@ -105,35 +424,53 @@ public class EnhancedRecommendationService {
     }
 
     /**
-     * Asynchronously enriches a single recommendation
+     * Enriches a recommendation, falling back to a partial one if the deadline expires first.
+     * The timeout is attached to this request's own future, never to the shared in-flight lookup.
      */
-    private CompletableFuture<EnhancedMovieRecommendation> enrichSingleRecommendationAsync(Map<String, Object> basicRec) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return enrichSingleRecommendation(basicRec);
-            } catch (Exception e) {
-                // Log error but don't fail the entire request
-                System.err.println("Failed to enrich recommendation for " + basicRec.get("title") + ": " + e.getMessage());
-                return createBasicEnhancedRecommendation(basicRec);
-            }
-        });
+    private CompletableFuture<EnhancedMovieRecommendation> enrichWithinDeadline(PythonRecommendation basicRec,
+                                                                               long deadlineNanos) {
+        long remainingNanos = Math.max(0L, deadlineNanos - System.nanoTime());
+        EnhancedMovieRecommendation partial = createBasicEnhancedRecommendation(basicRec);
+        partial.setPartial(true);
+        return enrichSingleRecommendationAsync(basicRec, deadlineNanos)
+                .completeOnTimeout(partial, remainingNanos, TimeUnit.NANOSECONDS);
     }
 
     /**
-     * Enriches a single recommendation with streaming data
+     * Asynchronously enriches a single recommendation
      */
-    private EnhancedMovieRecommendation enrichSingleRecommendation(Map<String, Object> basicRec) {
-        String title = (String) basicRec.get("title");
+    private CompletableFuture<EnhancedMovieRecommendation> enrichSingleRecommendationAsync(PythonRecommendation basicRec,
+                                                                                          long deadlineNanos) {
+        return getStreamingAvailabilityAsync(basicRec.title(), deadlineNanos)
+                .thenApply(streamingData -> enrichSingleRecommendation(basicRec, streamingData))
+                .exceptionally(e -> {
+                    // Log error but don't fail the entire request
+                    System.err.println("Failed to enrich recommendation for " + basicRec.title() + ": " + e.getMessage());
+                    return createBasicEnhancedRecommendation(basicRec);
+                });
+    }
 
-        // Get streaming availability data from RapidAPI
-        StreamingAvailabilityData streamingData = getStreamingAvailability(title);
+    /**
+     * Gets streaming availability asynchronously. Concurrent lookups of the same
+     * (title, country) share one in-flight future.
+     */
+    private CompletableFuture<StreamingAvailabilityData> getStreamingAvailabilityAsync(String title, long deadlineNanos) {
+        return streamingAvailabilityCalls.execute(TitleKey.of(title, rapidApiCountry),
+                () -> CompletableFuture.supplyAsync(
+                        () -> getStreamingAvailability(title, RequestPriority.INTERACTIVE, deadlineNanos), enrichmentExecutor));
+    }
 
+    /**
+     * Enriches a single recommendation with streaming data
+     */
+    static EnhancedMovieRecommendation enrichSingleRecommendation(PythonRecommendation basicRec,
+                                                          StreamingAvailabilityData streamingData) {
         return new EnhancedMovieRecommendation(
-                title,
-                (String) basicRec.get("overview"),
-                getDoubleValue(basicRec, "popularity"),
-                getDoubleValue(basicRec, "similarity"),
-                getDoubleValue(basicRec, "vote_average"),
+                basicRec.title(),
+                basicRec.overview(),
+                basicRec.popularity(),
+                basicRec.similarity(),
+                basicRec.voteAverage(),
                 streamingData.getPosterUrl(),
                 streamingData.getStreamingPlatforms(),
                 streamingData.getReleaseYear(),
@@ -145,13 +482,13 @@ public class EnhancedRecommendationService {
     /**
      * Creates a basic enhanced recommendation when streaming data is unavailable
      */
-    private EnhancedMovieRecommendation createBasicEnhancedRecommendation(Map<String, Object> basicRec) {
+    static EnhancedMovieRecommendation createBasicEnhancedRecommendation(PythonRecommendation basicRec) {
         return new EnhancedMovieRecommendation(
-                (String) basicRec.get("title"),
-                (String) basicRec.get("overview"),
-                getDoubleValue(basicRec, "popularity"),
-                getDoubleValue(basicRec, "similarity"),
-                getDoubleValue(basicRec, "vote_average"),
+                basicRec.title(),
+                basicRec.overview(),
+                basicRec.popularity(),
+                basicRec.similarity(),
+                basicRec.voteAverage(),
                 null, // No poster URL
                 new ArrayList<>(), // No streaming platforms
                 null, // No release year
@@ -161,206 +498,355 @@ public class EnhancedRecommendationService {
     }
 
     /**
-     * Gets streaming availability data from RapidAPI
+     * Gets streaming availability data for an interactive request
      */
     public StreamingAvailabilityData getStreamingAvailability(String title) {
+        return getStreamingAvailability(title, RequestPriority.INTERACTIVE,
+                System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(defaultDeadlineMs));
+    }
 
-        try {
-            if (rapidApiKey == null || rapidApiKey.isEmpty()) {
-                return new StreamingAvailabilityData(); // Return empty data if no API key
-            }
-
-            // Search for the movie first
-            String searchUrl = rapidApiStreamingUrl + "/shows/search/title";
-            URI searchUri = UriComponentsBuilder.fromUriString(searchUrl)
-                    .queryParam("title", title)
-                    .queryParam("country", "us")
-                    .queryParam("show_type", "movie")
-                    .build()
-                    .toUri();
+    /**
+     * Gets streaming availability data. Lookups go through the in-memory cache, then the
+     * negative cache, then the persistent movie_metadata store, and only then to RapidAPI.
+     * RapidAPI calls go through the quota manager and RapidAPI's circuit breaker and bulkhead:
+     * when no quota is available before the deadline or RapidAPI is cut off, empty (degraded)
+     * data is returned and nothing is cached.
+     * <p>
+     * Expired entries within the cache's grace period are served immediately and refreshed
+     * in the background; popular entries are refreshed before they expire. Titles that
+     * recently had no match or failed are answered with empty data from
+     * {@link NegativeLookupCache} without calling RapidAPI.
+     */
+    public StreamingAvailabilityData getStreamingAvailability(String title, RequestPriority priority, long deadlineNanos) {
+        TitleKey key = TitleKey.of(title, rapidApiCountry);
+        StreamingAvailabilityData cached = getCachedStreamingAvailability(title, key);
+        if (cached != null) {
+            return cached;
+        }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("X-RapidAPI-Key", rapidApiKey);
-            headers.set("X-RapidAPI-Host", "streaming-availability.p.rapidapi.com");
+        // Checked before the store so a remembered miss costs no database round trip
+        if (negativeLookupCache.get(key) != null) {
+            return new StreamingAvailabilityData();
+        }
 
-            HttpEntity<String> entity = new HttpEntity<>(headers);
-            ResponseEntity<String> response = restTemplate.exchange(searchUri, HttpMethod.GET, entity, String.class);
+        // A cold node can still serve enriched data from the store without an API key or quota
+        StreamingAvailabilityData stored = findStoredStreamingAvailability(key);
+        if (stored != null) {
+            return stored;
+        }
 
-            return parseStreamingResponse(response.getBody());
+        if (rapidApiKey == null || rapidApiKey.isEmpty()) {
+            return new StreamingAvailabilityData(); // Return empty data if no API key
+        }
 
-        } catch (RestClientException e) {
-            System.err.println("RapidAPI request failed for title: " + title + " - " + e.getMessage());
+        // Don't spend quota on a call the open breaker would reject anyway
+        if (!rapidApiGuard.isCallPermitted() || !quotaManager.tryAcquire(priority, deadlineNanos)) {
             return new StreamingAvailabilityData();
-        } catch (Exception e) {
-            System.err.println("Error processing streaming data for title: " + title + " - " + e.getMessage());
+        }
+
+        try {
+            StreamingAvailabilityData data = fetchAndRecordStreamingAvailability(title, key);
+            return data != null ? data : new StreamingAvailabilityData();
+        } catch (UpstreamUnavailableException e) {
+            // Refused before it was sent, so it did not use the quota
+            quotaManager.refund(priority);
             return new StreamingAvailabilityData();
         }
     }
 
     /**
-     * Parses the RapidAPI response to extract streaming availability data
+     * Serves a key from the in-memory cache; null on a miss. Stale entries are served and
+     * refreshed in the background, popular ones are refreshed ahead of expiry.
      */
-    private StreamingAvailabilityData parseStreamingResponse(String responseBody) {
-        try {
-            //  Step 1: Unwrap if double-encoded JSON string
-            while (responseBody.startsWith("\"") && responseBody.endsWith("\"")) {
-                responseBody = objectMapper.readValue(responseBody, String.class); // unescape once
-            }
-
-            //  Step 2: Parse as JSON — expected to be an array at root
-            JsonNode rootNode = objectMapper.readTree(responseBody);
-            //System.out.println("DEBUG - rootNode: " + rootNode.toPrettyString());
-
-            //  Step 3: Check if root is array and has results
-            if (rootNode.isArray() && rootNode.size() > 0) {
-                JsonNode firstResult = rootNode.get(0);
-                //System.out.println("DEBUG - firstResult JSON: " + firstResult.toPrettyString());
+    StreamingAvailabilityData getCachedStreamingAvailability(String title, TitleKey key) {
+        CachedValue<StreamingAvailabilityData> cached = responseCache.streamingAvailability().lookup(key);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.stale()) {
+            staleServes.increment();
+            refreshInBackground(title, key);
+        } else if (cached.frequency() >= refreshAheadMinHits && cached.lifetimeFraction() >= refreshAheadFraction
+                && refreshInBackground(title, key)) {
+            refreshAheadTriggers.increment();
+        }
+        return cached.value();
+    }
 
-                String posterUrl = extractPosterUrl(firstResult);
-                List<String> streamingPlatforms = extractStreamingPlatforms(firstResult);
-                Integer releaseYear = extractReleaseYear(firstResult);
-                String imdbId = extractImdbId(firstResult);
-                List<String> genres = extractGenres(firstResult);
+    /**
+     * Reads a key from the movie_metadata store into the in-memory cache; null if it is not
+     * stored. This is a JDBC call.
+     */
+    StreamingAvailabilityData findStoredStreamingAvailability(TitleKey key) {
+        StreamingAvailabilityData stored = metadataStore.find(key).orElse(null);
+        if (stored != null) {
+            responseCache.streamingAvailability().put(key, stored);
+        }
+        return stored;
+    }
 
-//                System.out.println("DEBUG - Parsed streamingPlatforms: " + streamingPlatforms);
-//                System.out.println("DEBUG - Parsed posterUrl: " + posterUrl);
-//                System.out.println("DEBUG - Parsed releaseYear: " + releaseYear);
-//                System.out.println("DEBUG - Parsed imdbId: " + imdbId);
-//                System.out.println("DEBUG - Parsed genres: " + genres);
+    /**
+     * Calls RapidAPI and records the outcome for foreground lookups and background refreshes
+     * alike: data goes to the cache and the store, "no match" and failures to the negative
+     * cache, and a 429 to the quota manager.
+     *
+     * @return the fetched data, empty if RapidAPI has no match, or null if the call failed
+     * @throws UpstreamUnavailableException if the circuit breaker or bulkhead refused the call
+     */
+    private StreamingAvailabilityData fetchAndRecordStreamingAvailability(String title, TitleKey key) {
+        try {
+            return recordStreamingAvailability(key, rapidApiGuard.call(() -> fetchStreamingAvailability(title)));
 
-                return new StreamingAvailabilityData(posterUrl, streamingPlatforms, releaseYear, imdbId, genres);
-            } else {
-                System.out.println("DEBUG - No results found in streaming availability response");
-            }
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            recordStreamingAvailabilityFailure(title, key, e, true);
+        } catch (UpstreamUnavailableException e) {
+            throw e;
+        } catch (RestClientException e) {
+            recordStreamingAvailabilityFailure(title, key, e, false);
         } catch (Exception e) {
-            System.err.println(" Error parsing streaming response: " + e.getMessage());
-        }
-
-        // 🟡 Return empty fallback object
-        return new StreamingAvailabilityData();
-    }
-
-
-
-//    private StreamingAvailabilityData parseStreamingResponse(String responseBody) {
-//        //System.out.println("RapidAPI raw response: " + responseBody);
-//        try {
-//            JsonNode rootNode = objectMapper.readTree(responseBody);
-//            JsonNode resultsNode = rootNode.path("results");
-//
-//            if (resultsNode.isArray() && resultsNode.size() > 0) {
-//                JsonNode firstResult = resultsNode.get(0);
-//
-//                String posterUrl = extractPosterUrl(firstResult);
-//                List<String> streamingPlatforms = extractStreamingPlatforms(firstResult);
-//                Integer releaseYear = extractReleaseYear(firstResult);
-//                String imdbId = extractImdbId(firstResult);
-//                List<String> genres = extractGenres(firstResult);
-//
-//                return new StreamingAvailabilityData(posterUrl, streamingPlatforms, releaseYear, imdbId, genres);
-//            }
-//
-//            return new StreamingAvailabilityData();
-//        } catch (Exception e) {
-//            System.err.println("Error parsing streaming response: " + e.getMessage());
-//            return new StreamingAvailabilityData();
-//        }
-//    }
-
-    private String extractPosterUrl(JsonNode movieNode) {
-        JsonNode verticalPosterNode = movieNode.path("imageSet").path("verticalPoster");
-        if (verticalPosterNode.has("w480")) {
-            return verticalPosterNode.path("w480").asText(null);
-        } else if (verticalPosterNode.has("w300")) {
-            return verticalPosterNode.path("w300").asText(null);
+            negativeLookupCache.recordUpstreamError(key);
+            System.err.println("Error processing streaming data for title: " + title + " - " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Records a RapidAPI answer: data goes to the cache and the store, empty data to the
+     * negative cache. Malformed bodies throw in the parser, so empty data means RapidAPI
+     * has no match.
+     */
+    StreamingAvailabilityData recordStreamingAvailability(TitleKey key, StreamingAvailabilityData data) {
+        if (hasData(data)) {
+            responseCache.streamingAvailability().put(key, data);
+            metadataStore.saveAsync(key, data);
         } else {
-            return "https://example.com/default-poster.jpg"; //placeholder
+            negativeLookupCache.recordNotFound(key);
         }
+        return data;
     }
 
-    private List<String> extractStreamingPlatforms(JsonNode movieNode) {
-        List<String> platforms = new ArrayList<>();
-        JsonNode streamingOptions = movieNode.path("streamingOptions").path("us");
+    /**
+     * Records a failed RapidAPI call in the negative cache; a 429 also slows the quota down
+     */
+    void recordStreamingAvailabilityFailure(String title, TitleKey key, Throwable error, boolean throttled) {
+        negativeLookupCache.recordUpstreamError(key);
+        if (throttled) {
+            quotaManager.onThrottled();
+            System.err.println("RapidAPI throttled request for title: " + title);
+        } else {
+            System.err.println("RapidAPI request failed for title: " + title + " - " + error.getMessage());
+        }
+    }
 
-        if (streamingOptions.isArray()) {
-            for (JsonNode option : streamingOptions) {
-                String serviceName = option.path("service").path("name").asText();
-                if (!serviceName.isEmpty() && !platforms.contains(serviceName)) {
-                    platforms.add(serviceName);
+    /**
+     * Queues a refresh of a cached entry on the enrichment executor, using background-lane
+     * quota. A failed or empty refresh leaves the old value in place until its grace period
+     * ends, and is remembered in the negative cache like a foreground miss, so the title is
+     * not refreshed again on every stale hit until that entry expires.
+     *
+     * @return false if a refresh for the key is already pending, recently came back empty or
+     * failed, or could not be queued
+     */
+    private boolean refreshInBackground(String title, TitleKey key) {
+        if (rapidApiKey == null || rapidApiKey.isEmpty()) {
+            return false;
+        }
+        if (negativeLookupCache.get(key) != null) {
+            refreshSkipped.increment();
+            return false;
+        }
+        if (!refreshesInFlight.add(key)) {
+            return false;
+        }
+        try {
+            enrichmentExecutor.execute(() -> {
+                try {
+                    refreshStreamingAvailability(title, key);
+                } finally {
+                    refreshesInFlight.remove(key);
                 }
-            }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            refreshesInFlight.remove(key);
+            refreshSkipped.increment();
+            return false;
         }
-
-        return platforms;
     }
 
-    private Integer extractReleaseYear(JsonNode movieNode) {
-        JsonNode yearNode = movieNode.path("releaseYear");
-        if (yearNode.isInt()) {
-            return yearNode.asInt();
+    private void refreshStreamingAvailability(String title, TitleKey key) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(refreshWaitMs);
+        if (!rapidApiGuard.isCallPermitted() || !quotaManager.tryAcquire(RequestPriority.BACKGROUND, deadlineNanos)) {
+            refreshSkipped.increment();
+            return;
         }
-        // fallback if only full releaseDate is available
-        JsonNode dateNode = movieNode.path("releaseDate");
-        if (dateNode.isTextual()) {
-            try {
-                return Integer.parseInt(dateNode.asText().substring(0, 4));
-            } catch (Exception ignored) {}
+        try {
+            StreamingAvailabilityData data = fetchAndRecordStreamingAvailability(title, key);
+            if (data == null) {
+                refreshFailed.increment();
+            } else if (hasData(data)) {
+                refreshSucceeded.increment();
+            } else {
+                refreshEmpty.increment();
+            }
+        } catch (UpstreamUnavailableException e) {
+            quotaManager.refund(RequestPriority.BACKGROUND);
+            refreshSkipped.increment();
         }
-        return null;
     }
 
-    private String extractImdbId(JsonNode movieNode) {
-        String imdbId = movieNode.path("imdbId").asText();
-        return imdbId.isEmpty() ? null : imdbId;
+    /**
+     * Gets streaming availability data from RapidAPI. The body is parsed incrementally from
+     * the response stream, see {@link StreamingAvailabilityParser}.
+     */
+    private StreamingAvailabilityData fetchStreamingAvailability(String title) {
+        // Search for the movie first
+        String searchUrl = rapidApiStreamingUrl + "/shows/search/title";
+        URI searchUri = UriComponentsBuilder.fromUriString(searchUrl)
+                .queryParam("title", title)
+                .queryParam("country", rapidApiCountry)
+                .queryParam("show_type", "movie")
+                .build()
+                .toUri();
+
+        return restTemplate.execute(searchUri, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set("X-RapidAPI-Key", rapidApiKey);
+                    request.getHeaders().set("X-RapidAPI-Host", "streaming-availability.p.rapidapi.com");
+                },
+                response -> new StreamingAvailabilityParser(objectMapper.getFactory(), rapidApiCountry)
+                        .parse(response.getBody()));
     }
 
-    private List<String> extractGenres(JsonNode movieNode) {
-        List<String> genres = new ArrayList<>();
-        JsonNode genresNode = movieNode.path("genres");
+    static boolean hasData(StreamingAvailabilityData data) {
+        return data.getPosterUrl() != null || data.getImdbId() != null || !data.getStreamingPlatforms().isEmpty();
+    }
 
-        if (genresNode.isArray()) {
-            for (JsonNode genre : genresNode) {
-                String genreName = genre.path("name").asText();
-                if (!genreName.isEmpty()) {
-                    genres.add(genreName);
-                }
-            }
-        }
+    /**
+     * Returns cache and upstream counters for monitoring
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("rapidApiCache", responseCache.getStats());
+        metrics.put("movieMetadataStore", metadataStore.getStats());
+        metrics.put("recommendationCache", recommendationCache.getStats());
+        metrics.put("coalescedCalls", Map.of(
+                "basicRecommendations", basicRecommendationCalls.getCoalescedCount(),
+                "streamingAvailability", streamingAvailabilityCalls.getCoalescedCount()));
+        metrics.put("enrichmentExecutor", enrichmentExecutor.getStats());
+        metrics.put("rapidApiQuota", quotaManager.getStats());
+        metrics.put("upstreams", getUpstreamStats());
+        Map<String, Object> refresh = new LinkedHashMap<>();
+        refresh.put("staleServes", staleServes.sum());
+        refresh.put("refreshAheadTriggers", refreshAheadTriggers.sum());
+        refresh.put("succeeded", refreshSucceeded.sum());
+        refresh.put("empty", refreshEmpty.sum());
+        refresh.put("failed", refreshFailed.sum());
+        refresh.put("skipped", refreshSkipped.sum());
+        refresh.put("inFlight", refreshesInFlight.size());
+        metrics.put("streamingAvailabilityRefresh", refresh);
+        metrics.put("negativeLookupCache", negativeLookupCache.getStats());
+        Map<String, Object> embedded = new LinkedHashMap<>(embeddedRecommender.getStats());
+        embedded.put("engine", recommendationEngine);
+        embedded.put("primaryServes", embeddedPrimaryServes.sum());
+        embedded.put("fallbackServes", embeddedFallbackServes.sum());
+        metrics.put("embeddedRecommender", embedded);
+        return metrics;
+    }
 
-        return genres;
+    /**
+     * Reloads the embedded recommender's catalog; returns false when the snapshot is unchanged
+     */
+    public boolean reloadEmbeddedCatalog() throws IOException {
+        return embeddedRecommender.reload();
     }
 
     /**
-     * Helper method to safely extract double values from Map
+     * Returns circuit breaker and bulkhead state per upstream service
      */
-    private Double getDoubleValue(Map<String, Object> map, String key) {
-        Object value = map.get(key);
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
-        }
-        return null;
+    public Map<String, Object> getUpstreamStats() {
+        Map<String, Object> upstreams = new LinkedHashMap<>();
+        upstreams.put("pythonRecommender", pythonRecommenderGuard.getStats());
+        upstreams.put("rapidApi", rapidApiGuard.getStats());
+        return upstreams;
     }
 
     /**
-     * Helper method to safely get CompletableFuture result
+     * Helper method to safely get CompletableFuture result. Futures are bounded by
+     * {@link #enrichWithinDeadline}, so this never waits past the request deadline.
      */
     private EnhancedMovieRecommendation getFutureResult(CompletableFuture<EnhancedMovieRecommendation> future) {
         try {
             return future.get();
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for enrichment", e);
+        } catch (ExecutionException e) {
             throw new RuntimeException("Error getting future result", e);
         }
     }
 
+    private <T> CompletableFuture<T> supplyOnEnrichmentExecutor(Callable<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, enrichmentExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Duration resolveDeadline(Duration requested) {
+        long deadlineMs = requested != null ? requested.toMillis() : defaultDeadlineMs;
+        return Duration.ofMillis(Math.max(0L, Math.min(deadlineMs, maxDeadlineMs)));
+    }
+
+    public static class BatchRecommendationResponse {
+        // Keyed by seed title, in request order
+        private Map<String, EnhancedRecommendationResponse> results = new LinkedHashMap<>();
+        private Map<String, String> errors = new LinkedHashMap<>();
+        private int uniqueTitlesEnriched;
+
+        public Map<String, EnhancedRecommendationResponse> getResults() { return results; }
+        public void setResults(Map<String, EnhancedRecommendationResponse> results) { this.results = results; }
+
+        public Map<String, String> getErrors() { return errors; }
+        public void setErrors(Map<String, String> errors) { this.errors = errors; }
+
+        public int getUniqueTitlesEnriched() { return uniqueTitlesEnriched; }
+        public void setUniqueTitlesEnriched(int uniqueTitlesEnriched) { this.uniqueTitlesEnriched = uniqueTitlesEnriched; }
+    }
+
+    /**
+     * Receives the events of {@link #streamEnhancedRecommendations(String, Duration, RecommendationStreamListener)}
+     */
+    public interface RecommendationStreamListener {
+        void onBasicRecommendations(List<EnhancedMovieRecommendation> recommendations);
+
+        void onEnrichedRecommendation(int index, EnhancedMovieRecommendation recommendation);
+
+        void onComplete();
+
+        void onError(Throwable error);
+    }
+
     // Data classes for structured responses
     public static class EnhancedRecommendationResponse {
         private List<EnhancedMovieRecommendation> recommendations;
+        // Number of recommendations returned without streaming data because the deadline expired
+        private int partialCount;
 
         public EnhancedRecommendationResponse() {}
 
         public EnhancedRecommendationResponse(List<EnhancedMovieRecommendation> recommendations) {
             this.recommendations = recommendations;
+            this.partialCount = (int) recommendations.stream().filter(EnhancedMovieRecommendation::isPartial).count();
         }
 
         public List<EnhancedMovieRecommendation> getRecommendations() {
@@ -370,6 +856,18 @@ public class EnhancedRecommendationService {
         public void setRecommendations(List<EnhancedMovieRecommendation> recommendations) {
             this.recommendations = recommendations;
         }
+
+        public int getPartialCount() {
+            return partialCount;
+        }
+
+        public void setPartialCount(int partialCount) {
+            this.partialCount = partialCount;
+        }
+
+        public boolean isPartial() {
+            return partialCount > 0;
+        }
     }
 
     public static class EnhancedMovieRecommendation {
@@ -383,6 +881,8 @@ public class EnhancedRecommendationService {
         private Integer releaseYear;
         private String imdbId;
         private List<String> genres;
+        // True when enrichment did not finish before the request deadline
+        private boolean partial;
 
         public EnhancedMovieRecommendation() {}
 
@@ -431,6 +931,9 @@ public class EnhancedRecommendationService {
 
         public List<String> getGenres() { return genres; }
         public void setGenres(List<String> genres) { this.genres = genres; }
+
+        public boolean isPartial() { return partial; }
+        public void setPartial(boolean partial) { this.partial = partial; }
     }
 
     public static class StreamingAvailabilityData {
@@ -441,24 +944,29 @@ public class EnhancedRecommendationService {
         private List<String> genres;
 
         public StreamingAvailabilityData() {
-            this.streamingPlatforms = new ArrayList<>();
-            this.genres = new ArrayList<>();
+            this.streamingPlatforms = List.of();
+            this.genres = List.of();
         }
 
         public StreamingAvailabilityData(String posterUrl, List<String> streamingPlatforms,
                                          Integer releaseYear, String imdbId, List<String> genres) {
             this.posterUrl = posterUrl;
-            this.streamingPlatforms = streamingPlatforms != null ? streamingPlatforms : new ArrayList<>();
+            this.streamingPlatforms = readOnlyCopy(streamingPlatforms);
             this.releaseYear = releaseYear;
             this.imdbId = imdbId;
-            this.genres = genres != null ? genres : new ArrayList<>();
+            this.genres = readOnlyCopy(genres);
+        }
+
+        // Instances are shared through the response cache and end up in many responses
+        private static List<String> readOnlyCopy(List<String> values) {
+            return values != null ? Collections.unmodifiableList(new ArrayList<>(values)) : List.of();
         }
 
         public String getPosterUrl() { return posterUrl; }
         public void setPosterUrl(String posterUrl) { this.posterUrl = posterUrl; }
 
         public List<String> getStreamingPlatforms() { return streamingPlatforms; }
-        public void setStreamingPlatforms(List<String> streamingPlatforms) { this.streamingPlatforms = streamingPlatforms; }
+        public void setStreamingPlatforms(List<String> streamingPlatforms) { this.streamingPlatforms = readOnlyCopy(streamingPlatforms); }
 
         public Integer getReleaseYear() { return releaseYear; }
         public void setReleaseYear(Integer releaseYear) { this.releaseYear = releaseYear; }
@@ -467,6 +975,6 @@ public class EnhancedRecommendationService {
         public void setImdbId(String imdbId) { this.imdbId = imdbId; }
 
         public List<String> getGenres() { return genres; }
-        public void setGenres(List<String> genres) { this.genres = genres; }
+        public void setGenres(List<String> genres) { this.genres = readOnlyCopy(genres); }
     }
 }
\ No newline at end of file
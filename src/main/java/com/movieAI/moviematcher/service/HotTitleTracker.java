@@ -0,0 +1,235 @@
+package com.movieAI.moviematcher.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieAI.moviematcher.cache.TitleKey;
+import com.movieAI.moviematcher.dto.PythonRecommendation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often titles are requested as seeds and returned as recommendations, and
+ * periodically persists the most requested ones so a freshly started node knows what to
+ * warm up (see {@link CacheWarmer}).
+ * <p>
+ * A seed is only counted once it produced recommendations, so misspelled and unknown titles
+ * never reach the list. Each list holds at most maxTracked titles; a new title takes the
+ * place of the least requested one.
+ * <p>
+ * Counts loaded from the file are halved, so titles that stop being requested fade out
+ * over a few restarts instead of staying hot forever.
+ * <p>
+ * Configuration:
+ * - warmup.hot-titles.path: file the hot-title list is written to (default data/hot-titles.json)
+ * - warmup.hot-titles.max-tracked: titles tracked per list (default 1000)
+ * - warmup.hot-titles.persist-interval-ms: how often the list is written (default 300000)
+ */
+@Component
+public class HotTitleTracker {
+
+    private final Path path;
+    private final int maxTracked;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Keyed by normalized title; the entry keeps the title as first requested
+    private final ConcurrentHashMap<String, HotTitle> seeds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, HotTitle> recommended = new ConcurrentHashMap<>();
+
+    public HotTitleTracker(@Value("${warmup.hot-titles.path:data/hot-titles.json}") String path,
+                           @Value("${warmup.hot-titles.max-tracked:1000}") int maxTracked) {
+        this.path = Paths.get(path);
+        this.maxTracked = maxTracked;
+    }
+
+    /**
+     * Counts a user request: the seed and the titles recommended for it. Requests that
+     * produced no recommendations are not counted.
+     */
+    public void recordRequest(String seed, List<PythonRecommendation> recommendations) {
+        if (recommendations == null || recommendations.isEmpty()) {
+            return;
+        }
+        record(seeds, seed, 1L);
+        recommendations.forEach(recommendation -> record(recommended, recommendation.title(), 1L));
+    }
+
+    private void record(ConcurrentHashMap<String, HotTitle> counts, String title, long count) {
+        if (title == null || title.isBlank()) {
+            return;
+        }
+        String key = TitleKey.normalize(title);
+        HotTitle hotTitle = counts.get(key);
+        if (hotTitle == null) {
+            if (counts.size() >= maxTracked) {
+                evictLeastRequested(counts);
+            }
+            hotTitle = counts.computeIfAbsent(key, k -> new HotTitle(title.trim()));
+        }
+        hotTitle.count.add(count);
+    }
+
+    /**
+     * Makes room for a new title. Scans the list, but only runs for titles not tracked yet.
+     */
+    private static void evictLeastRequested(ConcurrentHashMap<String, HotTitle> counts) {
+        counts.entrySet().stream()
+                .min(Comparator.comparingLong(entry -> entry.getValue().getCount()))
+                .ifPresent(entry -> counts.remove(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Most requested seed titles, most requested first
+     */
+    public List<String> topSeeds(int limit) {
+        return top(seeds, limit);
+    }
+
+    /**
+     * Most frequently recommended titles, most frequent first
+     */
+    public List<String> topRecommended(int limit) {
+        return top(recommended, limit);
+    }
+
+    private static List<String> top(Map<String, HotTitle> counts, int limit) {
+        return counts.values().stream()
+                .sorted(Comparator.comparingLong(HotTitle::getCount).reversed())
+                .limit(limit)
+                .map(HotTitle::getTitle)
+                .toList();
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            HotTitleSnapshot snapshot = objectMapper.readValue(path.toFile(), HotTitleSnapshot.class);
+            snapshot.getSeeds().forEach(entry -> record(seeds, entry.getTitle(), Math.max(1L, entry.getCount() / 2)));
+            snapshot.getRecommended().forEach(entry -> record(recommended, entry.getTitle(), Math.max(1L, entry.getCount() / 2)));
+            System.out.println("Loaded " + seeds.size() + " hot seed titles and " + recommended.size()
+                    + " hot recommended titles from " + path);
+        } catch (IOException e) {
+            System.err.println("Could not read hot-title list " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the most requested titles to disk. The file is replaced atomically so a crash
+     * mid-write never leaves a truncated list behind.
+     */
+    @Scheduled(fixedDelayString = "${warmup.hot-titles.persist-interval-ms:300000}",
+            initialDelayString = "${warmup.hot-titles.persist-interval-ms:300000}")
+    @PreDestroy
+    public void persist() {
+        HotTitleSnapshot snapshot = new HotTitleSnapshot();
+        snapshot.setSeeds(snapshotOf(seeds));
+        snapshot.setRecommended(snapshotOf(recommended));
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "hot-titles", ".tmp");
+            objectMapper.writeValue(temp.toFile(), snapshot);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write hot-title list " + path + ": " + e.getMessage());
+        }
+        prune(seeds);
+        prune(recommended);
+    }
+
+    private List<HotTitleEntry> snapshotOf(Map<String, HotTitle> counts) {
+        List<HotTitleEntry> entries = new ArrayList<>();
+        counts.values().stream()
+                .sorted(Comparator.comparingLong(HotTitle::getCount).reversed())
+                .limit(maxTracked)
+                .forEach(hotTitle -> entries.add(new HotTitleEntry(hotTitle.getTitle(), hotTitle.getCount())));
+        return entries;
+    }
+
+    /**
+     * Drops the least requested titles beyond maxTracked, which concurrent inserts of new
+     * titles can briefly overshoot
+     */
+    private void prune(ConcurrentHashMap<String, HotTitle> counts) {
+        int excess = counts.size() - maxTracked;
+        if (excess <= 0) {
+            return;
+        }
+        counts.entrySet().stream()
+                .sorted(Comparator.comparingLong(entry -> entry.getValue().getCount()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(counts::remove);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("trackedSeeds", seeds.size());
+        stats.put("trackedRecommended", recommended.size());
+        stats.put("path", path.toString());
+        return stats;
+    }
+
+    private static final class HotTitle {
+        private final String title;
+        private final LongAdder count = new LongAdder();
+
+        private HotTitle(String title) {
+            this.title = title;
+        }
+
+        private String getTitle() { return title; }
+
+        private long getCount() { return count.sum(); }
+    }
+
+    /**
+     * On-disk format of the hot-title list
+     */
+    public static class HotTitleSnapshot {
+        private List<HotTitleEntry> seeds = new ArrayList<>();
+        private List<HotTitleEntry> recommended = new ArrayList<>();
+
+        public List<HotTitleEntry> getSeeds() { return seeds; }
+        public void setSeeds(List<HotTitleEntry> seeds) { this.seeds = seeds; }
+
+        public List<HotTitleEntry> getRecommended() { return recommended; }
+        public void setRecommended(List<HotTitleEntry> recommended) { this.recommended = recommended; }
+    }
+
+    public static class HotTitleEntry {
+        private String title;
+        private long count;
+
+        public HotTitleEntry() {}
+
+        public HotTitleEntry(String title, long count) {
+            this.title = title;
+            this.count = count;
+        }
+
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+}
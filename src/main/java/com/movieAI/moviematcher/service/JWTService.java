@@ -1,7 +1,10 @@
 package com.movieAI.moviematcher.service;
 
 
+import com.movieAI.moviematcher.cache.BoundedTtlCache;
+import com.movieAI.moviematcher.cache.CacheStats;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -10,74 +13,133 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
-
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Issues and verifies the HMAC-signed JWTs used for API authentication.
+ * <p>
+ * The signing key and the parser are built once. {@link #verify} checks a token's signature
+ * and expiry in a single parse and returns an immutable {@link VerifiedToken}. Recently
+ * verified tokens are remembered until their exp (capped by the cache TTL), so a client
+ * sending the same token on every request skips the HMAC check and JSON parse. Tokens that
+ * fail verification are never cached.
+ * <p>
+ * Configuration:
+ * - jwt.secret: Base64-encoded HMAC key
+ * - jwt.verified-cache.max-entries: verified tokens to remember, 0 to disable (default 10000)
+ * - jwt.verified-cache.ttl-seconds: longest time a token is remembered (default 300)
+ */
 @Service
 public class JWTService {
 
-    private final String secretKey;
-
-    public JWTService(@Value("${jwt.secret}") String secretKey) {
-        this.secretKey = secretKey;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final BoundedTtlCache<String, VerifiedToken> verifiedTokens;
+    private final Duration verifiedCacheTtl;
+
+    private final LongAdder verifications = new LongAdder();
+
+    public JWTService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.verified-cache.max-entries:10000}") int verifiedCacheMaxEntries,
+                      @Value("${jwt.verified-cache.ttl-seconds:300}") long verifiedCacheTtlSeconds) {
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verifiedCacheTtl = Duration.ofSeconds(verifiedCacheTtlSeconds);
+        this.verifiedTokens = verifiedCacheMaxEntries > 0
+                ? new BoundedTtlCache<>(verifiedCacheMaxEntries, verifiedCacheTtl)
+                : null;
     }
 
     public String generateToken(String username, String email) {
         //debugging
         //System.out.println("Generating token for username: " + username + ", email: " + email);
 
-        String token = Jwts.builder()
+        return Jwts.builder()
                 .subject(username)
                 .claim("email", email)  // Add individual claim instead of using claims() map
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
-
-        // Debug: Parse the token just created to verify it contains the email
-        Claims claims = extractAllClaims(token);
-        //System.out.println("Token claims after generation: " + claims);
-        //System.out.println("Email from token: " + claims.get("email"));
-
-        return token;
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Verifies signature and expiry once and returns the token's claims. Throws
+     * {@link io.jsonwebtoken.JwtException} if the token is malformed, forged or expired.
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens != null) {
+            VerifiedToken cached = verifiedTokens.get(token);
+            if (cached != null) {
+                if (!cached.isExpired()) {
+                    return cached;
+                }
+                verifiedTokens.invalidate(token);
+            }
+        }
+
+        verifications.increment();
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("email", String.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().toInstant() : null,
+                claims.getExpiration() != null ? claims.getExpiration().toInstant() : null);
+
+        if (verifiedTokens != null && verified.expiresAt() != null) {
+            Duration untilExpiry = Duration.between(Instant.now(), verified.expiresAt());
+            Duration ttl = untilExpiry.compareTo(verifiedCacheTtl) < 0 ? untilExpiry : verifiedCacheTtl;
+            if (!ttl.isNegative() && !ttl.isZero()) {
+                verifiedTokens.put(token, verified, ttl);
+            }
+        }
+        return verified;
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public String extractEmail(String token) {
-        return extractClaim(token, claims -> claims.get("email", String.class));
+        return verify(token).email();
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public boolean validateToken(String token, UserDetails userDetails) {
+        return isValidFor(verify(token), userDetails);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * True if an already verified token belongs to the user and has not expired since
+     */
+    public boolean isValidFor(VerifiedToken token, UserDetails userDetails) {
+        return token.username() != null && token.username().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("signatureVerifications", verifications.sum());
+        if (verifiedTokens != null) {
+            CacheStats cacheStats = verifiedTokens.stats();
+            stats.put("verifiedCacheHits", cacheStats.getHits());
+            stats.put("verifiedCacheMisses", cacheStats.getMisses());
+            stats.put("verifiedCacheSize", cacheStats.getSize());
+            stats.put("verifiedCacheHitRate", cacheStats.getHitRate());
+        }
+        return stats;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
+    /**
+     * Claims of a token whose signature has been checked
+     */
+    public record VerifiedToken(String username, String email, Instant issuedAt, Instant expiresAt) {
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+        public boolean isExpired() {
+            return expiresAt != null && !Instant.now().isBefore(expiresAt);
+        }
     }
 }
@@ -0,0 +1,211 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.cache.BoundedTtlCache;
+import com.movieAI.moviematcher.cache.CachedValue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits failed logins per (username, client IP), per username and per client IP.
+ * <p>
+ * The strict limit is on the (username, IP) pair, so someone guessing one account's
+ * password from one address is stopped quickly without locking the owner out from their
+ * own address. A looser per-username limit still caps guessing spread over many
+ * addresses, and the per-IP limit caps stuffing many accounts from one address.
+ * <p>
+ * {@link #reserve} counts an attempt as a failure before the password is checked; the
+ * counters are atomic, so a burst of concurrent attempts cannot get more tries than the
+ * limit. Once a limit is used up, attempts are refused before any password is hashed, so
+ * they cost no BCrypt time. {@link #recordSuccess} gives the reservation back and clears
+ * the pair's count; {@link #release} gives it back when the password was never checked.
+ * Counts are kept in fixed windows that start with the first attempt.
+ * <p>
+ * Configuration:
+ * - auth.login-throttle.enabled: default true
+ * - auth.login-throttle.max-failures-per-username-and-ip: default 5
+ * - auth.login-throttle.max-failures-per-username: default 50
+ * - auth.login-throttle.max-failures-per-ip: default 20
+ * - auth.login-throttle.window-seconds: default 900
+ * - auth.login-throttle.max-tracked: keys remembered (default 100000)
+ */
+@Component
+public class LoginAttemptThrottle {
+
+    private final boolean enabled;
+    private final int maxFailuresPerUsernameAndIp;
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerIp;
+    private final Duration window;
+    private final BoundedTtlCache<String, AtomicInteger> failures;
+
+    private final LongAdder recordedFailures = new LongAdder();
+    private final LongAdder throttledByUsernameAndIp = new LongAdder();
+    private final LongAdder throttledByUsername = new LongAdder();
+    private final LongAdder throttledByIp = new LongAdder();
+
+    public LoginAttemptThrottle(@Value("${auth.login-throttle.enabled:true}") boolean enabled,
+                                @Value("${auth.login-throttle.max-failures-per-username-and-ip:5}") int maxFailuresPerUsernameAndIp,
+                                @Value("${auth.login-throttle.max-failures-per-username:50}") int maxFailuresPerUsername,
+                                @Value("${auth.login-throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+                                @Value("${auth.login-throttle.window-seconds:900}") long windowSeconds,
+                                @Value("${auth.login-throttle.max-tracked:100000}") int maxTracked) {
+        this.enabled = enabled;
+        this.maxFailuresPerUsernameAndIp = maxFailuresPerUsernameAndIp;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.failures = new BoundedTtlCache<>(maxTracked, window);
+    }
+
+    /**
+     * Counts a login attempt as a failure before its password is checked. Throws
+     * {@link LoginThrottledException}, counting nothing, if the pair, the username or the IP
+     * has used up its failures.
+     */
+    public void reserve(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        String pairKey = pairKey(username, clientIp);
+        String usernameKey = usernameKey(username);
+        String ipKey = ipKey(clientIp);
+        if (!tryIncrement(pairKey, maxFailuresPerUsernameAndIp)) {
+            throttledByUsernameAndIp.increment();
+            throw new LoginThrottledException("Too many failed logins for this account from this address",
+                    retryAfterSeconds(pairKey));
+        }
+        if (!tryIncrement(usernameKey, maxFailuresPerUsername)) {
+            decrement(pairKey);
+            throttledByUsername.increment();
+            throw new LoginThrottledException("Too many failed logins for this account", retryAfterSeconds(usernameKey));
+        }
+        if (!tryIncrement(ipKey, maxFailuresPerIp)) {
+            decrement(pairKey);
+            decrement(usernameKey);
+            throttledByIp.increment();
+            throw new LoginThrottledException("Too many failed logins from this address", retryAfterSeconds(ipKey));
+        }
+    }
+
+    /**
+     * The password was wrong; the reserved attempt stays counted
+     */
+    public void recordFailure(String username, String clientIp) {
+        if (enabled) {
+            recordedFailures.increment();
+        }
+    }
+
+    /**
+     * The password was right: clears the pair's failures and gives back the attempt counted
+     * against the username and the IP. Failures from other addresses still count.
+     */
+    public void recordSuccess(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        String pairKey = pairKey(username, clientIp);
+        if (pairKey != null) {
+            failures.invalidate(pairKey);
+        }
+        decrement(usernameKey(username));
+        decrement(ipKey(clientIp));
+    }
+
+    /**
+     * Gives back a reserved attempt whose password was never checked, e.g. because no
+     * hashing capacity was left
+     */
+    public void release(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        decrement(pairKey(username, clientIp));
+        decrement(usernameKey(username));
+        decrement(ipKey(clientIp));
+    }
+
+    /**
+     * Adds one to the key's count unless it is already at the limit
+     */
+    private boolean tryIncrement(String key, int limit) {
+        if (key == null) {
+            return true;
+        }
+        AtomicInteger count = failures.getOrPut(key, new AtomicInteger(), window);
+        if (count.incrementAndGet() > limit) {
+            count.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void decrement(String key) {
+        if (key == null) {
+            return;
+        }
+        // After the window rolled over this is the new window's count, which may still be zero
+        AtomicInteger count = failures.get(key);
+        if (count != null) {
+            count.updateAndGet(value -> Math.max(0, value - 1));
+        }
+    }
+
+    private long retryAfterSeconds(String key) {
+        CachedValue<AtomicInteger> count = failures.lookup(key);
+        if (count == null) {
+            return 1L;
+        }
+        long remainingNanos = Math.max(0L, count.ttlNanos() - count.ageNanos());
+        return Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(remainingNanos));
+    }
+
+    private static String pairKey(String username, String clientIp) {
+        String usernameKey = usernameKey(username);
+        String ipKey = ipKey(clientIp);
+        return usernameKey == null || ipKey == null ? null : usernameKey + "|" + ipKey;
+    }
+
+    private static String usernameKey(String username) {
+        return username == null || username.isBlank() ? null : "user:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String ipKey(String clientIp) {
+        return clientIp == null || clientIp.isBlank() ? null : "ip:" + clientIp;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("failures", recordedFailures.sum());
+        stats.put("throttledByUsernameAndIp", throttledByUsernameAndIp.sum());
+        stats.put("throttledByUsername", throttledByUsername.sum());
+        stats.put("throttledByIp", throttledByIp.sum());
+        stats.put("tracked", failures.size());
+        return stats;
+    }
+
+    /**
+     * A login was refused before checking the password
+     */
+    public static class LoginThrottledException extends RuntimeException {
+        private final long retryAfterSeconds;
+
+        public LoginThrottledException(String message, long retryAfterSeconds) {
+            super(message);
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+    }
+}
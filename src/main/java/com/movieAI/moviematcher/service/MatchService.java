@@ -0,0 +1,187 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.catalog.CatalogMovie;
+import com.movieAI.moviematcher.catalog.GenreMasks;
+import com.movieAI.moviematcher.catalog.MatchScorer;
+import com.movieAI.moviematcher.catalog.MovieCatalog;
+import com.movieAI.moviematcher.catalog.ScoredMovie;
+import com.movieAI.moviematcher.dto.PreferencesDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ranks catalog movies for both users of an account from the genre rankings saved for user
+ * slot 1 and slot 2, read from {@link PreferenceService}'s per-user snapshot.
+ * <p>
+ * Candidates are the movies of the embedded recommender's catalog. Their genres are encoded
+ * once per loaded catalog as bitmasks ({@link GenreMasks}) and every request re-ranks the
+ * whole catalog with a {@link MatchScorer}, which balances the two users' preferences with
+ * a fairness term.
+ * <p>
+ * Configuration:
+ * - match.fairness: 0 ranks by the mean preference, 1 by the less happy user's (default 0.5)
+ * - match.quality-weight: weight of vote average / 10 as a tie-breaker (default 0.1)
+ * - match.max-k: upper bound for the requested result count (default 100)
+ */
+@Service
+public class MatchService {
+
+    private final PreferenceService preferenceService;
+    private final EmbeddedRecommender embeddedRecommender;
+    private final double fairness;
+    private final double qualityWeight;
+    private final int maxK;
+
+    private volatile GenreMasks genreMasks;
+
+    private final LongAdder matchRequests = new LongAdder();
+    private final LongAdder candidatesScored = new LongAdder();
+    private final LongAdder scoringNanos = new LongAdder();
+
+    public MatchService(PreferenceService preferenceService,
+                        EmbeddedRecommender embeddedRecommender,
+                        @Value("${match.fairness:0.5}") double fairness,
+                        @Value("${match.quality-weight:0.1}") double qualityWeight,
+                        @Value("${match.max-k:100}") int maxK) {
+        this.preferenceService = preferenceService;
+        this.embeddedRecommender = embeddedRecommender;
+        this.fairness = fairness;
+        this.qualityWeight = qualityWeight;
+        this.maxK = maxK;
+    }
+
+    /**
+     * Returns the k best matches for the user's two genre rankings. Throws IllegalStateException
+     * while the catalog is not loaded.
+     */
+    public MatchResponse match(String username, int k) {
+        MovieCatalog catalog = embeddedRecommender.getCatalog()
+                .orElseThrow(() -> new IllegalStateException("Movie catalog is not loaded"));
+        PreferencesDTO preferences = preferenceService.getPreferences(username);
+        return match(catalog, preferences.getUser1Genres(), preferences.getUser2Genres(), k);
+    }
+
+    private MatchResponse match(MovieCatalog catalog, Map<String, Integer> user1Genres,
+                                Map<String, Integer> user2Genres, int k) {
+        GenreMasks masks = masksFor(catalog);
+        MatchScorer scorer = new MatchScorer(masks, user1Genres, user2Genres, fairness, qualityWeight);
+
+        long start = System.nanoTime();
+        List<ScoredMovie> top = scorer.hasPreferences()
+                ? scorer.topK(Math.min(Math.max(k, 1), maxK))
+                : List.of();
+        long elapsed = System.nanoTime() - start;
+        matchRequests.increment();
+        candidatesScored.add(masks.size());
+        scoringNanos.add(elapsed);
+
+        List<MatchedMovie> matches = new ArrayList<>(top.size());
+        for (ScoredMovie scored : top) {
+            CatalogMovie movie = catalog.get(scored.index());
+            MatchedMovie match = new MatchedMovie();
+            match.setTitle(movie.getTitle());
+            match.setOverview(movie.getOverview());
+            match.setGenres(movie.getGenres());
+            match.setPopularity(movie.getPopularity());
+            match.setVoteAverage(movie.getVoteAverage());
+            match.setScore(scored.score());
+            match.setUser1Score(scorer.user1Preference(scored.index()));
+            match.setUser2Score(scorer.user2Preference(scored.index()));
+            matches.add(match);
+        }
+
+        MatchResponse response = new MatchResponse();
+        response.setMatches(matches);
+        response.setCandidateCount(masks.size());
+        response.setScoringMicros(elapsed / 1_000);
+        return response;
+    }
+
+    /**
+     * Genre masks of the given catalog, rebuilt once after each catalog reload
+     */
+    private GenreMasks masksFor(MovieCatalog catalog) {
+        GenreMasks current = genreMasks;
+        if (current != null && current.getCatalog() == catalog) {
+            return current;
+        }
+        synchronized (this) {
+            current = genreMasks;
+            if (current == null || current.getCatalog() != catalog) {
+                current = GenreMasks.build(catalog);
+                genreMasks = current;
+            }
+            return current;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long requests = matchRequests.sum();
+        GenreMasks masks = genreMasks;
+        stats.put("requests", requests);
+        stats.put("candidatesScored", candidatesScored.sum());
+        stats.put("averageScoringMicros", requests > 0 ? scoringNanos.sum() / requests / 1_000 : 0);
+        stats.put("genres", masks != null ? masks.getGenreCount() : 0);
+        stats.put("fairness", fairness);
+        return stats;
+    }
+
+    public static class MatchResponse {
+        private List<MatchedMovie> matches;
+        // Movies scored for this request
+        private int candidateCount;
+        private long scoringMicros;
+
+        public List<MatchedMovie> getMatches() { return matches; }
+        public void setMatches(List<MatchedMovie> matches) { this.matches = matches; }
+
+        public int getCandidateCount() { return candidateCount; }
+        public void setCandidateCount(int candidateCount) { this.candidateCount = candidateCount; }
+
+        public long getScoringMicros() { return scoringMicros; }
+        public void setScoringMicros(long scoringMicros) { this.scoringMicros = scoringMicros; }
+    }
+
+    public static class MatchedMovie {
+        private String title;
+        private String overview;
+        private List<String> genres;
+        private double popularity;
+        private double voteAverage;
+        private double score;
+        // Genre preference of each user for this movie, before the fairness combination
+        private double user1Score;
+        private double user2Score;
+
+        public String getTitle() { return title; }
+        public void setTitle(String title) { this.title = title; }
+
+        public String getOverview() { return overview; }
+        public void setOverview(String overview) { this.overview = overview; }
+
+        public List<String> getGenres() { return genres; }
+        public void setGenres(List<String> genres) { this.genres = genres; }
+
+        public double getPopularity() { return popularity; }
+        public void setPopularity(double popularity) { this.popularity = popularity; }
+
+        public double getVoteAverage() { return voteAverage; }
+        public void setVoteAverage(double voteAverage) { this.voteAverage = voteAverage; }
+
+        public double getScore() { return score; }
+        public void setScore(double score) { this.score = score; }
+
+        public double getUser1Score() { return user1Score; }
+        public void setUser1Score(double user1Score) { this.user1Score = user1Score; }
+
+        public double getUser2Score() { return user2Score; }
+        public void setUser2Score(double user2Score) { this.user2Score = user2Score; }
+    }
+}
@@ -0,0 +1,136 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.cache.TitleKey;
+import com.movieAI.moviematcher.model.MovieMetadata;
+import com.movieAI.moviematcher.repository.MovieMetadataRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Second-level, Postgres backed store for streaming availability data.
+ * <p>
+ * Reads are synchronous (a single indexed lookup); writes are queued on a small
+ * background executor so that request threads never wait on an insert. When the
+ * write queue is full the write is dropped: the data will simply be fetched and
+ * written again on a later miss.
+ * <p>
+ * Configuration:
+ * - movie.metadata.max-age-hours: rows older than this are ignored (default 72)
+ * - movie.metadata.write-queue-capacity: pending writes before dropping (default 1000)
+ */
+@Service
+public class MovieMetadataStore {
+
+    private final MovieMetadataRepository repository;
+    private final Duration maxAge;
+    private final ThreadPoolExecutor writeExecutor;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public MovieMetadataStore(MovieMetadataRepository repository,
+                              @Value("${movie.metadata.max-age-hours:72}") long maxAgeHours,
+                              @Value("${movie.metadata.write-queue-capacity:1000}") int writeQueueCapacity) {
+        this.repository = repository;
+        this.maxAge = Duration.ofHours(maxAgeHours);
+        this.writeExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(writeQueueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "movie-metadata-writer");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, executor) -> droppedWrites.increment());
+    }
+
+    /**
+     * Looks up stored metadata that is younger than the configured max age
+     */
+    public Optional<EnhancedRecommendationService.StreamingAvailabilityData> find(TitleKey key) {
+        try {
+            Optional<MovieMetadata> stored = repository.findByTitleKeyAndCountry(key.title(), key.country());
+            if (stored.isPresent() && stored.get().getFetchedAt().isAfter(Instant.now().minus(maxAge))) {
+                hits.increment();
+                return stored.map(MovieMetadataStore::toStreamingData);
+            }
+        } catch (Exception e) {
+            failures.increment();
+            System.err.println("Movie metadata lookup failed for " + key.title() + ": " + e.getMessage());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Queues an upsert of the given data; returns immediately
+     */
+    public void saveAsync(TitleKey key, EnhancedRecommendationService.StreamingAvailabilityData data) {
+        writeExecutor.execute(() -> save(key, data));
+    }
+
+    private void save(TitleKey key, EnhancedRecommendationService.StreamingAvailabilityData data) {
+        try {
+            MovieMetadata metadata = repository.findByTitleKeyAndCountry(key.title(), key.country())
+                    .orElseGet(MovieMetadata::new);
+            metadata.setTitleKey(key.title());
+            metadata.setCountry(key.country());
+            metadata.setPosterUrl(data.getPosterUrl());
+            metadata.setStreamingPlatforms(new ArrayList<>(data.getStreamingPlatforms()));
+            metadata.setReleaseYear(data.getReleaseYear());
+            metadata.setImdbId(data.getImdbId());
+            metadata.setGenres(new ArrayList<>(data.getGenres()));
+            metadata.setFetchedAt(Instant.now());
+            repository.save(metadata);
+            writes.increment();
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the same title concurrently; its row is just as good
+            writes.increment();
+        } catch (Exception e) {
+            failures.increment();
+            System.err.println("Movie metadata write failed for " + key.title() + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("writes", writes.sum());
+        stats.put("droppedWrites", droppedWrites.sum());
+        stats.put("failures", failures.sum());
+        stats.put("pendingWrites", (long) writeExecutor.getQueue().size());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        writeExecutor.shutdown();
+        writeExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private static EnhancedRecommendationService.StreamingAvailabilityData toStreamingData(MovieMetadata metadata) {
+        return new EnhancedRecommendationService.StreamingAvailabilityData(
+                metadata.getPosterUrl(),
+                metadata.getStreamingPlatforms(),
+                metadata.getReleaseYear(),
+                metadata.getImdbId(),
+                metadata.getGenres()
+        );
+    }
+}
@@ -1,22 +1,72 @@
 package com.movieAI.moviematcher.service;
 
+import com.movieAI.moviematcher.cache.BoundedTtlCache;
+import com.movieAI.moviematcher.cache.CacheStats;
 import com.movieAI.moviematcher.model.UserPrincipal;
 import com.movieAI.moviematcher.model.Users;
 import com.movieAI.moviematcher.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
+
+/**
+ * Loads users for Spring Security.
+ * <p>
+ * {@link #loadUserByUsername} always reads the database; it backs password login. The JWT
+ * filter uses {@link #loadCachedUserByUsername} instead, which serves principals from a
+ * short-lived cache so that authenticated requests do not query Postgres just to confirm the
+ * user still exists. Code that creates or changes an account must call {@link #evict} so the
+ * next request sees the change; the TTL bounds staleness for changes made elsewhere.
+ * Unknown usernames are never cached.
+ * <p>
+ * As a {@link UserDetailsPasswordService} it stores the re-encoded password that Spring
+ * Security produces after a successful login with a hash made at a lower BCrypt cost, so a
+ * new cost factor reaches every active user without a migration.
+ * <p>
+ * Usernames listed in auth.admin-usernames get the {@link UserPrincipal#ADMIN_AUTHORITY}
+ * authority, which the admin endpoints require. The list is configuration rather than a
+ * column so that no request can grant it.
+ * <p>
+ * Configuration:
+ * - auth.admin-usernames: comma-separated operator accounts (default none)
+ * - auth.user-cache.enabled: cache principals for the JWT filter (default true)
+ * - auth.user-cache.max-entries: cached principals (default 10000)
+ * - auth.user-cache.ttl-seconds: how long a principal is reused (default 60)
+ */
 @Service
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
 
     private UserRepository userRepository;
+    private final BoundedTtlCache<String, UserPrincipal> principalCache;
+    private final Set<String> adminUsernames;
+    private final LongAdder passwordUpgrades = new LongAdder();
 
-    public MyUserDetailsService(UserRepository userRepository) {
+    public MyUserDetailsService(UserRepository userRepository,
+                                @Value("${auth.user-cache.enabled:true}") boolean cacheEnabled,
+                                @Value("${auth.user-cache.max-entries:10000}") int cacheMaxEntries,
+                                @Value("${auth.user-cache.ttl-seconds:60}") long cacheTtlSeconds,
+                                @Value("${auth.admin-usernames:}") String adminUsernames) {
         this.userRepository = userRepository;
+        this.adminUsernames = Arrays.stream(adminUsernames.split(","))
+                .map(String::trim)
+                .filter(username -> !username.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.principalCache = cacheEnabled && cacheMaxEntries > 0
+                ? new BoundedTtlCache<>(cacheMaxEntries, Duration.ofSeconds(cacheTtlSeconds))
+                : null;
     }
 
 
@@ -31,7 +81,72 @@ public class MyUserDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException("User not found with username: " + username);
         }
 
-        return new UserPrincipal(user);
+        UserPrincipal principal = toPrincipal(user);
+        if (principalCache != null) {
+            principalCache.put(username, principal);
+        }
+        return principal;
+    }
+
+    /**
+     * Same as {@link #loadUserByUsername}, but reuses a recently loaded principal
+     */
+    public UserDetails loadCachedUserByUsername(String username) throws UsernameNotFoundException {
+        if (principalCache != null) {
+            UserPrincipal cached = principalCache.get(username);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        return loadUserByUsername(username);
+    }
+
+    /**
+     * Stores a password re-encoded after login (rehash-on-login)
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        Users user = userRepository.findByUsername(userDetails.getUsername());
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with username: " + userDetails.getUsername());
+        }
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        evict(user.getUsername());
+        passwordUpgrades.increment();
+        return toPrincipal(user);
+    }
+
+    private UserPrincipal toPrincipal(Users user) {
+        return new UserPrincipal(user, adminUsernames.contains(user.getUsername()));
+    }
+
+    /**
+     * Drops the cached principal of an account that was created or changed
+     */
+    public void evict(String username) {
+        if (principalCache != null && username != null) {
+            principalCache.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        if (principalCache != null) {
+            principalCache.invalidateAll();
+        }
     }
 
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", principalCache != null);
+        stats.put("passwordUpgrades", passwordUpgrades.sum());
+        if (principalCache != null) {
+            CacheStats cacheStats = principalCache.stats();
+            stats.put("hits", cacheStats.getHits());
+            stats.put("misses", cacheStats.getMisses());
+            stats.put("size", cacheStats.getSize());
+            stats.put("hitRate", cacheStats.getHitRate());
+        }
+        return stats;
+    }
 }
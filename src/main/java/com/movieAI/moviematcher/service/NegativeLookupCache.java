@@ -0,0 +1,86 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.cache.BoundedTtlCache;
+import com.movieAI.moviematcher.cache.TitleKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Short-lived memory of streaming availability lookups that produced nothing, so obscure
+ * titles and failing lookups don't spend RapidAPI quota, latency and a movie_metadata query
+ * on every request. It is consulted before the metadata store.
+ * <p>
+ * "No results" and "upstream error" are kept apart: a title RapidAPI doesn't know stays
+ * unknown for a while, whereas a timeout or 5xx should be retried soon.
+ * <p>
+ * Configuration:
+ * - rapidapi.negative-cache.max-entries: remembered titles (default 5000)
+ * - rapidapi.negative-cache.not-found-ttl-minutes: how long "no results" is remembered (default 60)
+ * - rapidapi.negative-cache.upstream-error-ttl-seconds: how long a failed lookup is remembered (default 30)
+ */
+@Component
+public class NegativeLookupCache {
+
+    public enum Outcome { NOT_FOUND, UPSTREAM_ERROR }
+
+    private final BoundedTtlCache<TitleKey, Outcome> outcomes;
+    private final Duration notFoundTtl;
+    private final Duration upstreamErrorTtl;
+
+    private final Map<Outcome, LongAdder> recorded = new EnumMap<>(Outcome.class);
+    private final Map<Outcome, LongAdder> hits = new EnumMap<>(Outcome.class);
+
+    public NegativeLookupCache(@Value("${rapidapi.negative-cache.max-entries:5000}") int maxEntries,
+                               @Value("${rapidapi.negative-cache.not-found-ttl-minutes:60}") long notFoundTtlMinutes,
+                               @Value("${rapidapi.negative-cache.upstream-error-ttl-seconds:30}") long upstreamErrorTtlSeconds) {
+        this.notFoundTtl = Duration.ofMinutes(notFoundTtlMinutes);
+        this.upstreamErrorTtl = Duration.ofSeconds(upstreamErrorTtlSeconds);
+        this.outcomes = new BoundedTtlCache<>(maxEntries, notFoundTtl);
+        for (Outcome outcome : Outcome.values()) {
+            recorded.put(outcome, new LongAdder());
+            hits.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * Returns the remembered outcome of a recent lookup, or null if the title should be looked up
+     */
+    public Outcome get(TitleKey key) {
+        Outcome outcome = outcomes.get(key);
+        if (outcome != null) {
+            hits.get(outcome).increment();
+        }
+        return outcome;
+    }
+
+    public void recordNotFound(TitleKey key) {
+        record(key, Outcome.NOT_FOUND, notFoundTtl);
+    }
+
+    public void recordUpstreamError(TitleKey key) {
+        record(key, Outcome.UPSTREAM_ERROR, upstreamErrorTtl);
+    }
+
+    private void record(TitleKey key, Outcome outcome, Duration ttl) {
+        outcomes.put(key, outcome, ttl);
+        recorded.get(outcome).increment();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Outcome outcome : Outcome.values()) {
+            Map<String, Object> counters = new LinkedHashMap<>();
+            counters.put("recorded", recorded.get(outcome).sum());
+            counters.put("hits", hits.get(outcome).sum());
+            stats.put(outcome.name().toLowerCase(), counters);
+        }
+        stats.put("cache", outcomes.stats());
+        return stats;
+    }
+}
@@ -0,0 +1,122 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.dto.PreferencesDTO;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository.GenreRow;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository.ServiceRow;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository.StoredPreferences;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The row changes that turn a user's stored preferences into the ones just submitted.
+ * <p>
+ * A genre is identified by its slot and name, so changing a genre's rank updates that row
+ * in place. A null genre map or service list means the slot or service list is now empty,
+ * which is how the save endpoint has always treated it. If an older save left duplicate
+ * rows behind, the oldest row is kept and the others are deleted.
+ */
+public final class PreferenceDiff {
+
+    private final List<GenreRow> genreInserts = new ArrayList<>();
+    private final List<GenreRow> rankingUpdates = new ArrayList<>();
+    private final List<Long> genreDeletes = new ArrayList<>();
+    private final List<String> serviceInserts = new ArrayList<>();
+    private final List<Long> serviceDeletes = new ArrayList<>();
+
+    private PreferenceDiff() {
+    }
+
+    public static PreferenceDiff between(StoredPreferences stored, PreferencesDTO desired) {
+        PreferenceDiff diff = new PreferenceDiff();
+
+        Map<GenreKey, GenreRow> existingGenres = new HashMap<>();
+        for (GenreRow row : stored.genres()) {
+            if (existingGenres.putIfAbsent(new GenreKey(row.userSlot(), row.genreName()), row) != null) {
+                diff.genreDeletes.add(row.id());
+            }
+        }
+        Map<GenreKey, Integer> desiredGenres = new LinkedHashMap<>();
+        addGenres(desiredGenres, 1, desired.getUser1Genres());
+        addGenres(desiredGenres, 2, desired.getUser2Genres());
+
+        desiredGenres.forEach((key, ranking) -> {
+            GenreRow existing = existingGenres.remove(key);
+            if (existing == null) {
+                diff.genreInserts.add(new GenreRow(null, key.userSlot(), key.genreName(), ranking));
+            } else if (existing.ranking() != ranking) {
+                diff.rankingUpdates.add(new GenreRow(existing.id(), key.userSlot(), key.genreName(), ranking));
+            }
+        });
+        existingGenres.values().forEach(row -> diff.genreDeletes.add(row.id()));
+
+        Map<String, Long> existingServices = new HashMap<>();
+        for (ServiceRow row : stored.services()) {
+            if (existingServices.putIfAbsent(row.serviceName(), row.id()) != null) {
+                diff.serviceDeletes.add(row.id());
+            }
+        }
+        // The table is unique on (user_id, service_name), so repeated names are saved once
+        Set<String> desiredServices = new LinkedHashSet<>();
+        if (desired.getServices() != null) {
+            for (String serviceName : desired.getServices()) {
+                if (serviceName == null) {
+                    throw new IllegalArgumentException("Service name must not be null");
+                }
+                desiredServices.add(serviceName);
+            }
+        }
+        for (String serviceName : desiredServices) {
+            if (existingServices.remove(serviceName) == null) {
+                diff.serviceInserts.add(serviceName);
+            }
+        }
+        diff.serviceDeletes.addAll(existingServices.values());
+        return diff;
+    }
+
+    private static void addGenres(Map<GenreKey, Integer> target, int userSlot, Map<String, Integer> genres) {
+        if (genres == null) {
+            return;
+        }
+        genres.forEach((genreName, ranking) -> {
+            if (genreName == null || ranking == null) {
+                throw new IllegalArgumentException("Genre names and rankings must not be null");
+            }
+            target.put(new GenreKey(userSlot, genreName), ranking);
+        });
+    }
+
+    public boolean isEmpty() {
+        return genreInserts.isEmpty() && rankingUpdates.isEmpty() && genreDeletes.isEmpty()
+                && serviceInserts.isEmpty() && serviceDeletes.isEmpty();
+    }
+
+    public List<GenreRow> getGenreInserts() {
+        return genreInserts;
+    }
+
+    public List<GenreRow> getRankingUpdates() {
+        return rankingUpdates;
+    }
+
+    public List<Long> getGenreDeletes() {
+        return genreDeletes;
+    }
+
+    public List<String> getServiceInserts() {
+        return serviceInserts;
+    }
+
+    public List<Long> getServiceDeletes() {
+        return serviceDeletes;
+    }
+
+    private record GenreKey(int userSlot, String genreName) {
+    }
+}
@@ -1,91 +1,149 @@
 package com.movieAI.moviematcher.service;
 
+import com.movieAI.moviematcher.cache.BoundedTtlCache;
+import com.movieAI.moviematcher.cache.CacheStats;
 import com.movieAI.moviematcher.dto.PreferencesDTO;
-import com.movieAI.moviematcher.model.GenrePreference;
-import com.movieAI.moviematcher.model.StreamingServiceSelection;
-import com.movieAI.moviematcher.model.Users;
-import com.movieAI.moviematcher.repository.GenrePreferenceRepository;
-import com.movieAI.moviematcher.repository.StreamingServiceSelectionRepository;
-import com.movieAI.moviematcher.repository.UserRepository;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.Map;
-
-
-
-
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+
+
+
+
+/**
+ * Saves the genre rankings and streaming services submitted from the preferences page.
+ * <p>
+ * A save reads the stored rows, works out the difference (see {@link PreferenceDiff}) and
+ * writes only that, with one JDBC batch per kind of change. It always takes the same small
+ * number of round trips, no matter how many genres are submitted: one to lock the user, one
+ * to load their rows, and at most five batches. Saving unchanged preferences writes nothing.
+ * <p>
+ * Reads ({@link #getPreferences}) are served from a per-user snapshot, so the match and
+ * recommendation paths do not query the database for preferences. A save drops the user's
+ * snapshot immediately and again when its transaction ends. A read that overlaps a save is not
+ * cached, so an older snapshot cannot replace the one the save invalidated.
+ * <p>
+ * Configuration:
+ * - preferences.cache.enabled: default true
+ * - preferences.cache.max-entries: users whose preferences are kept (default 10000)
+ * - preferences.cache.ttl-seconds: upper bound on staleness for changes made outside this
+ *   service (default 600)
+ */
 @Service
 public class PreferenceService {
 
-    private final UserRepository userRepository;
-    private final GenrePreferenceRepository genrePreferenceRepository;
-    private final StreamingServiceSelectionRepository streamingServiceSelectionRepository;
+    private final PreferenceJdbcRepository preferenceJdbcRepository;
+    private final BoundedTtlCache<String, PreferencesDTO> snapshots;
+    // Bumped by every invalidation; a read only caches its result if no save happened meanwhile
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder saves = new LongAdder();
+    private final LongAdder unchangedSaves = new LongAdder();
+    private final LongAdder rowsInserted = new LongAdder();
+    private final LongAdder rowsUpdated = new LongAdder();
+    private final LongAdder rowsDeleted = new LongAdder();
+
+    public PreferenceService(PreferenceJdbcRepository preferenceJdbcRepository,
+                             @Value("${preferences.cache.enabled:true}") boolean cacheEnabled,
+                             @Value("${preferences.cache.max-entries:10000}") int cacheMaxEntries,
+                             @Value("${preferences.cache.ttl-seconds:600}") long cacheTtlSeconds) {
+        this.preferenceJdbcRepository = preferenceJdbcRepository;
+        this.snapshots = cacheEnabled && cacheMaxEntries > 0
+                ? new BoundedTtlCache<>(cacheMaxEntries, Duration.ofSeconds(cacheTtlSeconds))
+                : null;
+    }
 
-    public PreferenceService(UserRepository userRepository,
-                             GenrePreferenceRepository genrePreferenceRepository,
-                             StreamingServiceSelectionRepository streamingServiceSelectionRepository) {
-        this.userRepository = userRepository;
-        this.genrePreferenceRepository = genrePreferenceRepository;
-        this.streamingServiceSelectionRepository = streamingServiceSelectionRepository;
+    /**
+     * The user's saved genre rankings (best first) and services. The result is shared between
+     * callers and must not be modified.
+     */
+    public PreferencesDTO getPreferences(String username) {
+        if (snapshots == null) {
+            return preferenceJdbcRepository.findPreferences(username);
+        }
+        PreferencesDTO cached = snapshots.get(username);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = invalidations.get();
+        PreferencesDTO preferences = preferenceJdbcRepository.findPreferences(username);
+        if (invalidations.get() == generation) {
+            snapshots.put(username, preferences);
+        }
+        return preferences;
     }
 
     @Transactional
     public void savePreferences(String username, PreferencesDTO preferencesDTO) {
-        Users currentUser = userRepository.findByUsername(username);
-        if (currentUser == null) {
+        Integer userId = preferenceJdbcRepository.lockUserId(username);
+        if (userId == null) {
             throw new RuntimeException("User not found: " + username);
         }
 
-        // Delete existing genre prefs and streaming selections for user_slot 1 and 2
-        genrePreferenceRepository.deleteByUserAndUserSlot(currentUser, 1);
-        genrePreferenceRepository.deleteByUserAndUserSlot(currentUser, 2);
-        streamingServiceSelectionRepository.deleteByUser(currentUser);
-
-        List<GenrePreference> genrePrefsToSave = new ArrayList<>();
-
-        Map<String, Integer> user1Genres = preferencesDTO.getUser1Genres();
-        if (user1Genres != null) {
-            user1Genres.forEach((genre, rank) -> {
-                GenrePreference gp = new GenrePreference();
-                gp.setUser(currentUser);
-                gp.setGenreName(genre);
-                gp.setRanking(rank);
-                gp.setUserSlot(1);
-                genrePrefsToSave.add(gp);
-            });
+        PreferenceDiff diff = PreferenceDiff.between(preferenceJdbcRepository.load(userId), preferencesDTO);
+        saves.increment();
+        if (diff.isEmpty()) {
+            unchangedSaves.increment();
+            return;
         }
-
-        Map<String, Integer> user2Genres = preferencesDTO.getUser2Genres();
-        if (user2Genres != null) {
-            user2Genres.forEach((genre, rank) -> {
-                GenrePreference gp = new GenrePreference();
-                gp.setUser(currentUser);
-                gp.setGenreName(genre);
-                gp.setRanking(rank);
-                gp.setUserSlot(2);
-                genrePrefsToSave.add(gp);
+        invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Readers may have cached the old rows while this transaction was open
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(username);
+                }
             });
         }
 
-        genrePreferenceRepository.saveAll(genrePrefsToSave);
+        // Deletes go first so a re-added service never collides with its old row
+        preferenceJdbcRepository.deleteGenres(diff.getGenreDeletes());
+        preferenceJdbcRepository.deleteServices(diff.getServiceDeletes());
+        preferenceJdbcRepository.updateRankings(diff.getRankingUpdates());
+        preferenceJdbcRepository.insertGenres(userId, diff.getGenreInserts());
+        preferenceJdbcRepository.insertServices(userId, diff.getServiceInserts());
 
-        List<String> services = preferencesDTO.getServices();
-        if (services != null) {
-            List<StreamingServiceSelection> serviceSelections = new ArrayList<>();
-            services.forEach(serviceName -> {
-                StreamingServiceSelection sss = new StreamingServiceSelection();
-                sss.setUser(currentUser);
-                sss.setServiceName(serviceName);
-                serviceSelections.add(sss);
-            });
-            streamingServiceSelectionRepository.saveAll(serviceSelections);
+        rowsInserted.add(diff.getGenreInserts().size() + diff.getServiceInserts().size());
+        rowsUpdated.add(diff.getRankingUpdates().size());
+        rowsDeleted.add(diff.getGenreDeletes().size() + diff.getServiceDeletes().size());
+    }
+
+    private void invalidate(String username) {
+        invalidations.incrementAndGet();
+        if (snapshots != null) {
+            snapshots.invalidate(username);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("saves", saves.sum());
+        stats.put("unchangedSaves", unchangedSaves.sum());
+        stats.put("rowsInserted", rowsInserted.sum());
+        stats.put("rowsUpdated", rowsUpdated.sum());
+        stats.put("rowsDeleted", rowsDeleted.sum());
+        stats.put("cacheEnabled", snapshots != null);
+        if (snapshots != null) {
+            CacheStats cacheStats = snapshots.stats();
+            stats.put("cacheHits", cacheStats.getHits());
+            stats.put("cacheMisses", cacheStats.getMisses());
+            stats.put("cacheSize", cacheStats.getSize());
+            stats.put("cacheHitRate", cacheStats.getHitRate());
         }
+        return stats;
     }
 
 
@@ -1,190 +1,44 @@
 package com.movieAI.moviematcher.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
-import java.net.URI;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 /**
- * Service for fetching movie data from RapidAPI Streaming Availability API.
+ * Looks up a single movie's details and streaming availability on RapidAPI.
  * <p>
- * This service provides methods to:
- * - Search for movies by title
- * - Get streaming availability information
- * - Extract movie metadata (poster URLs, genres, etc.)
- * <p>
- * The service handles API rate limiting, error responses, and provides fallback behavior
- * when the API is unavailable.
+ * Reads through {@link EnhancedRecommendationService#getStreamingAvailability(String)}, so it
+ * shares that path's cache entry, movie_metadata row, quota, circuit breaker and negative
+ * cache: a title looked up by either path is fetched from RapidAPI only once. The shared
+ * search data carries no overview, so {@link MovieDetails#getOverview()} is always null.
  */
 @Service
 public class RapidApiMovieFetcher {
 
-    @Value("${rapidapi.key:}")
-    private String rapidApiKey;
-
-    @Value("${rapidapi.streaming.url:https://streaming-availability.p.rapidapi.com}")
-    private String rapidApiStreamingUrl;
-
-    private final RestTemplate restTemplate;
-    private final ObjectMapper objectMapper;
+    private final EnhancedRecommendationService enhancedRecommendationService;
 
     @Autowired
-    public RapidApiMovieFetcher(@Qualifier("externalApiRestTemplate") RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
-        this.objectMapper = new ObjectMapper();
+    public RapidApiMovieFetcher(EnhancedRecommendationService enhancedRecommendationService) {
+        this.enhancedRecommendationService = enhancedRecommendationService;
     }
 
     /**
-     * Searches for a movie by title and returns detailed information including streaming availability
+     * Returns details for the best match of the title, or empty details when RapidAPI has no
+     * match or cannot be asked right now (no key, quota or open circuit breaker)
      */
     public MovieDetails searchMovie(String title) {
-        try {
-            if (rapidApiKey == null || rapidApiKey.isEmpty()) {
-                throw new IllegalStateException("RapidAPI key is not configured");
-            }
-
-            String response = performMovieSearch(title);
-            return parseMovieResponse(response);
-
-        } catch (RestClientException e) {
-            throw new RuntimeException("Failed to fetch movie data from RapidAPI: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new RuntimeException("Error processing movie search: " + e.getMessage(), e);
+        EnhancedRecommendationService.StreamingAvailabilityData data =
+                enhancedRecommendationService.getStreamingAvailability(title);
+        if (!EnhancedRecommendationService.hasData(data)) {
+            return new MovieDetails(); // empty details if no result found
         }
+        return new MovieDetails(title, null, data.getPosterUrl(),
+                data.getReleaseYear() != null ? data.getReleaseYear() : 0, data.getImdbId(),
+                data.getGenres(), data.getStreamingPlatforms());
     }
 
-    /**
-     * Performs the actual API call to search for movies
-     */
-    private String performMovieSearch(String title) {
-        URI uri = UriComponentsBuilder
-                .fromHttpUrl(rapidApiStreamingUrl + "/search/title")
-                .queryParam("title", title)
-                .queryParam("country", "us")
-                .queryParam("show_type", "movie")
-                .build()
-                .toUri();
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("X-RapidAPI-Key", rapidApiKey);
-        headers.set("X-RapidAPI-Host", "streaming-availability.p.rapidapi.com");
-
-        HttpEntity<String> entity = new HttpEntity<>(headers);
-        ResponseEntity<String> response = restTemplate.exchange(uri, HttpMethod.GET, entity, String.class);
-
-        return response.getBody();
-    }
-
-    /**
-     * Parses the movie response from RapidAPI to extract relevant details
-     */
-    private MovieDetails parseMovieResponse(String responseBody) throws Exception {
-        JsonNode rootNode = objectMapper.readTree(responseBody);
-        JsonNode resultsNode = rootNode.path("results");
-
-        if (resultsNode.isArray() && resultsNode.size() > 0) {
-            JsonNode firstResult = resultsNode.get(0);
-
-            String title = firstResult.path("title").asText(null);
-            String overview = firstResult.path("overview").asText(null);
-            String posterUrl = firstResult.path("posterURLs").path("original").asText(null);
-            int releaseYear = firstResult.path("year").asInt(0);
-            String imdbId = firstResult.path("imdbId").asText(null);
-            List<String> genres = extractGenres(firstResult);
-            List<String> streamingPlatforms = extractStreamingPlatforms(firstResult);
-
-            MovieDetails movieDetails = new MovieDetails(title, overview, posterUrl, releaseYear, imdbId, genres, streamingPlatforms);
-
-            // Log here
-//            System.out.println("DEBUG - Parsed movie details:");
-//            System.out.println("Title: " + movieDetails.getTitle());
-//            System.out.println("Overview: " + movieDetails.getOverview());
-//            System.out.println("Poster URL: " + movieDetails.getPosterUrl());
-//            System.out.println("Release Year: " + movieDetails.getReleaseYear());
-//            System.out.println("IMDB ID: " + movieDetails.getImdbId());
-//            System.out.println("Genres: " + movieDetails.getGenres());
-//            System.out.println("Streaming Platforms: " + movieDetails.getStreamingPlatforms());
-
-
-            return new MovieDetails(title, overview, posterUrl, releaseYear, imdbId, genres, streamingPlatforms);
-        }
-
-        return new MovieDetails(); // empty details if no result found
-    }
-
-    private List<String> extractGenres(JsonNode movieNode) {
-        List<String> genres = new ArrayList<>();
-        JsonNode genresNode = movieNode.path("genres");
-        if (genresNode.isArray()) {
-            for (JsonNode genre : genresNode) {
-                String genreName = genre.path("name").asText();
-                if (!genreName.isEmpty()) {
-                    genres.add(genreName);
-                }
-            }
-        }
-        return genres;
-    }
-
-//    private List<String> extractStreamingPlatforms(JsonNode movieNode) {
-//        List<String> platforms = new ArrayList<>();
-//        JsonNode streamingOptionsNode = movieNode.path("streamingOptions").path("us");
-//        if (streamingOptionsNode.isArray()) {
-//            for (JsonNode option : streamingOptionsNode) {
-//                String serviceName = option.path("service").path("name").asText();
-//                if (!serviceName.isEmpty() && !platforms.contains(serviceName)) {
-//                    platforms.add(serviceName);
-//                }
-//            }
-//        }
-//        return platforms;
-//    }
-private List<String> extractStreamingPlatforms(JsonNode movieNode) {
-    List<String> platforms = new ArrayList<>();
-    JsonNode streamingOptionsNode = movieNode.path("streamingOptions").path("us");
-
-    if (streamingOptionsNode.isObject()) {
-        // Iterate over fields (service keys)
-        Iterator<Map.Entry<String, JsonNode>> fields = streamingOptionsNode.fields();
-        while (fields.hasNext()) {
-            Map.Entry<String, JsonNode> field = fields.next();
-            JsonNode serviceEntry = field.getValue();
-
-            // serviceEntry can be an array or object - check type
-            if (serviceEntry.isArray()) {
-                for (JsonNode option : serviceEntry) {
-                    String serviceName = option.path("service").path("name").asText();
-                    if (!serviceName.isEmpty() && !platforms.contains(serviceName)) {
-                        platforms.add(serviceName);
-                    }
-                }
-            } else if (serviceEntry.isObject()) {
-                String serviceName = serviceEntry.path("service").path("name").asText();
-                if (!serviceName.isEmpty() && !platforms.contains(serviceName)) {
-                    platforms.add(serviceName);
-                }
-            }
-        }
-    }
-
-    return platforms;
-}
-
 
     /**
      * Data class representing movie details with streaming info
@@ -0,0 +1,183 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.resilience.RequestPriority;
+import com.movieAI.moviematcher.resilience.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-side quota manager in front of every RapidAPI call.
+ * <p>
+ * Enforces the per-second quota with a {@link TokenBucket} (interactive lane first) and,
+ * optionally, the monthly request budget. Callers pass the time they can afford to wait;
+ * when a token would not be available in time the call is rejected immediately and the
+ * caller serves degraded data instead of turning the burst into 429s. A permit whose call
+ * was refused before it was sent (breaker or bulkhead) is handed back with {@link #refund}.
+ * <p>
+ * Configuration:
+ * - rapidapi.quota.permits-per-second: sustained request rate (default 5)
+ * - rapidapi.quota.burst: requests that may be sent back to back (default 10)
+ * - rapidapi.quota.background-reserve: tokens background calls leave for interactive ones (default 2)
+ * - rapidapi.quota.max-wait-ms: upper bound on the time a call waits for a token (default 2000)
+ * - rapidapi.quota.monthly-limit: requests per calendar month, 0 for unlimited (default 0)
+ * - rapidapi.quota.throttle-penalty-ms: pause after RapidAPI answers 429 (default 1000)
+ */
+@Component
+public class RapidApiQuotaManager {
+
+    private final TokenBucket tokenBucket;
+    private final long maxWaitNanos;
+    private final long monthlyLimit;
+    private final Duration throttlePenalty;
+
+    private final Map<RequestPriority, LaneMetrics> laneMetrics = new EnumMap<>(RequestPriority.class);
+    private final LongAdder throttledResponses = new LongAdder();
+    private final AtomicLong monthlyUsed = new AtomicLong();
+    private volatile YearMonth currentMonth = YearMonth.now(ZoneOffset.UTC);
+
+    public RapidApiQuotaManager(@Value("${rapidapi.quota.permits-per-second:5}") double permitsPerSecond,
+                                @Value("${rapidapi.quota.burst:10}") int burst,
+                                @Value("${rapidapi.quota.background-reserve:2}") int backgroundReserve,
+                                @Value("${rapidapi.quota.max-wait-ms:2000}") long maxWaitMs,
+                                @Value("${rapidapi.quota.monthly-limit:0}") long monthlyLimit,
+                                @Value("${rapidapi.quota.throttle-penalty-ms:1000}") long throttlePenaltyMs) {
+        this.tokenBucket = new TokenBucket(permitsPerSecond, burst, backgroundReserve);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.monthlyLimit = monthlyLimit;
+        this.throttlePenalty = Duration.ofMillis(throttlePenaltyMs);
+        for (RequestPriority priority : RequestPriority.values()) {
+            laneMetrics.put(priority, new LaneMetrics());
+        }
+    }
+
+    /**
+     * Waits for permission to send one RapidAPI request.
+     *
+     * @param deadlineNanos System.nanoTime() by which the caller needs its answer
+     * @return false if the request must not be sent (quota exhausted or wait too long)
+     */
+    public boolean tryAcquire(RequestPriority priority, long deadlineNanos) {
+        return acquire(priority, Math.min(maxWaitNanos, deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * Takes a token only if one is available right now, for callers that must never block
+     * (e.g. reactive pipelines running on event-loop threads)
+     */
+    public boolean tryAcquireNow(RequestPriority priority) {
+        return acquire(priority, 0L);
+    }
+
+    private boolean acquire(RequestPriority priority, long budget) {
+        LaneMetrics metrics = laneMetrics.get(priority);
+        if (budget < 0 || !takeMonthlySlot()) {
+            metrics.rejected.increment();
+            return false;
+        }
+        try {
+            long waited = tokenBucket.acquire(priority, budget);
+            if (waited < 0) {
+                returnMonthlySlot();
+                metrics.rejected.increment();
+                return false;
+            }
+            metrics.acquired.increment();
+            metrics.totalWaitNanos.add(waited);
+            metrics.maxWaitNanos.accumulate(waited);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            returnMonthlySlot();
+            metrics.rejected.increment();
+            return false;
+        }
+    }
+
+    /**
+     * Hands back a permit whose request was never sent, e.g. because the circuit breaker or
+     * bulkhead refused it after the permit was taken
+     */
+    public void refund(RequestPriority priority) {
+        tokenBucket.refund();
+        returnMonthlySlot();
+        laneMetrics.get(priority).refunded.increment();
+    }
+
+    /**
+     * Convenience overload using the configured maximum wait as the deadline
+     */
+    public boolean tryAcquire(RequestPriority priority) {
+        return tryAcquire(priority, System.nanoTime() + maxWaitNanos);
+    }
+
+    /**
+     * Called when RapidAPI answered 429 despite the client-side limit
+     */
+    public void onThrottled() {
+        throttledResponses.increment();
+        tokenBucket.penalize(throttlePenalty);
+    }
+
+    /**
+     * Counts one request against the monthly budget. The check and the increment are one
+     * atomic update, so concurrent callers cannot overshoot the limit.
+     */
+    private boolean takeMonthlySlot() {
+        if (monthlyLimit <= 0) {
+            monthlyUsed.incrementAndGet();
+            return true;
+        }
+        YearMonth now = YearMonth.now(ZoneOffset.UTC);
+        if (!now.equals(currentMonth)) {
+            synchronized (this) {
+                if (!now.equals(currentMonth)) {
+                    currentMonth = now;
+                    monthlyUsed.set(0);
+                }
+            }
+        }
+        return monthlyUsed.getAndUpdate(used -> used < monthlyLimit ? used + 1 : used) < monthlyLimit;
+    }
+
+    private void returnMonthlySlot() {
+        monthlyUsed.updateAndGet(used -> used > 0 ? used - 1 : 0);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        laneMetrics.forEach((priority, metrics) -> {
+            long acquired = metrics.acquired.sum();
+            Map<String, Object> lane = new LinkedHashMap<>();
+            lane.put("acquired", acquired);
+            lane.put("rejected", metrics.rejected.sum());
+            lane.put("refunded", metrics.refunded.sum());
+            lane.put("avgWaitMs", acquired == 0 ? 0.0 : metrics.totalWaitNanos.sum() / 1_000_000.0 / acquired);
+            lane.put("maxWaitMs", metrics.maxWaitNanos.get() / 1_000_000.0);
+            stats.put(priority.name().toLowerCase(), lane);
+        });
+        stats.put("availableTokens", tokenBucket.getAvailableTokens());
+        stats.put("throttledResponses", throttledResponses.sum());
+        stats.put("monthlyUsed", monthlyUsed.get());
+        stats.put("monthlyLimit", monthlyLimit);
+        return stats;
+    }
+
+    private static final class LaneMetrics {
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder refunded = new LongAdder();
+        private final LongAdder totalWaitNanos = new LongAdder();
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0L);
+    }
+}
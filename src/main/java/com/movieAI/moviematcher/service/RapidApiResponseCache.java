@@ -0,0 +1,51 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.cache.BoundedTtlCache;
+import com.movieAI.moviematcher.cache.CacheStats;
+import com.movieAI.moviematcher.cache.TitleKey;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shared in-process cache for RapidAPI Streaming Availability lookups.
+ * <p>
+ * Holds one parsed representation per normalized title and country. The blocking and
+ * reactive enrichment paths and {@link RapidApiMovieFetcher#searchMovie(String)} all read
+ * it, so a popular title is fetched from RapidAPI once per TTL no matter which path asks
+ * for it first. Cached values have unmodifiable lists and are handed out as they are.
+ * <p>
+ * Configuration:
+ * - rapidapi.cache.max-entries: maximum entries (default 2000)
+ * - rapidapi.cache.ttl-minutes: time to live of an entry (default 360)
+ * - rapidapi.cache.stale-grace-minutes: how long expired streaming availability entries may
+ *   still be served while they are refreshed (default 1440)
+ */
+@Component
+public class RapidApiResponseCache {
+
+    private final BoundedTtlCache<TitleKey, EnhancedRecommendationService.StreamingAvailabilityData> streamingAvailability;
+
+    public RapidApiResponseCache(@Value("${rapidapi.cache.max-entries:2000}") int maxEntries,
+                                 @Value("${rapidapi.cache.ttl-minutes:360}") long ttlMinutes,
+                                 @Value("${rapidapi.cache.stale-grace-minutes:1440}") long staleGraceMinutes) {
+        this.streamingAvailability = new BoundedTtlCache<>(maxEntries, Duration.ofMinutes(ttlMinutes),
+                Duration.ofMinutes(staleGraceMinutes));
+    }
+
+    public BoundedTtlCache<TitleKey, EnhancedRecommendationService.StreamingAvailabilityData> streamingAvailability() {
+        return streamingAvailability;
+    }
+
+    /**
+     * Returns hit/miss/eviction counters
+     */
+    public Map<String, CacheStats> getStats() {
+        Map<String, CacheStats> stats = new LinkedHashMap<>();
+        stats.put("streamingAvailability", streamingAvailability.stats());
+        return stats;
+    }
+}
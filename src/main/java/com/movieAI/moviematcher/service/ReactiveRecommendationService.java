@@ -0,0 +1,350 @@
+package com.movieAI.moviematcher.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieAI.moviematcher.cache.TitleKey;
+import com.movieAI.moviematcher.dto.PythonRecommendation;
+import com.movieAI.moviematcher.dto.PythonRecommendationResponse;
+import com.movieAI.moviematcher.resilience.RequestPriority;
+import com.movieAI.moviematcher.resilience.UpstreamGuard;
+import com.movieAI.moviematcher.resilience.UpstreamUnavailableException;
+import com.movieAI.moviematcher.service.EnhancedRecommendationService.EnhancedMovieRecommendation;
+import com.movieAI.moviematcher.service.EnhancedRecommendationService.EnhancedRecommendationResponse;
+import com.movieAI.moviematcher.service.EnhancedRecommendationService.StreamingAvailabilityData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Non-blocking implementation of the enhanced recommendation pipeline (Python fetch,
+ * fan-out enrichment, merge) on {@link WebClient}.
+ * <p>
+ * No thread is held while waiting on an upstream, so a node can serve thousands of
+ * concurrent requests on a handful of event-loop threads. Each request enriches at most
+ * recommendation.pipeline.reactive.enrichment-concurrency titles at once; the remaining
+ * titles are only requested as earlier lookups complete. Caches, request coalescing,
+ * circuit breakers, the RapidAPI quota and the counters reported by
+ * {@link EnhancedRecommendationService#getMetrics()} are shared with the blocking
+ * pipeline, so a title looked up by both kinds of caller is fetched once. Only the
+ * movie_metadata lookup, which is JDBC, runs on the bounded elastic scheduler.
+ * <p>
+ * Enabled with recommendation.pipeline.reactive.enabled=true.
+ */
+@Service
+@ConditionalOnProperty(name = "recommendation.pipeline.reactive.enabled", havingValue = "true")
+public class ReactiveRecommendationService {
+
+    @Value("${recommendation.service.url:http://localhost:5001}")
+    private String recommendationServiceUrl;
+
+    @Value("${rapidapi.key:}")
+    private String rapidApiKey;
+
+    @Value("${rapidapi.streaming.url:https://streaming-availability.p.rapidapi.com}")
+    private String rapidApiStreamingUrl;
+
+    @Value("${rapidapi.country:us}")
+    private String rapidApiCountry;
+
+    @Value("${recommendation.deadline.default-ms:3000}")
+    private long defaultDeadlineMs;
+
+    @Value("${recommendation.deadline.max-ms:15000}")
+    private long maxDeadlineMs;
+
+    @Value("${recommendation.pipeline.reactive.enrichment-concurrency:8}")
+    private int enrichmentConcurrency;
+
+    @Value("${recommendation.engine:python}")
+    private String recommendationEngine;
+
+    @Value("${recommendation.embedded.fallback-enabled:true}")
+    private boolean embeddedFallbackEnabled;
+
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final EnhancedRecommendationService enhancedRecommendationService;
+    private final RecommendationResultCache recommendationCache;
+    private final RapidApiQuotaManager quotaManager;
+    private final UpstreamGuard pythonRecommenderGuard;
+    private final UpstreamGuard rapidApiGuard;
+    private final HotTitleTracker hotTitleTracker;
+    private final NegativeLookupCache negativeLookupCache;
+    private final EmbeddedRecommender embeddedRecommender;
+
+    @Autowired
+    public ReactiveRecommendationService(@Qualifier("recommendationWebClient") WebClient webClient,
+                                         EnhancedRecommendationService enhancedRecommendationService,
+                                         RecommendationResultCache recommendationCache,
+                                         RapidApiQuotaManager quotaManager,
+                                         @Qualifier("pythonRecommenderGuard") UpstreamGuard pythonRecommenderGuard,
+                                         @Qualifier("rapidApiGuard") UpstreamGuard rapidApiGuard,
+                                         HotTitleTracker hotTitleTracker,
+                                         NegativeLookupCache negativeLookupCache,
+                                         EmbeddedRecommender embeddedRecommender) {
+        this.webClient = webClient;
+        this.objectMapper = new ObjectMapper();
+        this.enhancedRecommendationService = enhancedRecommendationService;
+        this.recommendationCache = recommendationCache;
+        this.quotaManager = quotaManager;
+        this.pythonRecommenderGuard = pythonRecommenderGuard;
+        this.rapidApiGuard = rapidApiGuard;
+        this.hotTitleTracker = hotTitleTracker;
+        this.negativeLookupCache = negativeLookupCache;
+        this.embeddedRecommender = embeddedRecommender;
+    }
+
+    /**
+     * Gets enriched recommendations within the given deadline (null for the configured default).
+     * Recommendations whose enrichment has not finished by then are returned without
+     * streaming data and flagged as partial.
+     */
+    public Mono<EnhancedRecommendationResponse> getEnhancedRecommendations(String movieTitle, Duration deadline) {
+        return Mono.defer(() -> {
+            long deadlineNanos = System.nanoTime() + resolveDeadline(deadline).toNanos();
+            return getTrackedBasicRecommendations(movieTitle)
+                    .flatMap(basicRecommendations -> Flux.fromIterable(basicRecommendations)
+                            .flatMapSequential(basicRec -> enrichWithinDeadline(basicRec, deadlineNanos), enrichmentConcurrency)
+                            .collectList())
+                    .map(EnhancedRecommendationResponse::new);
+        });
+    }
+
+    /**
+     * Streams the pipeline as events: "basic" with all recommendations as soon as Python
+     * answers, one "enriched" per recommendation in completion order, then "complete"
+     */
+    public Flux<StreamEvent> streamEnhancedRecommendations(String movieTitle, Duration deadline) {
+        return Flux.defer(() -> {
+            long deadlineNanos = System.nanoTime() + resolveDeadline(deadline).toNanos();
+            return getTrackedBasicRecommendations(movieTitle).flatMapMany(basicRecommendations -> {
+                List<EnhancedMovieRecommendation> basic = basicRecommendations.stream()
+                        .map(EnhancedRecommendationService::createBasicEnhancedRecommendation)
+                        .toList();
+                Flux<StreamEvent> enriched = Flux.range(0, basicRecommendations.size())
+                        .flatMap(index -> enrichWithinDeadline(basicRecommendations.get(index), deadlineNanos)
+                                .map(recommendation -> new StreamEvent("enriched",
+                                        Map.of("index", index, "recommendation", recommendation))),
+                                enrichmentConcurrency);
+                return Flux.concat(
+                        Mono.just(new StreamEvent("basic", Map.of("recommendations", basic))),
+                        enriched,
+                        Mono.just(new StreamEvent("complete", Map.of())));
+            });
+        });
+    }
+
+    /**
+     * Gets basic recommendations for a user request and counts them as demand for the next warm-up
+     */
+    private Mono<List<PythonRecommendation>> getTrackedBasicRecommendations(String movieTitle) {
+        return getBasicRecommendations(movieTitle)
+                .doOnNext(recommendations -> hotTitleTracker.recordRequest(movieTitle, recommendations));
+    }
+
+    /**
+     * Gets basic recommendations from the result cache, or joins an identical call that is
+     * already in flight. The embedded recommender answers first with
+     * recommendation.engine=embedded, and instead of Python while it is unavailable.
+     */
+    public Mono<List<PythonRecommendation>> getBasicRecommendations(String movieTitle) {
+        return Mono.defer(() -> {
+            if ("embedded".equalsIgnoreCase(recommendationEngine)) {
+                Optional<List<PythonRecommendation>> embedded = embeddedRecommender.recommend(movieTitle);
+                if (embedded.isPresent()) {
+                    enhancedRecommendationService.countEmbeddedServe(false);
+                    return Mono.just(embedded.get());
+                }
+            }
+            return getPythonRecommendations(movieTitle).onErrorResume(
+                    e -> embeddedFallbackEnabled
+                            && (e instanceof UpstreamUnavailableException || e instanceof WebClientRequestException
+                            || e instanceof WebClientResponseException),
+                    e -> embeddedRecommender.recommend(movieTitle)
+                            .map(fallback -> {
+                                enhancedRecommendationService.countEmbeddedServe(true);
+                                return Mono.just(fallback);
+                            })
+                            .orElseGet(() -> Mono.error(e)));
+        });
+    }
+
+    private Mono<List<PythonRecommendation>> getPythonRecommendations(String movieTitle) {
+        return Mono.defer(() -> {
+            RecommendationResultCache.CachedRecommendations cached = recommendationCache.get(movieTitle);
+            if (cached != null) {
+                if (cached.isNotFound()) {
+                    return Mono.error(new RuntimeException("Movie not found: " + cached.getNotFoundError()));
+                }
+                return Mono.just(cached.getRecommendations());
+            }
+            // suppressCancel: one subscriber going away must not cancel a call others share
+            return Mono.fromFuture(enhancedRecommendationService.basicRecommendationCalls().execute(TitleKey.normalize(movieTitle),
+                    () -> pythonRecommenderGuard.callAsync(() -> requestBasicRecommendations(movieTitle).toFuture())
+                            .thenApply(response -> toRecommendations(movieTitle, response))), true);
+        });
+    }
+
+    private Mono<ResponseEntity<PythonRecommendationResponse>> requestBasicRecommendations(String movieTitle) {
+        URI uri = UriComponentsBuilder
+                .fromHttpUrl(recommendationServiceUrl + "/recommend")
+                .queryParam("title", movieTitle)
+                .build()
+                .toUri();
+        return webClient.get().uri(uri).retrieve().toEntity(PythonRecommendationResponse.class);
+    }
+
+    private List<PythonRecommendation> toRecommendations(String movieTitle, ResponseEntity<PythonRecommendationResponse> entity) {
+        recommendationCache.onModelVersion(entity.getHeaders().getFirst(RecommendationResultCache.MODEL_VERSION_HEADER));
+        PythonRecommendationResponse response = entity.getBody();
+        if (response == null) {
+            throw new RuntimeException("Empty response from recommendation service");
+        }
+        if (response.error() != null) {
+            recommendationCache.putNotFound(movieTitle, response.error());
+            throw new RuntimeException("Movie not found: " + response.error());
+        }
+
+        List<PythonRecommendation> recommendations =
+                response.recommendations() != null ? response.recommendations() : new ArrayList<>();
+        recommendationCache.putRecommendations(movieTitle, recommendations);
+        return recommendations;
+    }
+
+    /**
+     * Enriches a recommendation, falling back to a partial one if the deadline expires first.
+     * The remaining time is measured when the lookup actually starts, since titles beyond the
+     * concurrency limit wait for a slot.
+     */
+    private Mono<EnhancedMovieRecommendation> enrichWithinDeadline(PythonRecommendation basicRec, long deadlineNanos) {
+        return Mono.defer(() -> {
+            EnhancedMovieRecommendation partial = EnhancedRecommendationService.createBasicEnhancedRecommendation(basicRec);
+            partial.setPartial(true);
+            long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return Mono.just(partial);
+            }
+            return getStreamingAvailability(basicRec.title())
+                    .map(streamingData -> EnhancedRecommendationService.enrichSingleRecommendation(basicRec, streamingData))
+                    .onErrorResume(e -> {
+                        System.err.println("Failed to enrich recommendation for " + basicRec.title() + ": " + e.getMessage());
+                        return Mono.just(EnhancedRecommendationService.createBasicEnhancedRecommendation(basicRec));
+                    })
+                    .timeout(Duration.ofNanos(remainingNanos), Mono.just(partial));
+        });
+    }
+
+    /**
+     * Gets streaming availability through the in-memory cache, the negative cache, the
+     * movie_metadata store and finally RapidAPI, in the blocking pipeline's order. Stale
+     * cache entries are served and refreshed in the background. Concurrent lookups of the
+     * same (title, country) share one call, whichever pipeline started it.
+     */
+    private Mono<StreamingAvailabilityData> getStreamingAvailability(String title) {
+        return Mono.defer(() -> {
+            TitleKey key = TitleKey.of(title, rapidApiCountry);
+            StreamingAvailabilityData cached = enhancedRecommendationService.getCachedStreamingAvailability(title, key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            if (negativeLookupCache.get(key) != null) {
+                return Mono.just(new StreamingAvailabilityData());
+            }
+            return Mono.fromFuture(enhancedRecommendationService.streamingAvailabilityCalls().execute(key,
+                    () -> loadStreamingAvailability(title, key).toFuture()), true);
+        });
+    }
+
+    private Mono<StreamingAvailabilityData> loadStreamingAvailability(String title, TitleKey key) {
+        // The store is JDBC-backed, so it must not be queried on an event-loop thread
+        return Mono.fromCallable(() -> enhancedRecommendationService.findStoredStreamingAvailability(key))
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(Mono.defer(() -> fetchStreamingAvailability(title, key)));
+    }
+
+    /**
+     * Gets streaming availability from RapidAPI. Waiting for a quota token would block the
+     * event loop, so a lookup without a token available right now is served empty data.
+     */
+    private Mono<StreamingAvailabilityData> fetchStreamingAvailability(String title, TitleKey key) {
+        if (rapidApiKey == null || rapidApiKey.isEmpty()
+                || !rapidApiGuard.isCallPermitted()
+                || !quotaManager.tryAcquireNow(RequestPriority.INTERACTIVE)) {
+            return Mono.just(new StreamingAvailabilityData());
+        }
+
+        URI searchUri = UriComponentsBuilder.fromUriString(rapidApiStreamingUrl + "/shows/search/title")
+                .queryParam("title", title)
+                .queryParam("country", rapidApiCountry)
+                .queryParam("show_type", "movie")
+                .build()
+                .toUri();
+
+        return Mono.fromFuture(rapidApiGuard.callAsync(() -> webClient.get().uri(searchUri)
+                        .header("X-RapidAPI-Key", rapidApiKey)
+                        .header("X-RapidAPI-Host", "streaming-availability.p.rapidapi.com")
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .toFuture()))
+                .map(body -> enhancedRecommendationService.recordStreamingAvailability(key, parse(body)))
+                .defaultIfEmpty(new StreamingAvailabilityData())
+                .onErrorResume(e -> {
+                    if (e instanceof UpstreamUnavailableException) {
+                        // Refused by the breaker or bulkhead before it was sent
+                        quotaManager.refund(RequestPriority.INTERACTIVE);
+                    } else {
+                        enhancedRecommendationService.recordStreamingAvailabilityFailure(title, key, e,
+                                e instanceof WebClientResponseException.TooManyRequests);
+                    }
+                    return Mono.just(new StreamingAvailabilityData());
+                });
+    }
+
+    private StreamingAvailabilityData parse(byte[] body) {
+        try {
+            return new StreamingAvailabilityParser(objectMapper.getFactory(), rapidApiCountry).parse(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Duration resolveDeadline(Duration requested) {
+        long deadlineMs = requested != null ? requested.toMillis() : defaultDeadlineMs;
+        return Duration.ofMillis(Math.max(0L, Math.min(deadlineMs, maxDeadlineMs)));
+    }
+
+    /**
+     * One event of {@link #streamEnhancedRecommendations(String, Duration)}
+     */
+    public static class StreamEvent {
+        private final String name;
+        private final Object data;
+
+        public StreamEvent(String name, Object data) {
+            this.name = name;
+            this.data = data;
+        }
+
+        public String getName() { return name; }
+
+        public Object getData() { return data; }
+    }
+}
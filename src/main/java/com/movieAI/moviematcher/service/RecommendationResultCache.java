@@ -0,0 +1,125 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.cache.BoundedTtlCache;
+import com.movieAI.moviematcher.cache.CacheStats;
+import com.movieAI.moviematcher.cache.TitleKey;
+import com.movieAI.moviematcher.dto.PythonRecommendation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of parsed Python /recommend results, keyed by normalized seed title.
+ * <p>
+ * Results only change when the model is retrained, so entries live long and are
+ * invalidated explicitly by model version instead: either the Python service reports a
+ * new version in the X-Model-Version response header, or an admin triggers invalidation.
+ * "Movie not found" answers are cached as negative entries with a shorter TTL.
+ * <p>
+ * Configuration:
+ * - recommendation.cache.max-entries: maximum cached seed titles (default 1000)
+ * - recommendation.cache.ttl-minutes: TTL of a positive result (default 1440)
+ * - recommendation.cache.negative-ttl-minutes: TTL of a "Movie not found" result (default 60)
+ */
+@Component
+public class RecommendationResultCache {
+
+    public static final String MODEL_VERSION_HEADER = "X-Model-Version";
+
+    private final BoundedTtlCache<String, CachedRecommendations> cache;
+    private final Duration negativeTtl;
+    private final LongAdder invalidations = new LongAdder();
+
+    private volatile String modelVersion;
+
+    public RecommendationResultCache(@Value("${recommendation.cache.max-entries:1000}") int maxEntries,
+                                     @Value("${recommendation.cache.ttl-minutes:1440}") long ttlMinutes,
+                                     @Value("${recommendation.cache.negative-ttl-minutes:60}") long negativeTtlMinutes) {
+        this.cache = new BoundedTtlCache<>(maxEntries, Duration.ofMinutes(ttlMinutes));
+        this.negativeTtl = Duration.ofMinutes(negativeTtlMinutes);
+    }
+
+    public CachedRecommendations get(String title) {
+        return cache.get(TitleKey.normalize(title));
+    }
+
+    public void putRecommendations(String title, List<PythonRecommendation> recommendations) {
+        cache.put(TitleKey.normalize(title), new CachedRecommendations(recommendations, null));
+    }
+
+    public void putNotFound(String title, String error) {
+        cache.put(TitleKey.normalize(title), new CachedRecommendations(null, error), negativeTtl);
+    }
+
+    /**
+     * Records the model version reported by the Python service, dropping every cached
+     * result when it differs from the version the cache was filled with
+     */
+    public void onModelVersion(String reportedVersion) {
+        if (reportedVersion == null || reportedVersion.isBlank()) {
+            return;
+        }
+        if (!Objects.equals(modelVersion, reportedVersion)) {
+            synchronized (this) {
+                if (!Objects.equals(modelVersion, reportedVersion)) {
+                    if (modelVersion != null) {
+                        System.out.println("Recommendation model changed from " + modelVersion + " to "
+                                + reportedVersion + ", invalidating cached recommendations");
+                        invalidateAll();
+                    }
+                    modelVersion = reportedVersion;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result. When no new version is given, the next version reported
+     * by the Python service becomes current.
+     */
+    public void invalidate(String newModelVersion) {
+        synchronized (this) {
+            invalidateAll();
+            modelVersion = newModelVersion;
+        }
+    }
+
+    private void invalidateAll() {
+        cache.invalidateAll();
+        invalidations.increment();
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("modelVersion", modelVersion);
+        result.put("invalidations", invalidations.sum());
+        result.put("cache", stats);
+        return result;
+    }
+
+    /**
+     * A cached /recommend answer: either a recommendation list or a "Movie not found" error
+     */
+    public static class CachedRecommendations {
+        private final List<PythonRecommendation> recommendations;
+        private final String notFoundError;
+
+        private CachedRecommendations(List<PythonRecommendation> recommendations, String notFoundError) {
+            this.recommendations = recommendations;
+            this.notFoundError = notFoundError;
+        }
+
+        public List<PythonRecommendation> getRecommendations() { return recommendations; }
+
+        public String getNotFoundError() { return notFoundError; }
+
+        public boolean isNotFound() { return notFoundError != null; }
+    }
+}
@@ -0,0 +1,210 @@
+package com.movieAI.moviematcher.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental parser for RapidAPI /shows/search/title responses.
+ * <p>
+ * The response is an array of every matching show, each carrying streaming options for
+ * every country. Only the first show and the configured country are needed, so this
+ * parser reads tokens straight from the response stream, skips the streaming options of
+ * other countries without materializing them, and stops after the first result instead
+ * of building a full JsonNode tree of the body.
+ * <p>
+ * An empty array means RapidAPI has no match and yields empty data; a body that is not an
+ * array at all is rejected with an IOException so callers can tell it apart from "no match".
+ */
+public class StreamingAvailabilityParser {
+
+    private static final String DEFAULT_POSTER_URL = "https://example.com/default-poster.jpg"; //placeholder
+
+    private final JsonFactory jsonFactory;
+    private final String country;
+
+    public StreamingAvailabilityParser(JsonFactory jsonFactory, String country) {
+        this.jsonFactory = jsonFactory;
+        this.country = country;
+    }
+
+    public EnhancedRecommendationService.StreamingAvailabilityData parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    public EnhancedRecommendationService.StreamingAvailabilityData parse(byte[] body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    private EnhancedRecommendationService.StreamingAvailabilityData parse(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+
+        // Unwrap double-encoded JSON (the whole body delivered as a JSON string)
+        while (token == JsonToken.VALUE_STRING) {
+            String inner = parser.getText();
+            parser.close();
+            parser = jsonFactory.createParser(inner);
+            token = parser.nextToken();
+        }
+
+        try {
+            // Expected to be an array at root; only its first element is read
+            if (token != JsonToken.START_ARRAY) {
+                throw new IOException("Unexpected RapidAPI search response, expected an array but got " + token);
+            }
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return new EnhancedRecommendationService.StreamingAvailabilityData();
+            }
+            return parseShow(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    private EnhancedRecommendationService.StreamingAvailabilityData parseShow(JsonParser parser) throws IOException {
+        String posterUrl = DEFAULT_POSTER_URL;
+        List<String> streamingPlatforms = new ArrayList<>();
+        Integer releaseYear = null;
+        Integer releaseDateYear = null;
+        String imdbId = null;
+        List<String> genres = new ArrayList<>();
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "imageSet" -> posterUrl = parsePosterUrl(parser, value);
+                case "streamingOptions" -> parseStreamingOptions(parser, value, streamingPlatforms);
+                case "releaseYear" -> {
+                    if (value == JsonToken.VALUE_NUMBER_INT) {
+                        releaseYear = parser.getIntValue();
+                    }
+                }
+                case "releaseDate" -> {
+                    if (value == JsonToken.VALUE_STRING) {
+                        releaseDateYear = parseYear(parser.getText());
+                    }
+                }
+                case "imdbId" -> {
+                    if (value == JsonToken.VALUE_STRING && !parser.getText().isEmpty()) {
+                        imdbId = parser.getText();
+                    }
+                }
+                case "genres" -> parseNames(parser, value, genres);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new EnhancedRecommendationService.StreamingAvailabilityData(posterUrl, streamingPlatforms,
+                releaseYear != null ? releaseYear : releaseDateYear, imdbId, genres);
+    }
+
+    private String parsePosterUrl(JsonParser parser, JsonToken value) throws IOException {
+        String w480 = null;
+        String w300 = null;
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return DEFAULT_POSTER_URL;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("verticalPoster".equals(field) && token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String size = parser.currentName();
+                    JsonToken url = parser.nextToken();
+                    if ("w480".equals(size) && url == JsonToken.VALUE_STRING) {
+                        w480 = parser.getText();
+                    } else if ("w300".equals(size) && url == JsonToken.VALUE_STRING) {
+                        w300 = parser.getText();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        if (w480 != null) {
+            return w480;
+        }
+        return w300 != null ? w300 : DEFAULT_POSTER_URL;
+    }
+
+    private void parseStreamingOptions(JsonParser parser, JsonToken value, List<String> platforms) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String optionsCountry = parser.currentName();
+            JsonToken options = parser.nextToken();
+            if (!country.equals(optionsCountry) || options != JsonToken.START_ARRAY) {
+                // Other countries are skipped without being materialized
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    if ("service".equals(field) && token == JsonToken.START_OBJECT) {
+                        String serviceName = readName(parser);
+                        if (serviceName != null && !platforms.contains(serviceName)) {
+                            platforms.add(serviceName);
+                        }
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            }
+        }
+    }
+
+    private void parseNames(JsonParser parser, JsonToken value, List<String> names) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            String name = readName(parser);
+            if (name != null) {
+                names.add(name);
+            }
+        }
+    }
+
+    /**
+     * Reads the "name" field of the current object and consumes it up to its END_OBJECT
+     */
+    private String readName(JsonParser parser) throws IOException {
+        String name = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("name".equals(field) && token == JsonToken.VALUE_STRING) {
+                name = parser.getText();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return name == null || name.isEmpty() ? null : name;
+    }
+
+    private static Integer parseYear(String releaseDate) {
+        try {
+            return Integer.parseInt(releaseDate.substring(0, 4));
+        } catch (Exception ignored) {
+            return null;
+        }
+    }
+}
@@ -7,10 +7,13 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
+import com.movieAI.moviematcher.config.BoundedPasswordEncoder;
 import com.movieAI.moviematcher.model.Users;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Service
 public class UserService {
 
@@ -23,24 +26,47 @@ public class UserService {
     @Autowired
     AuthenticationManager authenticationManager;
 
-    private BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(12);
+    @Autowired
+    private MyUserDetailsService userDetailsService;
+
+    @Autowired
+    private LoginAttemptThrottle loginAttemptThrottle;
+
+    // Shared with the authentication provider; hashes on the bounded password-hashing pool
+    @Autowired
+    private BoundedPasswordEncoder encoder;
 
     public Users register(Users user){
         user.setPassword(encoder.encode(user.getPassword()));
         user.setEmail(user.getEmail());
-        return userRepository.save(user);
+        Users saved = userRepository.save(user);
+        // The JWT filter caches principals by username
+        userDetailsService.evict(saved.getUsername());
+        return saved;
     }
 
     public String login(Users user){
         return "Login successful for user: " + user.getUsername();
     }
 
-    public String verify(Users user) {
+    /**
+     * Checks the credentials and returns a JWT. Throws LoginThrottledException when the
+     * username, IP or both together have too many recent failures, and
+     * PasswordHashingRejectedException when no hashing capacity is left. The attempt is
+     * counted against the throttle before the password is hashed and given back unless the
+     * password turns out to be wrong.
+     */
+    public String verify(Users user, String clientIp) {
+        loginAttemptThrottle.reserve(user.getUsername(), clientIp);
+        boolean settled = false;
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(user.getUsername(), user.getPassword()));
 
             if (authentication.isAuthenticated()) {
+                loginAttemptThrottle.recordSuccess(user.getUsername(), clientIp);
+                settled = true;
+
                 // IMPORTANT: Fetch the full user from database to get the email
                 Users fullUser = userRepository.findByUsername(user.getUsername());
 
@@ -52,9 +78,31 @@ public class UserService {
                 return jwtService.generateToken(fullUser.getUsername(), fullUser.getEmail());
             }
         } catch (AuthenticationException e) {
+            // The provider wraps some failures; saturation is not a wrong password
+            if (e.getCause() instanceof BoundedPasswordEncoder.PasswordHashingRejectedException rejected) {
+                throw rejected;
+            }
+            loginAttemptThrottle.recordFailure(user.getUsername(), clientIp);
+            settled = true;
             throw new RuntimeException("Invalid credentials", e);
+        } finally {
+            if (!settled) {
+                loginAttemptThrottle.release(user.getUsername(), clientIp);
+            }
         }
 
         return "bad";
     }
+
+    /**
+     * Password hashing, login throttling, JWT and principal cache counters
+     */
+    public Map<String, Object> getAuthMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("passwordHashing", encoder.getStats());
+        metrics.put("loginThrottle", loginAttemptThrottle.getStats());
+        metrics.put("jwt", jwtService.getStats());
+        metrics.put("principalCache", userDetailsService.getStats());
+        return metrics;
+    }
 }
@@ -0,0 +1,160 @@
+package com.movieAI.moviematcher.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedTtlCacheTest {
+
+    private static final Duration LONG = Duration.ofMinutes(10);
+    private static final Duration SHORT = Duration.ofMillis(50);
+
+    @Test
+    void returnsStoredValuesUntilInvalidated() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, LONG);
+        cache.put("heat", "1995");
+
+        assertEquals("1995", cache.get("heat"));
+        cache.invalidate("heat");
+        assertNull(cache.get("heat"));
+    }
+
+    @Test
+    void fullCacheEvictsTheLeastUsedEntry() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, LONG);
+        cache.put("popular", "a");
+        cache.put("one-off", "b");
+        for (int i = 0; i < 5; i++) {
+            cache.get("popular");
+        }
+
+        cache.put("new", "c");
+
+        assertEquals(2, cache.size());
+        assertEquals("a", cache.get("popular"));
+        assertNull(cache.get("one-off"));
+        assertEquals("c", cache.get("new"));
+        assertEquals(1, cache.stats().getEvictions());
+    }
+
+    @Test
+    void amongEquallyUsedEntriesTheLeastRecentlyUsedIsEvicted() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, LONG);
+        cache.put("a", "a");
+        cache.put("b", "b");
+
+        cache.put("c", "c");
+
+        assertNull(cache.get("a"));
+        assertEquals("b", cache.get("b"));
+        assertEquals("c", cache.get("c"));
+    }
+
+    @Test
+    void oneOffEntriesDoNotDisplacePopularOnes() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(2, LONG);
+        cache.put("a", "a");
+        cache.put("b", "b");
+        cache.get("a");
+        cache.get("b");
+
+        cache.put("one-off", "c");
+
+        assertEquals("a", cache.get("a"));
+        assertEquals("b", cache.get("b"));
+        assertNull(cache.get("one-off"));
+    }
+
+    @Test
+    void entriesExpireAfterTheirTtl() throws InterruptedException {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, LONG);
+        cache.put("short", "a", SHORT);
+        cache.put("long", "b");
+
+        Thread.sleep(SHORT.toMillis() * 2);
+
+        assertNull(cache.get("short"));
+        assertNull(cache.lookup("short"));
+        assertEquals("b", cache.get("long"));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+
+    @Test
+    void graceKeepsExpiredEntriesForLookupOnly() throws InterruptedException {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, SHORT, LONG);
+        cache.put("heat", "1995");
+        CachedValue<String> fresh = cache.lookup("heat");
+        assertFalse(fresh.stale());
+        assertTrue(fresh.lifetimeFraction() < 1.0);
+
+        Thread.sleep(SHORT.toMillis() * 2);
+
+        assertNull(cache.get("heat"));
+        CachedValue<String> stale = cache.lookup("heat");
+        assertEquals("1995", stale.value());
+        assertTrue(stale.stale());
+        assertTrue(stale.lifetimeFraction() >= 1.0);
+        assertEquals(1, cache.stats().getStaleHits());
+    }
+
+    @Test
+    void refreshedEntryKeepsItsPopularity() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, LONG);
+        cache.put("heat", "old");
+        cache.get("heat");
+        cache.get("heat");
+
+        cache.put("heat", "new");
+
+        CachedValue<String> value = cache.lookup("heat");
+        assertEquals("new", value.value());
+        assertEquals(3, value.frequency());
+    }
+
+    @Test
+    void getOrPutStoresOnlyWhenAbsent() {
+        BoundedTtlCache<String, StringBuilder> cache = new BoundedTtlCache<>(10, LONG);
+        StringBuilder first = new StringBuilder("first");
+
+        assertSame(first, cache.getOrPut("key", first, LONG));
+        assertSame(first, cache.getOrPut("key", new StringBuilder("second"), LONG));
+    }
+
+    @Test
+    void nullsAndNonPositiveTtlsAreNotStored() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, LONG);
+        cache.put(null, "a");
+        cache.put("b", null);
+        cache.put("c", "c", Duration.ZERO);
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void statsCountHitsAndMisses() {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, LONG);
+        cache.put("heat", "1995");
+        cache.get("heat");
+        cache.get("heat");
+        cache.get("alien");
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2.0 / 3, stats.getHitRate(), 1e-9);
+        assertEquals(1, stats.getSize());
+        assertEquals(10, stats.getMaxSize());
+    }
+
+    @Test
+    void rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedTtlCache<String, String>(0, LONG));
+    }
+}
@@ -0,0 +1,137 @@
+package com.movieAI.moviematcher.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> calls = new SingleFlight<>();
+
+    @Test
+    void callersOfAKeyInFlightShareOneCall() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<String> leader = calls.execute("heat", () -> {
+            started.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> follower = calls.execute("heat", () -> {
+            started.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertSame(leader, follower);
+        assertEquals(1, started.get());
+        assertEquals(1, calls.getInFlightCount());
+        upstream.complete("1995");
+        assertEquals("1995", follower.join());
+        assertEquals(1, calls.getLeaderCount());
+        assertEquals(1, calls.getCoalescedCount());
+    }
+
+    @Test
+    void keyIsReleasedOnceTheCallCompletes() {
+        CompletableFuture<String> first = calls.execute("heat", () -> CompletableFuture.completedFuture("1995"));
+        CompletableFuture<String> second = calls.execute("heat", () -> CompletableFuture.completedFuture("again"));
+
+        assertNotSame(first, second);
+        assertEquals("again", second.join());
+        assertEquals(0, calls.getInFlightCount());
+        assertEquals(0, calls.getCoalescedCount());
+    }
+
+    @Test
+    void differentKeysDoNotShare() {
+        CompletableFuture<String> heat = calls.execute("heat", CompletableFuture::new);
+        CompletableFuture<String> alien = calls.execute("alien", CompletableFuture::new);
+
+        assertNotSame(heat, alien);
+        assertEquals(2, calls.getInFlightCount());
+    }
+
+    @Test
+    void failuresReachEveryCallerAndReleaseTheKey() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+        CompletableFuture<String> leader = calls.execute("heat", () -> upstream);
+        CompletableFuture<String> follower = calls.execute("heat", CompletableFuture::new);
+
+        upstream.completeExceptionally(new IOException("down"));
+
+        ExecutionException e = assertThrows(ExecutionException.class, follower::get);
+        assertInstanceOf(IOException.class, e.getCause());
+        assertTrue(leader.isCompletedExceptionally());
+        assertEquals(0, calls.getInFlightCount());
+    }
+
+    @Test
+    void callThatThrowsWhileStartingFailsTheFuture() {
+        CompletableFuture<String> future = calls.execute("heat", () -> {
+            throw new IllegalStateException("no connection");
+        });
+
+        assertTrue(future.isCompletedExceptionally());
+        assertEquals(0, calls.getInFlightCount());
+    }
+
+    @Test
+    void executeSyncRunsOneCallForConcurrentCallers() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch allWaiting = new CountDownLatch(threads);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    allWaiting.countDown();
+                    return calls.executeSync("heat", () -> {
+                        upstreamCalls.incrementAndGet();
+                        release.await();
+                        return "1995";
+                    });
+                }));
+            }
+            assertTrue(allWaiting.await(5, TimeUnit.SECONDS));
+            // Give every caller time to join the leader before its call returns
+            while (calls.getLeaderCount() + calls.getCoalescedCount() < threads) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("1995", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, upstreamCalls.get());
+            assertEquals(threads - 1, calls.getCoalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void executeSyncRethrowsTheCallersCheckedException() {
+        IOException thrown = assertThrows(IOException.class, () -> calls.executeSync("heat", () -> {
+            throw new IOException("down");
+        }));
+        assertEquals("down", thrown.getMessage());
+    }
+}
@@ -0,0 +1,185 @@
+package com.movieAI.moviematcher.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Measures recall and latency of an {@link HnswIndex} against exact search.
+ * <p>
+ * Queries are the stored vectors of randomly sampled nodes, and the query node itself is left
+ * out of both result lists, as in the recommendation path. For each efSearch value, recall@k
+ * is the share of the exact top-k that the approximate search also returns, and latencies are
+ * per query. A warm-up pass runs first so the JIT has compiled both search paths.
+ * <p>
+ * Builds the index the way {@code EmbeddedRecommender} does, from a catalog snapshot or JSON
+ * export: the catalog's own vectors if it has them, TF-IDF projections otherwise. Without a
+ * path it indexes random unit vectors.
+ * <p>
+ * Command line: HnswBenchmark [catalog .json or .snapshot, or "" for random vectors] [queries] [k] [m] [ef-construction]
+ */
+public final class HnswBenchmark {
+
+    private static final int RANDOM_VECTORS = 20_000;
+    private static final int DIMENSION = 128;
+
+    private HnswBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        Path path = args.length > 0 && !args[0].isBlank() ? Paths.get(args[0]) : null;
+        int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int m = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        int efConstruction = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+
+        long start = System.nanoTime();
+        HnswIndex index = path != null ? buildFromCatalog(path, m, efConstruction) : buildRandom(m, efConstruction);
+        System.out.println("Built HNSW index over " + index.size() + " vectors (dimension " + index.getDimension()
+                + ", m " + m + ", efConstruction " + efConstruction + ") in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        Map<String, Object> report = run(index, queries, k, new int[]{k, 16, 32, 64, 128, 256}, 42L);
+        System.out.println("Recall@" + k + " against exact search, " + report.get("queries") + " queries");
+        System.out.printf("  %-10s %8s %12s %12s %12s%n", "search", "recall", "mean us", "p50 us", "p99 us");
+        print("exact", 1.0, castMap(report.get("exact")));
+        for (Object row : (List<?>) report.get("hnsw")) {
+            Map<String, Object> stats = castMap(row);
+            print("ef " + stats.get("efSearch"), (Double) stats.get("recall"), stats);
+        }
+    }
+
+    private static HnswIndex buildFromCatalog(Path path, int m, int efConstruction) throws IOException {
+        MovieCatalog catalog = path.toString().endsWith(".json")
+                ? MovieCatalog.load(path, new ObjectMapper())
+                : MappedMovieCatalog.open(path);
+        TfIdfIndex tfIdfIndex = catalog.vectorDimension() > 0 ? null : TfIdfIndex.build(catalog);
+        int dimension = catalog.vectorDimension() > 0 ? catalog.vectorDimension() : DIMENSION;
+        HnswIndex index = new HnswIndex(dimension, m, efConstruction, 64, catalog.size(), TfIdfIndex.PROJECTION_SEED);
+        for (int i = 0; i < catalog.size(); i++) {
+            index.add(tfIdfIndex == null
+                    ? catalog.vector(i)
+                    : tfIdfIndex.randomProjection(i, dimension, TfIdfIndex.PROJECTION_SEED));
+        }
+        return index;
+    }
+
+    private static HnswIndex buildRandom(int m, int efConstruction) {
+        SplittableRandom random = new SplittableRandom(7L);
+        HnswIndex index = new HnswIndex(DIMENSION, m, efConstruction, 64, RANDOM_VECTORS, 7L);
+        for (int i = 0; i < RANDOM_VECTORS; i++) {
+            float[] vector = new float[DIMENSION];
+            for (int d = 0; d < DIMENSION; d++) {
+                vector[d] = (float) (random.nextDouble() * 2 - 1);
+            }
+            index.add(vector);
+        }
+        return index;
+    }
+
+    private static void print(String name, double recall, Map<String, Object> stats) {
+        System.out.printf("  %-10s %8.3f %12s %12s %12s%n", name, recall,
+                stats.get("meanMicros"), stats.get("p50Micros"), stats.get("p99Micros"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> castMap(Object value) {
+        return (Map<String, Object>) value;
+    }
+
+    public static Map<String, Object> run(HnswIndex index, int queryCount, int k, int[] efValues, long seed) {
+        int size = index.size();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("indexSize", size);
+        report.put("queries", Math.min(queryCount, size));
+        report.put("k", k);
+        if (size == 0) {
+            return report;
+        }
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int queries = Math.min(queryCount, size);
+        int[] queryNodes = new int[queries];
+        float[][] queryVectors = new float[queries][];
+        for (int q = 0; q < queries; q++) {
+            queryNodes[q] = random.nextInt(size);
+            queryVectors[q] = index.vector(queryNodes[q]);
+        }
+
+        for (float[] query : queryVectors) {
+            index.exactSearch(query, k + 1);
+            for (int ef : efValues) {
+                index.search(query, k + 1, ef);
+            }
+        }
+
+        List<Set<Integer>> exactResults = new ArrayList<>(queries);
+        long[] exactNanos = new long[queries];
+        for (int q = 0; q < queries; q++) {
+            long start = System.nanoTime();
+            List<ScoredMovie> exact = index.exactSearch(queryVectors[q], k + 1);
+            exactNanos[q] = System.nanoTime() - start;
+            exactResults.add(withoutNode(exact, queryNodes[q], k));
+        }
+        report.put("exact", latencyStats(exactNanos));
+
+        List<Map<String, Object>> approximate = new ArrayList<>();
+        for (int ef : efValues) {
+            long[] nanos = new long[queries];
+            long found = 0;
+            long expected = 0;
+            for (int q = 0; q < queries; q++) {
+                long start = System.nanoTime();
+                List<ScoredMovie> result = index.search(queryVectors[q], k + 1, ef);
+                nanos[q] = System.nanoTime() - start;
+                Set<Integer> exact = exactResults.get(q);
+                expected += exact.size();
+                for (int node : withoutNode(result, queryNodes[q], k)) {
+                    if (exact.contains(node)) {
+                        found++;
+                    }
+                }
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("efSearch", ef);
+            row.put("recall", expected > 0 ? Math.round(1000.0 * found / expected) / 1000.0 : 1.0);
+            row.putAll(latencyStats(nanos));
+            approximate.add(row);
+        }
+        report.put("hnsw", approximate);
+        return report;
+    }
+
+    private static Set<Integer> withoutNode(List<ScoredMovie> results, int node, int k) {
+        Set<Integer> ids = new HashSet<>();
+        for (ScoredMovie scored : results) {
+            if (scored.index() != node && ids.size() < k) {
+                ids.add(scored.index());
+            }
+        }
+        return ids;
+    }
+
+    private static Map<String, Object> latencyStats(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        long total = 0;
+        for (long value : sorted) {
+            total += value;
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("meanMicros", Math.round(total / 1000.0 / sorted.length * 10) / 10.0);
+        stats.put("p50Micros", Math.round(sorted[sorted.length / 2] / 100.0) / 10.0);
+        stats.put("p99Micros", Math.round(sorted[Math.min(sorted.length - 1, (int) (sorted.length * 0.99))] / 100.0) / 10.0);
+        return stats;
+    }
+}
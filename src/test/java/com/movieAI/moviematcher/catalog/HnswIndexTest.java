@@ -0,0 +1,103 @@
+package com.movieAI.moviematcher.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+    private static final int DIMENSION = 16;
+    private static final int COUNT = 1000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void approximateSearchFindsMostExactNeighbours() {
+        float[][] vectors = randomVectors(COUNT, 4L);
+        HnswIndex index = build(vectors);
+        float[][] queries = randomVectors(100, 5L);
+        int found = 0;
+        for (float[] query : queries) {
+            List<Integer> exact = index.exactSearch(query, 10).stream().map(ScoredMovie::index).toList();
+            found += (int) index.search(query, 10).stream().filter(scored -> exact.contains(scored.index())).count();
+        }
+        double recall = found / (queries.length * 10.0);
+        assertTrue(recall >= 0.9, "recall@10 was " + recall);
+    }
+
+    @Test
+    void restoredGraphAnswersLikeTheBuiltOne() throws IOException {
+        float[][] vectors = randomVectors(COUNT, 1L);
+        HnswIndex built = build(vectors);
+        Path graph = directory.resolve("catalog.snapshot.hnsw");
+        built.writeGraph(graph, 7L);
+
+        HnswIndex restored = HnswIndex.readGraph(graph, 7L, DIMENSION, 8, 100, 32, COUNT, 42L, i -> vectors[i])
+                .orElseThrow();
+
+        assertEquals(COUNT, restored.size());
+        for (int query = 0; query < 50; query++) {
+            assertEquals(built.search(vectors[query], 10), restored.search(vectors[query], 10));
+        }
+    }
+
+    @Test
+    void graphOfAnotherVersionOrShapeIsIgnored() throws IOException {
+        float[][] vectors = randomVectors(COUNT, 2L);
+        Path graph = directory.resolve("catalog.snapshot.hnsw");
+        build(vectors).writeGraph(graph, 7L);
+
+        assertEquals(Optional.empty(),
+                HnswIndex.readGraph(graph, 8L, DIMENSION, 8, 100, 32, COUNT, 42L, i -> vectors[i]));
+        assertEquals(Optional.empty(),
+                HnswIndex.readGraph(graph, 7L, DIMENSION, 12, 100, 32, COUNT, 42L, i -> vectors[i]));
+        assertEquals(Optional.empty(),
+                HnswIndex.readGraph(graph, 7L, DIMENSION, 8, 100, 32, COUNT - 1, 42L, i -> vectors[i]));
+        assertEquals(Optional.empty(),
+                HnswIndex.readGraph(directory.resolve("missing.hnsw"), 7L, DIMENSION, 8, 100, 32, COUNT, 42L,
+                        i -> vectors[i]));
+    }
+
+    @Test
+    void truncatedGraphIsRejected() throws IOException {
+        float[][] vectors = randomVectors(COUNT, 3L);
+        Path graph = directory.resolve("catalog.snapshot.hnsw");
+        build(vectors).writeGraph(graph, 7L);
+        byte[] bytes = Files.readAllBytes(graph);
+        Files.write(graph, Arrays.copyOf(bytes, bytes.length / 2));
+
+        assertThrows(IOException.class,
+                () -> HnswIndex.readGraph(graph, 7L, DIMENSION, 8, 100, 32, COUNT, 42L, i -> vectors[i]));
+    }
+
+    private static HnswIndex build(float[][] vectors) {
+        HnswIndex index = new HnswIndex(DIMENSION, 8, 100, 32, vectors.length, 42L);
+        for (float[] vector : vectors) {
+            index.add(vector);
+        }
+        return index;
+    }
+
+    private static float[][] randomVectors(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        float[][] vectors = new float[count][DIMENSION];
+        for (float[] vector : vectors) {
+            for (int i = 0; i < DIMENSION; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+}
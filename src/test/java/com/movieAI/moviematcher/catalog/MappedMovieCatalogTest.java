@@ -0,0 +1,105 @@
+package com.movieAI.moviematcher.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedMovieCatalogTest {
+
+    private static final int DIMENSION = 8;
+
+    private final HeapMovieCatalog source = new HeapMovieCatalog(List.of(
+            new CatalogMovie("Heat", "A crew of thieves and the detective who hunts them", List.of("Action", "Crime"), 50, 8.0),
+            new CatalogMovie("Amélie", "Une serveuse naïve à Montmartre — 愛", List.of("Comedy", "Romance"), 40, 7.9),
+            new CatalogMovie("Heat", "A heist remake nobody asked for", List.of("Action"), 90, 5.5),
+            new CatalogMovie("The Thing", null, List.of(), 30, 8.1),
+            new CatalogMovie("Alien", "A crew meets a creature in deep space", List.of("Horror", "Science Fiction"), 60, 8.5)));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void moviesSurviveTheRoundTrip() throws IOException {
+        MappedMovieCatalog catalog = MappedMovieCatalog.open(write());
+
+        assertEquals(source.size(), catalog.size());
+        for (int i = 0; i < source.size(); i++) {
+            CatalogMovie expected = source.get(i);
+            CatalogMovie actual = catalog.get(i);
+            assertEquals(expected.getTitle(), actual.getTitle());
+            assertEquals(expected.getOverview(), actual.getOverview());
+            assertEquals(expected.getGenres(), actual.getGenres());
+            assertEquals(expected.getPopularity(), actual.getPopularity());
+            assertEquals(expected.getVoteAverage(), actual.getVoteAverage());
+        }
+        assertEquals("Une serveuse naïve à Montmartre — 愛", catalog.get(1).getOverview());
+        assertNull(catalog.get(3).getOverview());
+        assertEquals(List.of(), catalog.get(3).getGenres());
+    }
+
+    @Test
+    void indexOfMatchesTheHeapCatalog() throws IOException {
+        MappedMovieCatalog catalog = MappedMovieCatalog.open(write());
+
+        // Duplicate titles resolve to the most popular movie, as in the heap catalog
+        assertEquals(2, catalog.indexOf("Heat"));
+        assertEquals(source.indexOf("Heat"), catalog.indexOf("Heat"));
+        assertEquals(3, catalog.indexOf("  the   THING "));
+        assertEquals(1, catalog.indexOf("AMÉLIE"));
+        assertEquals(-1, catalog.indexOf("Aliens"));
+        assertEquals(-1, catalog.indexOf(null));
+    }
+
+    @Test
+    void vectorsAreTheTfIdfProjectionAndVersionIsReturned() throws IOException {
+        Path snapshot = directory.resolve("catalog.snapshot");
+        long version = CatalogSnapshotWriter.write(source, DIMENSION, snapshot);
+        MappedMovieCatalog catalog = MappedMovieCatalog.open(snapshot);
+
+        TfIdfIndex tfIdf = TfIdfIndex.build(source);
+        assertEquals(DIMENSION, catalog.vectorDimension());
+        for (int i = 0; i < source.size(); i++) {
+            assertArrayEquals(tfIdf.randomProjection(i, DIMENSION, TfIdfIndex.PROJECTION_SEED), catalog.vector(i));
+        }
+        assertEquals(version, catalog.getVersion());
+        assertEquals(Files.size(snapshot), catalog.getFileSize());
+    }
+
+    @Test
+    void truncatedSnapshotIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(write());
+        Path truncated = directory.resolve("truncated.snapshot");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - Float.BYTES));
+
+        assertThrows(IOException.class, () -> MappedMovieCatalog.open(truncated));
+    }
+
+    @Test
+    void fileWithoutTheMagicIsRejected() throws IOException {
+        byte[] bytes = Files.readAllBytes(write());
+        bytes[0] = 'X';
+        Path wrongMagic = directory.resolve("wrong-magic.snapshot");
+        Files.write(wrongMagic, bytes);
+
+        assertThrows(IOException.class, () -> MappedMovieCatalog.open(wrongMagic));
+        Path tooShort = directory.resolve("short.snapshot");
+        Files.write(tooShort, new byte[16]);
+        assertThrows(IOException.class, () -> MappedMovieCatalog.open(tooShort));
+    }
+
+    private Path write() throws IOException {
+        Path snapshot = directory.resolve("catalog.snapshot");
+        CatalogSnapshotWriter.write(source, DIMENSION, snapshot);
+        return snapshot;
+    }
+}
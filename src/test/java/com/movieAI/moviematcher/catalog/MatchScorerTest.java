@@ -0,0 +1,110 @@
+package com.movieAI.moviematcher.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchScorerTest {
+
+    private static final double DELTA = 1e-6;
+
+    private static final int HEAT = 0;
+    private static final int NOTEBOOK = 1;
+    private static final int ALIEN = 2;
+    private static final int TITANIC = 3;
+    private static final int UNTAGGED = 4;
+
+    private final GenreMasks masks = GenreMasks.build(new HeapMovieCatalog(List.of(
+            new CatalogMovie("Heat", null, List.of("Action", "Crime"), 50, 8.0),
+            new CatalogMovie("The Notebook", null, List.of("Romance", "Drama"), 40, 7.0),
+            new CatalogMovie("Alien", null, List.of("Horror", "Science Fiction"), 60, 8.5),
+            new CatalogMovie("Titanic", null, List.of("romance", " Drama ", "Action"), 90, 7.5),
+            new CatalogMovie("Untagged", null, List.of(), 10, 9.0))));
+
+    private final Map<String, Integer> actionFan = Map.of("Action", 1, "Crime", 2);
+    private final Map<String, Integer> romanceFan = Map.of("Romance", 1, "Drama", 2);
+
+    @Test
+    void rankWeightsRunFromOneForTheFavouriteToOneOverN() {
+        float[] weights = MatchScorer.rankWeights(masks, Map.of("Action", 1, "Drama", 2, "Romance", 3));
+
+        assertEquals(1f, weights[masks.genreId("Action")], DELTA);
+        assertEquals(2f / 3, weights[masks.genreId("Drama")], DELTA);
+        assertEquals(1f / 3, weights[masks.genreId("Romance")], DELTA);
+        assertEquals(0f, weights[masks.genreId("Horror")], DELTA);
+    }
+
+    @Test
+    void rankWeightsIgnoreGapsAndUnknownGenres() {
+        float[] weights = MatchScorer.rankWeights(masks, Map.of("Crime", 1, "Western", 4, "Horror", 9));
+
+        // Three ranked genres, so positions weigh 1, 2/3 and 1/3 whatever the rank numbers are
+        assertEquals(1f, weights[masks.genreId("Crime")], DELTA);
+        assertEquals(1f / 3, weights[masks.genreId("Horror")], DELTA);
+        assertEquals(-1, masks.genreId("Western"));
+    }
+
+    @Test
+    void rankWeightsOfNoRankingAreZero() {
+        assertArrayEquals(new float[GenreMasks.MAX_GENRES], MatchScorer.rankWeights(masks, null));
+        assertArrayEquals(new float[GenreMasks.MAX_GENRES], MatchScorer.rankWeights(masks, Map.of()));
+    }
+
+    @Test
+    void scoreBlendsMeanAndMinimumPreferenceAndAddsQuality() {
+        MatchScorer scorer = new MatchScorer(masks, actionFan, romanceFan, 0.5, 0.1);
+
+        // Titanic: user 1 likes Action (1), user 2 likes Romance (1) and Drama (0.5), three genres
+        double p1 = 1.0 / Math.sqrt(3);
+        double p2 = 1.5 / Math.sqrt(3);
+        assertEquals(p1, scorer.user1Preference(TITANIC), DELTA);
+        assertEquals(p2, scorer.user2Preference(TITANIC), DELTA);
+        assertEquals(0.5 * (p1 + p2) / 2 + 0.5 * Math.min(p1, p2) + 0.1 * 7.5 / 10, scorer.score(TITANIC), DELTA);
+
+        // Heat: only user 1 likes it, so the minimum term is zero
+        double heat = 1.5 / Math.sqrt(2);
+        assertEquals(0.5 * heat / 2 + 0.1 * 8.0 / 10, scorer.score(HEAT), DELTA);
+    }
+
+    @Test
+    void moviesMatchingNeitherUserScoreZero() {
+        MatchScorer scorer = new MatchScorer(masks, actionFan, romanceFan, 0.5, 0.1);
+
+        assertEquals(0.0, scorer.score(ALIEN));
+        assertEquals(0.0, scorer.score(UNTAGGED));
+    }
+
+    @Test
+    void topKReturnsTheBestMatchesFirstAndSkipsNonMatches() {
+        MatchScorer scorer = new MatchScorer(masks, actionFan, romanceFan, 0.5, 0.1);
+
+        assertEquals(List.of(TITANIC, HEAT, NOTEBOOK), indexes(scorer.topK(10)));
+        assertEquals(List.of(TITANIC, HEAT), indexes(scorer.topK(2)));
+        assertEquals(List.of(HEAT, NOTEBOOK), indexes(scorer.topK(new int[]{NOTEBOOK, ALIEN, HEAT}, 5)));
+        assertEquals(List.of(), scorer.topK(0));
+    }
+
+    @Test
+    void fullFairnessOnlyKeepsMoviesBothUsersLike() {
+        MatchScorer scorer = new MatchScorer(masks, actionFan, romanceFan, 1.0, 0.1);
+
+        assertEquals(List.of(TITANIC), indexes(scorer.topK(10)));
+    }
+
+    @Test
+    void hasPreferencesNeedsAtLeastOneKnownGenre() {
+        assertTrue(new MatchScorer(masks, actionFan, null, 0.5, 0.1).hasPreferences());
+        assertFalse(new MatchScorer(masks, null, Map.of(), 0.5, 0.1).hasPreferences());
+        assertFalse(new MatchScorer(masks, Map.of("Western", 1), null, 0.5, 0.1).hasPreferences());
+    }
+
+    private static List<Integer> indexes(List<ScoredMovie> scored) {
+        return scored.stream().map(ScoredMovie::index).toList();
+    }
+}
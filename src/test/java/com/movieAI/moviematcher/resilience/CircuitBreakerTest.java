@@ -0,0 +1,149 @@
+package com.movieAI.moviematcher.resilience;
+
+import com.movieAI.moviematcher.resilience.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+    private static final Duration OPEN_DURATION = Duration.ofMillis(50);
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() {
+        CircuitBreaker breaker = breaker(50, 4, OPEN_DURATION, 1);
+
+        breaker.onFailure(FAST);
+        breaker.onFailure(FAST);
+        breaker.onFailure(FAST);
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void opensWhenTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = breaker(50, 4, Duration.ofMinutes(10), 1);
+        breaker.onSuccess(FAST);
+        breaker.onFailure(FAST);
+        breaker.onSuccess(FAST);
+        assertEquals(State.CLOSED, breaker.getState());
+
+        breaker.onFailure(FAST);
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1L, breaker.getStats().get("rejectedCalls"));
+        assertEquals(1L, breaker.getStats().get("timesOpened"));
+    }
+
+    @Test
+    void oldOutcomesLeaveTheSlidingWindow() {
+        CircuitBreaker breaker = breaker(60, 4, OPEN_DURATION, 1);
+        breaker.onFailure(FAST);
+        breaker.onFailure(FAST);
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        // Three failures in five calls, but the first one has left the window of four
+        breaker.onFailure(FAST);
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(50.0, breaker.getStats().get("failureRate"));
+    }
+
+    @Test
+    void slowSuccessesOpenTheBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker(100, 50, Duration.ofMillis(100), 4, 2, OPEN_DURATION, 1);
+
+        breaker.onSuccess(SLOW);
+        breaker.onSuccess(FAST);
+
+        assertEquals(State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void letsProbesThroughAfterTheOpenDurationAndClosesWhenTheySucceed() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(2);
+
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+
+        assertTrue(breaker.isCallPermitted());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onSuccess(FAST);
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess(FAST);
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getStats().get("bufferedCalls"));
+    }
+
+    @Test
+    void failedOrSlowProbeOpensTheBreakerAgain() throws InterruptedException {
+        CircuitBreaker failed = openBreaker(2);
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        failed.tryAcquirePermission();
+        failed.onFailure(FAST);
+
+        CircuitBreaker slow = openBreaker(2);
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        slow.tryAcquirePermission();
+        slow.onSuccess(SLOW);
+
+        assertEquals(State.OPEN, failed.getState());
+        assertEquals(2L, failed.getStats().get("timesOpened"));
+        assertEquals(State.OPEN, slow.getState());
+    }
+
+    @Test
+    void ignoredProbeGivesItsPermitBack() throws InterruptedException {
+        CircuitBreaker breaker = openBreaker(1);
+        Thread.sleep(OPEN_DURATION.toMillis() * 2);
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        breaker.onIgnored();
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void lateOutcomesWhileOpenAreIgnored() {
+        CircuitBreaker breaker = breaker(50, 2, Duration.ofMinutes(10), 1);
+        breaker.onFailure(FAST);
+        breaker.onFailure(FAST);
+
+        breaker.onSuccess(FAST);
+        breaker.onSuccess(FAST);
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(0, breaker.getStats().get("bufferedCalls"));
+    }
+
+    private static CircuitBreaker breaker(int failureRateThreshold, int windowSize, Duration openDuration,
+                                          int halfOpenPermittedCalls) {
+        return new CircuitBreaker(failureRateThreshold, 100, Duration.ofMillis(100), windowSize, windowSize,
+                openDuration, halfOpenPermittedCalls);
+    }
+
+    private static CircuitBreaker openBreaker(int halfOpenPermittedCalls) {
+        CircuitBreaker breaker = breaker(50, 2, OPEN_DURATION, halfOpenPermittedCalls);
+        breaker.onFailure(FAST);
+        breaker.onFailure(FAST);
+        assertEquals(State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
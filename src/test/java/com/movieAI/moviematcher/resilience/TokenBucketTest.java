@@ -0,0 +1,107 @@
+package com.movieAI.moviematcher.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long MILLIS_50 = TimeUnit.MILLISECONDS.toNanos(50);
+
+    @Test
+    void burstIsServedWithoutWaiting() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 3, 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0L, bucket.acquire(RequestPriority.INTERACTIVE, 0L));
+        }
+        assertEquals(-1L, bucket.acquire(RequestPriority.INTERACTIVE, 0L));
+    }
+
+    @Test
+    void interactiveCallerWaitsForTheNextTokenWithinItsBudget() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(20, 1, 0);
+        bucket.acquire(RequestPriority.INTERACTIVE, 0L);
+
+        long waited = bucket.acquire(RequestPriority.INTERACTIVE, SECOND);
+
+        assertTrue(waited > 0, "waited " + waited);
+        assertTrue(waited <= MILLIS_50, "waited " + waited);
+    }
+
+    @Test
+    void interactiveCallerIsRejectedWhenTheWaitExceedsItsBudget() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(10, 1, 0);
+        bucket.acquire(RequestPriority.INTERACTIVE, 0L);
+
+        assertEquals(-1L, bucket.acquire(RequestPriority.INTERACTIVE, MILLIS_50));
+        // The rejected caller did not reserve the next token
+        assertTrue(bucket.acquire(RequestPriority.INTERACTIVE, SECOND) <= 2 * MILLIS_50);
+    }
+
+    @Test
+    void backgroundLeavesTheReserveToInteractiveCallers() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 3, 1);
+
+        assertTrue(bucket.acquire(RequestPriority.BACKGROUND, 0L) >= 0);
+        assertTrue(bucket.acquire(RequestPriority.BACKGROUND, 0L) >= 0);
+        assertEquals(-1L, bucket.acquire(RequestPriority.BACKGROUND, 0L));
+        assertEquals(0L, bucket.acquire(RequestPriority.INTERACTIVE, 0L));
+    }
+
+    @Test
+    void backgroundGivesUpWhenItsBudgetExpires() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 2, 1);
+        bucket.acquire(RequestPriority.BACKGROUND, 0L);
+
+        long start = System.nanoTime();
+        assertEquals(-1L, bucket.acquire(RequestPriority.BACKGROUND, MILLIS_50));
+        assertTrue(System.nanoTime() - start >= MILLIS_50);
+    }
+
+    @Test
+    void penaltyStopsBothLanes() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 5, 0);
+
+        bucket.penalize(Duration.ofMillis(500));
+
+        assertEquals(0.0, bucket.getAvailableTokens());
+        assertEquals(-1L, bucket.acquire(RequestPriority.INTERACTIVE, MILLIS_50));
+        assertEquals(-1L, bucket.acquire(RequestPriority.BACKGROUND, MILLIS_50));
+    }
+
+    @Test
+    void tokensRefillOverTimeUpToTheBurst() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(50, 2, 0);
+        bucket.acquire(RequestPriority.INTERACTIVE, 0L);
+        bucket.acquire(RequestPriority.INTERACTIVE, 0L);
+        assertTrue(bucket.getAvailableTokens() < 1.0);
+
+        Thread.sleep(200);
+
+        assertEquals(2.0, bucket.getAvailableTokens());
+        assertTrue(bucket.acquire(RequestPriority.BACKGROUND, 0L) >= 0);
+    }
+
+    @Test
+    void refundedTokenIsAvailableAgain() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 1, 0);
+        bucket.acquire(RequestPriority.INTERACTIVE, 0L);
+
+        bucket.refund();
+
+        assertEquals(0L, bucket.acquire(RequestPriority.INTERACTIVE, 0L));
+    }
+
+    @Test
+    void rejectsNonPositiveRateOrBurst() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+    }
+}
@@ -0,0 +1,65 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.dto.PythonRecommendation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotTitleTrackerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void seedsWithoutRecommendationsAreNotCounted() {
+        HotTitleTracker tracker = tracker(10);
+
+        tracker.recordRequest("Haet", List.of());
+        tracker.recordRequest("Heat", null);
+
+        assertTrue(tracker.topSeeds(10).isEmpty());
+    }
+
+    @Test
+    void seedsAndRecommendedTitlesAreCountedTogether() {
+        HotTitleTracker tracker = tracker(10);
+
+        tracker.recordRequest("Heat", List.of(recommendation("Collateral"), recommendation("Thief")));
+        tracker.recordRequest("Alien", List.of(recommendation("Collateral")));
+        tracker.recordRequest("heat ", List.of(recommendation("collateral")));
+
+        assertEquals(List.of("Heat", "Alien"), tracker.topSeeds(10));
+        assertEquals("Collateral", tracker.topRecommended(10).get(0));
+        assertEquals(2, tracker.topRecommended(10).size());
+    }
+
+    @Test
+    void newTitlesReplaceTheLeastRequestedOnceFull() {
+        HotTitleTracker tracker = tracker(3);
+        for (int i = 0; i < 5; i++) {
+            tracker.recordRequest("Heat", List.of(recommendation("Collateral")));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            tracker.recordRequest("Unique " + i, List.of(recommendation("Collateral")));
+        }
+
+        List<String> seeds = tracker.topSeeds(10);
+        assertEquals(3, seeds.size());
+        assertEquals("Heat", seeds.get(0));
+        assertTrue(seeds.contains("Unique 99"));
+    }
+
+    private HotTitleTracker tracker(int maxTracked) {
+        return new HotTitleTracker(directory.resolve("hot-titles.json").toString(), maxTracked);
+    }
+
+    private static PythonRecommendation recommendation(String title) {
+        return new PythonRecommendation(title, null, null, null, null);
+    }
+}
@@ -0,0 +1,88 @@
+package com.movieAI.moviematcher.service;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many requests per second {@link com.movieAI.moviematcher.config.JwtFilter}
+ * can authenticate, counting only the token work (user lookup excluded).
+ * <p>
+ * Compares three paths over a pool of distinct tokens:
+ * - per-request: the former filter, four parses with a freshly decoded key and new parser each
+ * - single verify: one parse with the shared key and parser, verified-token cache disabled
+ * - cached verify: one lookup in the verified-token cache, the steady state for active clients
+ * <p>
+ * Command line: JwtVerificationBenchmark [threads] [seconds per path] [distinct tokens]
+ */
+public final class JwtVerificationBenchmark {
+
+    private JwtVerificationBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int tokenCount = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        String secret = Encoders.BASE64.encode(Jwts.SIG.HS256.key().build().getEncoded());
+        JWTService uncached = new JWTService(secret, 0, 300);
+        JWTService cached = new JWTService(secret, tokenCount * 2, 300);
+        String[] tokens = new String[tokenCount];
+        for (int i = 0; i < tokenCount; i++) {
+            tokens[i] = uncached.generateToken("user" + i, "user" + i + "@example.com");
+        }
+
+        System.out.println("JWT verification, " + threads + " threads, " + tokenCount + " distinct tokens");
+        report("per-request (4 parses)", run(threads, seconds, tokens, token -> {
+            for (int i = 0; i < 4; i++) {
+                Jwts.parser()
+                        .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                        .build()
+                        .parseSignedClaims(token);
+            }
+        }));
+        report("single verify", run(threads, seconds, tokens, uncached::verify));
+        report("cached verify", run(threads, seconds, tokens, cached::verify));
+    }
+
+    private static long run(int threads, int seconds, String[] tokens, TokenCheck check) throws InterruptedException {
+        // Warm-up so every path is measured after JIT compilation
+        for (int i = 0; i < 20_000; i++) {
+            check.apply(tokens[i % tokens.length]);
+        }
+        LongAdder completed = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            Thread worker = new Thread(() -> {
+                int i = offset;
+                while (System.nanoTime() < deadline) {
+                    check.apply(tokens[i++ % tokens.length]);
+                    completed.increment();
+                }
+                done.countDown();
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        done.await();
+        return completed.sum() / seconds;
+    }
+
+    private static void report(String path, long requestsPerSecond) {
+        System.out.printf("  %-24s %,12d requests/s%n", path, requestsPerSecond);
+    }
+
+    @FunctionalInterface
+    private interface TokenCheck {
+        void apply(String token);
+    }
+}
@@ -0,0 +1,105 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.service.LoginAttemptThrottle.LoginThrottledException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginAttemptThrottleTest {
+
+    private final LoginAttemptThrottle throttle = new LoginAttemptThrottle(true, 3, 10, 100, 900, 1000);
+
+    @Test
+    void failuresFromOneAddressDoNotLockTheAccountElsewhere() {
+        failTimes("alice", "10.0.0.1", 3);
+
+        assertThrows(LoginThrottledException.class, () -> throttle.reserve("alice", "10.0.0.1"));
+        assertDoesNotThrow(() -> throttle.reserve("alice", "10.0.0.2"));
+    }
+
+    @Test
+    void usernameLimitCapsGuessingFromManyAddresses() {
+        for (int ip = 0; ip < 5; ip++) {
+            failTimes("bob", "10.0.1." + ip, 2);
+        }
+
+        LoginThrottledException e = assertThrows(LoginThrottledException.class,
+                () -> throttle.reserve("bob", "10.0.1.99"));
+        assertEquals("Too many failed logins for this account", e.getMessage());
+    }
+
+    @Test
+    void successGivesBackTheAttemptAndClearsThePair() {
+        failTimes("carol", "10.0.2.1", 2);
+        throttle.reserve("carol", "10.0.2.1");
+        throttle.recordSuccess("carol", "10.0.2.1");
+
+        failTimes("carol", "10.0.2.1", 3);
+        assertThrows(LoginThrottledException.class, () -> throttle.reserve("carol", "10.0.2.1"));
+    }
+
+    @Test
+    void releasedAttemptsAreNotCounted() {
+        for (int i = 0; i < 10; i++) {
+            throttle.reserve("dave", "10.0.3.1");
+            throttle.release("dave", "10.0.3.1");
+        }
+
+        assertDoesNotThrow(() -> throttle.reserve("dave", "10.0.3.1"));
+    }
+
+    @Test
+    void concurrentBurstGetsNoMoreAttemptsThanTheLimit() throws Exception {
+        int threads = 32;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> attempts = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        throttle.reserve("erin", "10.0.4.1");
+                        return true;
+                    } catch (LoginThrottledException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> attempt : attempts) {
+                admitted += attempt.get() ? 1 : 0;
+            }
+            assertEquals(3, admitted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disabledThrottleAdmitsEverything() {
+        LoginAttemptThrottle disabled = new LoginAttemptThrottle(false, 1, 1, 1, 900, 1000);
+        for (int i = 0; i < 5; i++) {
+            disabled.reserve("frank", "10.0.5.1");
+            disabled.recordFailure("frank", "10.0.5.1");
+        }
+        assertDoesNotThrow(() -> disabled.reserve("frank", "10.0.5.1"));
+    }
+
+    private void failTimes(String username, String clientIp, int times) {
+        for (int i = 0; i < times; i++) {
+            throttle.reserve(username, clientIp);
+            throttle.recordFailure(username, clientIp);
+        }
+    }
+}
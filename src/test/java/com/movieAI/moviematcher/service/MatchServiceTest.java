@@ -0,0 +1,80 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.catalog.CatalogMovie;
+import com.movieAI.moviematcher.catalog.HeapMovieCatalog;
+import com.movieAI.moviematcher.catalog.MovieCatalog;
+import com.movieAI.moviematcher.dto.PreferencesDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MatchServiceTest {
+
+    private final SwappableCatalog recommender = new SwappableCatalog();
+    private final MatchService matchService = new MatchService(new FixedPreferences(), recommender, 0.5, 0.1, 100);
+
+    @Test
+    void genreMasksAreRebuiltAfterACatalogReload() {
+        recommender.catalog = new HeapMovieCatalog(List.of(
+                new CatalogMovie("Heat", null, List.of("Action", "Crime"), 50, 8.0)));
+        assertEquals(List.of("Heat"), titles(matchService.match("alice", 10)));
+        assertEquals(2, matchService.getStats().get("genres"));
+
+        recommender.catalog = new HeapMovieCatalog(List.of(
+                new CatalogMovie("Heat", null, List.of("Action", "Crime"), 50, 8.0),
+                new CatalogMovie("Unforgiven", null, List.of("Western"), 30, 8.2)));
+        MatchService.MatchResponse response = matchService.match("alice", 10);
+
+        assertEquals(List.of("Unforgiven", "Heat"), titles(response));
+        assertEquals(2, response.getCandidateCount());
+        assertEquals(3, matchService.getStats().get("genres"));
+    }
+
+    @Test
+    void matchingWithoutACatalogFails() {
+        assertThrows(IllegalStateException.class, () -> matchService.match("alice", 10));
+    }
+
+    private static List<String> titles(MatchService.MatchResponse response) {
+        return response.getMatches().stream().map(MatchService.MatchedMovie::getTitle).toList();
+    }
+
+    /**
+     * Stands in for the embedded recommender; a reload assigns a new catalog instance
+     */
+    private static final class SwappableCatalog extends EmbeddedRecommender {
+        private volatile MovieCatalog catalog;
+
+        private SwappableCatalog() {
+            super("", "", false, 10, "tfidf", 128, 16, 200, 64, false);
+        }
+
+        @Override
+        public Optional<MovieCatalog> getCatalog() {
+            return Optional.ofNullable(catalog);
+        }
+    }
+
+    /**
+     * Both users like Westerns most, then Action
+     */
+    private static final class FixedPreferences extends PreferenceService {
+        private FixedPreferences() {
+            super(null, false, 0, 0);
+        }
+
+        @Override
+        public PreferencesDTO getPreferences(String username) {
+            PreferencesDTO preferences = new PreferencesDTO();
+            preferences.setUser1Genres(Map.of("Western", 1, "Action", 2));
+            preferences.setUser2Genres(Map.of("Western", 1, "Crime", 2));
+            preferences.setServices(List.of());
+            return preferences;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.dto.PreferencesDTO;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository.GenreRow;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository.ServiceRow;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository.StoredPreferences;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PreferenceDiffTest {
+
+    private static final StoredPreferences STORED = new StoredPreferences(
+            List.of(new GenreRow(1L, 1, "Drama", 1),
+                    new GenreRow(2L, 1, "Comedy", 2),
+                    new GenreRow(3L, 2, "Drama", 1)),
+            List.of(new ServiceRow(10L, "Netflix"),
+                    new ServiceRow(11L, "Hulu")));
+
+    @Test
+    void unchangedPreferencesNeedNoWrites() {
+        PreferenceDiff diff = PreferenceDiff.between(STORED,
+                preferences(genres("Drama", 1, "Comedy", 2), genres("Drama", 1), List.of("Netflix", "Hulu")));
+
+        assertTrue(diff.isEmpty());
+    }
+
+    @Test
+    void changedRankingUpdatesTheExistingRow() {
+        PreferenceDiff diff = PreferenceDiff.between(STORED,
+                preferences(genres("Drama", 2, "Comedy", 1), genres("Drama", 1), List.of("Netflix", "Hulu")));
+
+        assertEquals(List.of(new GenreRow(1L, 1, "Drama", 2), new GenreRow(2L, 1, "Comedy", 1)),
+                diff.getRankingUpdates());
+        assertTrue(diff.getGenreInserts().isEmpty());
+        assertTrue(diff.getGenreDeletes().isEmpty());
+    }
+
+    @Test
+    void genresAreMatchedByUserSlotAndName() {
+        PreferenceDiff diff = PreferenceDiff.between(STORED,
+                preferences(genres("Drama", 1), genres("Comedy", 1), List.of("Netflix", "Hulu")));
+
+        assertEquals(List.of(new GenreRow(null, 2, "Comedy", 1)), diff.getGenreInserts());
+        assertEquals(List.of(2L, 3L), diff.getGenreDeletes().stream().sorted().toList());
+        assertTrue(diff.getRankingUpdates().isEmpty());
+    }
+
+    @Test
+    void servicesAreInsertedAndDeletedByName() {
+        PreferenceDiff diff = PreferenceDiff.between(STORED,
+                preferences(genres("Drama", 1, "Comedy", 2), genres("Drama", 1), List.of("Netflix", "Max", "Max")));
+
+        assertEquals(List.of("Max"), diff.getServiceInserts());
+        assertEquals(List.of(11L), diff.getServiceDeletes());
+    }
+
+    @Test
+    void nullGenresAndServicesClearEverything() {
+        PreferenceDiff diff = PreferenceDiff.between(STORED, new PreferencesDTO());
+
+        assertEquals(List.of(1L, 2L, 3L), diff.getGenreDeletes().stream().sorted().toList());
+        assertEquals(List.of(10L, 11L), diff.getServiceDeletes().stream().sorted().toList());
+        assertTrue(diff.getGenreInserts().isEmpty());
+        assertTrue(diff.getServiceInserts().isEmpty());
+    }
+
+    @Test
+    void duplicateStoredRowsKeepTheOldest() {
+        StoredPreferences stored = new StoredPreferences(
+                List.of(new GenreRow(1L, 1, "Drama", 1), new GenreRow(5L, 1, "Drama", 3)),
+                List.of(new ServiceRow(10L, "Netflix"), new ServiceRow(12L, "Netflix")));
+
+        PreferenceDiff diff = PreferenceDiff.between(stored,
+                preferences(genres("Drama", 1), null, List.of("Netflix")));
+
+        assertEquals(List.of(5L), diff.getGenreDeletes());
+        assertEquals(List.of(12L), diff.getServiceDeletes());
+        assertTrue(diff.getRankingUpdates().isEmpty());
+    }
+
+    @Test
+    void nullNamesAndRankingsAreRejected() {
+        Map<String, Integer> nullName = new HashMap<>();
+        nullName.put(null, 1);
+        Map<String, Integer> nullRanking = new HashMap<>();
+        nullRanking.put("Drama", null);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PreferenceDiff.between(STORED, preferences(nullName, null, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> PreferenceDiff.between(STORED, preferences(null, nullRanking, null)));
+        assertThrows(IllegalArgumentException.class,
+                () -> PreferenceDiff.between(STORED, preferences(null, null, Arrays.asList("Netflix", null))));
+    }
+
+    private static Map<String, Integer> genres(Object... namesAndRankings) {
+        Map<String, Integer> genres = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndRankings.length; i += 2) {
+            genres.put((String) namesAndRankings[i], (Integer) namesAndRankings[i + 1]);
+        }
+        return genres;
+    }
+
+    private static PreferencesDTO preferences(Map<String, Integer> user1Genres, Map<String, Integer> user2Genres,
+                                              List<String> services) {
+        PreferencesDTO preferences = new PreferencesDTO();
+        preferences.setUser1Genres(user1Genres);
+        preferences.setUser2Genres(user2Genres);
+        preferences.setServices(services);
+        return preferences;
+    }
+}
@@ -0,0 +1,264 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.dto.PreferencesDTO;
+import com.movieAI.moviematcher.repository.PreferenceJdbcRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares database round trips and latency of a preference save, old path against new.
+ * <p>
+ * The old path replays the statements the JPA version issued: the user lookup, one select
+ * per derived deleteBy call, one delete per loaded row and one insert per row (IDENTITY ids
+ * rule out insert batching). The new path is {@link PreferenceService} on plain JDBC. A round
+ * trip is one execute or executeBatch call, or a commit.
+ * <p>
+ * Run it against the application's database after the schema exists. It creates a throwaway
+ * user and removes it when done.
+ * <p>
+ * Command line: PreferenceSaveBenchmark jdbc-url db-user db-password [genres per slot] [iterations]
+ */
+public final class PreferenceSaveBenchmark {
+
+    private static final int SERVICES = 5;
+
+    private PreferenceSaveBenchmark() {}
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 3) {
+            System.err.println("Usage: PreferenceSaveBenchmark jdbc-url db-user db-password [genres per slot] [iterations]");
+            System.exit(1);
+        }
+        int genres = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int iterations = args.length > 4 ? Integer.parseInt(args[4]) : 200;
+
+        try (Connection raw = DriverManager.getConnection(args[0], args[1], args[2])) {
+            raw.setAutoCommit(false);
+            int[] roundTrips = new int[1];
+            Connection connection = counting(raw, roundTrips);
+            PreferenceService service = new PreferenceService(new PreferenceJdbcRepository(
+                    new JdbcTemplate(new SingleConnectionDataSource(connection, true))), false, 0, 0);
+
+            String username = "pref-bench-" + System.currentTimeMillis();
+            int userId = createUser(raw, username);
+            try {
+                PreferencesDTO ranked = preferences(genres, 0, false);
+                PreferencesDTO reranked = preferences(genres, 0, true);
+                PreferencesDTO swapped = preferences(genres, 5, false);
+
+                System.out.println("Preference save, " + genres + " genres per slot, " + SERVICES + " services, "
+                        + iterations + " saves per case");
+                System.out.printf("  %-20s %-5s %12s %10s%n", "case", "path", "round trips", "ms/save");
+                for (Map.Entry<String, PreferencesDTO[]> testCase : cases(ranked, reranked, swapped).entrySet()) {
+                    PreferencesDTO[] states = testCase.getValue();
+                    run(testCase.getKey(), "old", iterations, states, roundTrips, connection,
+                            dto -> legacySave(connection, username, dto));
+                    run(testCase.getKey(), "new", iterations, states, roundTrips, connection,
+                            dto -> service.savePreferences(username, dto));
+                }
+            } finally {
+                raw.rollback();
+                deleteUser(raw, userId);
+            }
+        }
+    }
+
+    private static Map<String, PreferencesDTO[]> cases(PreferencesDTO ranked, PreferencesDTO reranked,
+                                                       PreferencesDTO swapped) {
+        Map<String, PreferencesDTO[]> cases = new LinkedHashMap<>();
+        cases.put("unchanged", new PreferencesDTO[]{ranked});
+        cases.put("rerank all", new PreferencesDTO[]{ranked, reranked});
+        cases.put("swap 5 genres", new PreferencesDTO[]{ranked, swapped});
+        return cases;
+    }
+
+    private static void run(String name, String path, int iterations, PreferencesDTO[] states, int[] roundTrips,
+                            Connection connection, Save save) throws SQLException {
+        // Warm-up, which also brings the stored rows to the case's starting state
+        for (int i = 0; i < 20; i++) {
+            save.apply(states[i % states.length]);
+            connection.commit();
+        }
+        roundTrips[0] = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            save.apply(states[(i + 1) % states.length]);
+            connection.commit();
+        }
+        double msPerSave = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+        System.out.printf("  %-20s %-5s %12.1f %10.2f%n", name, path, roundTrips[0] / (double) iterations, msPerSave);
+    }
+
+    /**
+     * The statements the JPA implementation sent for one save
+     */
+    private static void legacySave(Connection connection, String username, PreferencesDTO dto) throws SQLException {
+        int userId;
+        try (PreparedStatement ps = connection.prepareStatement("SELECT id FROM users WHERE username = ?")) {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                userId = rs.getInt(1);
+            }
+        }
+        List<Long> ids = new ArrayList<>();
+        for (int slot = 1; slot <= 2; slot++) {
+            ids.addAll(selectIds(connection, "SELECT id FROM genre_preferences WHERE user_id = ? AND user_slot = " + slot, userId));
+        }
+        List<Long> serviceIds = selectIds(connection, "SELECT id FROM streaming_service_selections WHERE user_id = ?", userId);
+        for (long id : ids) {
+            deleteById(connection, "DELETE FROM genre_preferences WHERE id = ?", id);
+        }
+        for (long id : serviceIds) {
+            deleteById(connection, "DELETE FROM streaming_service_selections WHERE id = ?", id);
+        }
+        for (int slot = 1; slot <= 2; slot++) {
+            Map<String, Integer> slotGenres = slot == 1 ? dto.getUser1Genres() : dto.getUser2Genres();
+            for (Map.Entry<String, Integer> genre : slotGenres.entrySet()) {
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO genre_preferences (genre_name, ranking, user_slot, user_id) VALUES (?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setString(1, genre.getKey());
+                    ps.setInt(2, genre.getValue());
+                    ps.setInt(3, slot);
+                    ps.setInt(4, userId);
+                    ps.executeUpdate();
+                }
+            }
+        }
+        for (String serviceName : dto.getServices()) {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO streaming_service_selections (service_name, user_id) VALUES (?, ?)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, serviceName);
+                ps.setInt(2, userId);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private static List<Long> selectIds(Connection connection, String sql, int userId) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setInt(1, userId);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void deleteById(Connection connection, String sql, long id) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setLong(1, id);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Genres in both slots; the first 'renamed' genres get other names, reversed flips the ranks
+     */
+    private static PreferencesDTO preferences(int genres, int renamed, boolean reversed) {
+        PreferencesDTO dto = new PreferencesDTO();
+        dto.setUser1Genres(genreRanking(genres, renamed, reversed));
+        dto.setUser2Genres(genreRanking(genres, renamed, !reversed));
+        List<String> services = new ArrayList<>();
+        for (int i = 0; i < SERVICES; i++) {
+            services.add(i < renamed / 2 ? "other-service" + i : "service" + i);
+        }
+        dto.setServices(services);
+        return dto;
+    }
+
+    private static Map<String, Integer> genreRanking(int genres, int renamed, boolean reversed) {
+        Map<String, Integer> ranking = new LinkedHashMap<>();
+        for (int i = 0; i < genres; i++) {
+            ranking.put(i < renamed ? "other-genre" + i : "genre" + i, reversed ? genres - i : i + 1);
+        }
+        return ranking;
+    }
+
+    private static int createUser(Connection connection, String username) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO users (username, password, email) VALUES (?, 'not-a-hash', ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, username);
+            ps.setString(2, username + "@example.com");
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                int id = keys.getInt("id");
+                connection.commit();
+                return id;
+            }
+        }
+    }
+
+    private static void deleteUser(Connection connection, int userId) throws SQLException {
+        for (String sql : new String[]{
+                "DELETE FROM genre_preferences WHERE user_id = ?",
+                "DELETE FROM streaming_service_selections WHERE user_id = ?",
+                "DELETE FROM users WHERE id = ?"}) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setInt(1, userId);
+                ps.executeUpdate();
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Wraps a connection so every statement execution and commit adds one to roundTrips[0]
+     */
+    private static Connection counting(Connection connection, int[] roundTrips) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, methodArgs) -> {
+                    Object result = invoke(connection, method, methodArgs);
+                    if (method.getName().equals("commit")) {
+                        roundTrips[0]++;
+                    } else if (result instanceof PreparedStatement statement) {
+                        return countingStatement(statement, roundTrips);
+                    }
+                    return result;
+                });
+    }
+
+    private static PreparedStatement countingStatement(PreparedStatement statement, int[] roundTrips) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, methodArgs) -> {
+                    if (method.getName().startsWith("execute")) {
+                        roundTrips[0]++;
+                    }
+                    return invoke(statement, method, methodArgs);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Save {
+        void apply(PreferencesDTO dto) throws SQLException;
+    }
+}
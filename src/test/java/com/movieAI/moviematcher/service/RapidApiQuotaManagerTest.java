@@ -0,0 +1,69 @@
+package com.movieAI.moviematcher.service;
+
+import com.movieAI.moviematcher.resilience.RequestPriority;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RapidApiQuotaManagerTest {
+
+    @Test
+    void concurrentCallersCannotOvershootTheMonthlyLimit() throws Exception {
+        int threads = 32;
+        RapidApiQuotaManager quota = new RapidApiQuotaManager(1000, 1000, 0, 2000, 5, 1000);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return quota.tryAcquireNow(RequestPriority.INTERACTIVE);
+                }));
+            }
+            start.countDown();
+            int admitted = 0;
+            for (Future<Boolean> call : calls) {
+                admitted += call.get() ? 1 : 0;
+            }
+            assertEquals(5, admitted);
+            assertEquals(5L, quota.getStats().get("monthlyUsed"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void callerWithoutATokenDoesNotUseTheMonthlyBudget() {
+        RapidApiQuotaManager quota = new RapidApiQuotaManager(1, 1, 0, 2000, 10, 1000);
+
+        assertTrue(quota.tryAcquireNow(RequestPriority.INTERACTIVE));
+        assertFalse(quota.tryAcquireNow(RequestPriority.INTERACTIVE));
+
+        assertEquals(1L, quota.getStats().get("monthlyUsed"));
+    }
+
+    @Test
+    void refundedPermitCanBeTakenAgain() {
+        RapidApiQuotaManager quota = new RapidApiQuotaManager(1, 1, 0, 2000, 1, 1000);
+        assertTrue(quota.tryAcquireNow(RequestPriority.INTERACTIVE));
+        assertFalse(quota.tryAcquireNow(RequestPriority.INTERACTIVE));
+
+        quota.refund(RequestPriority.INTERACTIVE);
+
+        assertTrue(quota.tryAcquireNow(RequestPriority.INTERACTIVE));
+        Map<?, ?> lane = (Map<?, ?>) quota.getStats().get("interactive");
+        assertEquals(1L, lane.get("refunded"));
+        assertEquals(1L, quota.getStats().get("monthlyUsed"));
+    }
+}
@@ -0,0 +1,156 @@
+package com.movieAI.moviematcher.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.movieAI.moviematcher.service.EnhancedRecommendationService.StreamingAvailabilityData;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares allocation and latency of parsing a RapidAPI /shows/search/title body, the old
+ * tree-model path against {@link StreamingAvailabilityParser}.
+ * <p>
+ * The old path replays what the service did before: read the body into a String, unwrap it
+ * while it is double-encoded, build a JsonNode tree of the whole array and pick fields off
+ * the first show. Bodies are synthetic, with the given number of shows and countries per
+ * show, and both paths must agree on the result. Allocation is measured per parse with the
+ * thread's allocated-bytes counter, after a warm-up so the JIT has compiled both paths.
+ * <p>
+ * Command line: StreamingAvailabilityParserBenchmark [shows] [countries] [iterations]
+ */
+public final class StreamingAvailabilityParserBenchmark {
+
+    private static final String COUNTRY = "us";
+
+    private StreamingAvailabilityParserBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int shows = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int countries = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        StreamingAvailabilityParser parser = new StreamingAvailabilityParser(objectMapper.getFactory(), COUNTRY);
+        byte[] body = body(shows, countries);
+        if (!sameData(treeParse(objectMapper, body), parser.parse(new ByteArrayInputStream(body)))) {
+            throw new IllegalStateException("Tree-model and streaming parsers disagree");
+        }
+
+        System.out.println("RapidAPI search body, " + shows + " shows x " + countries + " countries, "
+                + body.length / 1024 + " KB, " + iterations + " parses per path");
+        System.out.printf("  %-10s %14s %12s%n", "path", "bytes/parse", "us/parse");
+        run("tree", iterations, () -> treeParse(objectMapper, body));
+        run("streaming", iterations, () -> parser.parse(new ByteArrayInputStream(body)));
+    }
+
+    private static void run(String name, int iterations, Parse parse) throws IOException {
+        for (int i = 0; i < iterations; i++) {
+            parse.apply();
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parse.apply();
+        }
+        double microsPerParse = (System.nanoTime() - start) / 1_000.0 / iterations;
+        long bytesPerParse = (threads.getThreadAllocatedBytes(thread) - allocatedBefore) / iterations;
+        System.out.printf("  %-10s %14d %12.1f%n", name, bytesPerParse, microsPerParse);
+    }
+
+    /**
+     * The parse the service did before the streaming parser, from the body as a String
+     */
+    private static StreamingAvailabilityData treeParse(ObjectMapper objectMapper, byte[] bytes) throws IOException {
+        String responseBody = new String(bytes, StandardCharsets.UTF_8);
+        while (responseBody.startsWith("\"") && responseBody.endsWith("\"")) {
+            responseBody = objectMapper.readValue(responseBody, String.class);
+        }
+        JsonNode rootNode = objectMapper.readTree(responseBody);
+        if (!rootNode.isArray() || rootNode.isEmpty()) {
+            return new StreamingAvailabilityData();
+        }
+        JsonNode show = rootNode.get(0);
+
+        JsonNode verticalPoster = show.path("imageSet").path("verticalPoster");
+        String posterUrl = verticalPoster.has("w480") ? verticalPoster.path("w480").asText(null)
+                : verticalPoster.has("w300") ? verticalPoster.path("w300").asText(null)
+                : "https://example.com/default-poster.jpg";
+        List<String> platforms = new ArrayList<>();
+        for (JsonNode option : show.path("streamingOptions").path(COUNTRY)) {
+            String serviceName = option.path("service").path("name").asText();
+            if (!serviceName.isEmpty() && !platforms.contains(serviceName)) {
+                platforms.add(serviceName);
+            }
+        }
+        Integer releaseYear = show.path("releaseYear").isInt() ? show.path("releaseYear").asInt() : null;
+        String imdbId = show.path("imdbId").asText(null);
+        List<String> genres = new ArrayList<>();
+        for (JsonNode genre : show.path("genres")) {
+            genres.add(genre.path("name").asText());
+        }
+        return new StreamingAvailabilityData(posterUrl, platforms, releaseYear, imdbId, genres);
+    }
+
+    private static boolean sameData(StreamingAvailabilityData a, StreamingAvailabilityData b) {
+        return a.getPosterUrl().equals(b.getPosterUrl())
+                && a.getStreamingPlatforms().equals(b.getStreamingPlatforms())
+                && a.getReleaseYear().equals(b.getReleaseYear())
+                && a.getImdbId().equals(b.getImdbId())
+                && a.getGenres().equals(b.getGenres());
+    }
+
+    /**
+     * A search result array shaped like RapidAPI's: every show carries options for every country
+     */
+    private static byte[] body(int shows, int countries) {
+        StringBuilder json = new StringBuilder("[");
+        for (int show = 0; show < shows; show++) {
+            if (show > 0) {
+                json.append(',');
+            }
+            json.append("{\"itemType\":\"show\",\"showType\":\"movie\",\"id\":\"").append(show)
+                    .append("\",\"imdbId\":\"tt").append(1_000_000 + show)
+                    .append("\",\"title\":\"Movie ").append(show)
+                    .append("\",\"overview\":\"A long enough overview of movie ").append(show)
+                    .append(" to look like the real thing.\",\"releaseYear\":").append(1990 + show % 30)
+                    .append(",\"genres\":[{\"id\":\"drama\",\"name\":\"Drama\"},{\"id\":\"thriller\",\"name\":\"Thriller\"}]")
+                    .append(",\"imageSet\":{\"verticalPoster\":{\"w240\":\"https://img.example/").append(show)
+                    .append("/240.jpg\",\"w360\":\"https://img.example/").append(show)
+                    .append("/360.jpg\",\"w480\":\"https://img.example/").append(show).append("/480.jpg\"}}")
+                    .append(",\"streamingOptions\":{");
+            for (int country = 0; country < countries; country++) {
+                if (country > 0) {
+                    json.append(',');
+                }
+                String code = country == 0 ? COUNTRY : "c" + country;
+                json.append('"').append(code).append("\":[");
+                for (int option = 0; option < 4; option++) {
+                    if (option > 0) {
+                        json.append(',');
+                    }
+                    json.append("{\"service\":{\"id\":\"service").append(option)
+                            .append("\",\"name\":\"Service ").append(option)
+                            .append("\",\"homePage\":\"https://service").append(option).append(".example\"}")
+                            .append(",\"type\":\"subscription\",\"link\":\"https://service").append(option)
+                            .append(".example/").append(code).append('/').append(show)
+                            .append("\",\"quality\":\"hd\",\"expiresSoon\":false,\"availableSince\":1700000000}");
+                }
+                json.append(']');
+            }
+            json.append("}}");
+        }
+        return json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Parse {
+        StreamingAvailabilityData apply() throws IOException;
+    }
+}